@@ -0,0 +1,111 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Microbenchmark measuring the time and the memory allocated per turn by the game state transitions, for both the
+ * immutable {@link GameState} and the {@link MutableGameState} engine. Each game is played by scripted players
+ * claiming the first overground route they can pay with cars of a single color, drawing cards otherwise. Their
+ * decisions are kept as cheap as possible so that the figures mostly reflect the transitions themselves.
+ * <p>
+ * Usage : GameStateBenchmark [games]
+ *
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public final class GameStateBenchmark {
+    private static final int WARMUP_GAMES = 2_000;
+    private static final int DEFAULT_GAMES = 20_000;
+    private static final int MAX_TURNS = 500;
+
+    private GameStateBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+
+        run(Function.identity(), WARMUP_GAMES);
+        run(MutableGameState::of, WARMUP_GAMES);
+
+        report("GameState", run(Function.identity(), games));
+        report("MutableGameState", run(MutableGameState::of, games));
+    }
+
+    private static void report(String name, long[] result) {
+        System.out.printf("%-16s : %,d turns, %,.0f ns/turn, %,.0f bytes/turn%n",
+                name, result[0], (double) result[1] / result[0], (double) result[2] / result[0]);
+    }
+
+    private static <S extends GameStateEngine<S>> long[] run(Function<GameState, S> engine, int games) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets());
+
+        long turns = 0;
+        long bytes = threads.getThreadAllocatedBytes(threadId);
+        long time = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            Random rng = new Random(i);
+            turns += playGame(engine.apply(GameState.initial(tickets, rng)), rng);
+        }
+        time = System.nanoTime() - time;
+        bytes = threads.getThreadAllocatedBytes(threadId) - bytes;
+
+        return new long[]{turns, time, bytes};
+    }
+
+    private static <S extends GameStateEngine<S>> int playGame(S state, Random rng) {
+        for (PlayerId playerId : PlayerId.ALL) {
+            SortedBag<Ticket> drawn = state.topTickets(Constants.INITIAL_TICKETS_COUNT);
+            state = state.withoutTopTickets(Constants.INITIAL_TICKETS_COUNT)
+                    .withInitiallyChosenTickets(playerId, drawn);
+        }
+
+        Set<Route> claimed = new HashSet<>();
+        int turns = 0;
+        while (turns < MAX_TURNS) {
+            turns += 1;
+            Route route = claimableRoute(state.currentPlayerState(), claimed);
+            PublicCardState cardState = state.cardState();
+
+            if (route != null) {
+                claimed.add(route);
+                state = state.withClaimedRoute(route, SortedBag.of(route.length(), claimCard(state.currentPlayerState(), route)));
+            } else if (cardState.deckSize() + cardState.discardsSize() >= Constants.FACE_UP_CARDS_COUNT) {
+                for (int i = 0; i < 2; i++) {
+                    state = state.withCardsDeckRecreatedIfNeeded(rng);
+                    state = (i == 0) ? state.withDrawnFaceUpCard(rng.nextInt(Constants.FACE_UP_CARDS_COUNT))
+                            : state.withBlindlyDrawnCard();
+                }
+            }
+
+            if (state.currentPlayerId() == state.lastPlayer())
+                break;
+            state = state.forNextTurn();
+        }
+        return turns;
+    }
+
+    private static Route claimableRoute(PlayerState playerState, Set<Route> claimed) {
+        for (Route route : ChMap.routes()) {
+            if (route.level() == Route.Level.OVERGROUND && route.length() <= playerState.carCount()
+                    && !claimed.contains(route) && claimCard(playerState, route) != null)
+                return route;
+        }
+        return null;
+    }
+
+    private static Card claimCard(PlayerState playerState, Route route) {
+        for (Card card : Card.CARS) {
+            if ((route.color() == null || route.color() == card.color())
+                    && playerState.cards().countOf(card) >= route.length())
+                return card;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+package ch.epfl.tchu;
+
+import ch.epfl.tchu.game.Card;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedBagTest {
+    @Test
+    void enumBagKeepsOrdinalOrder() {
+        var bag = SortedBag.of(List.of(Card.LOCOMOTIVE, Card.RED, Card.BLACK, Card.RED));
+        assertEquals(List.of(Card.BLACK, Card.RED, Card.RED, Card.LOCOMOTIVE), bag.toList());
+        assertEquals(Card.RED, bag.get(2));
+        assertEquals(4, bag.size());
+        assertEquals("{BLACK, 2×RED, LOCOMOTIVE}", bag.toString());
+    }
+
+    @Test
+    void enumBagMapAndSetAreSorted() {
+        var bag = SortedBag.of(2, Card.WHITE, 1, Card.BLUE);
+        assertEquals(new TreeMap<>(Map.of(Card.BLUE, 1, Card.WHITE, 2)), bag.toMap());
+        assertEquals(List.of(Card.BLUE, Card.WHITE), List.copyOf(bag.toSet()));
+    }
+
+    @Test
+    void enumBagUnionAndDifferenceWork() {
+        var b1 = SortedBag.of(2, Card.RED, 1, Card.LOCOMOTIVE);
+        var b2 = SortedBag.of(1, Card.RED, 3, Card.BLUE);
+
+        assertEquals(SortedBag.of(List.of(Card.RED, Card.RED, Card.RED, Card.BLUE, Card.BLUE, Card.BLUE, Card.LOCOMOTIVE)),
+                b1.union(b2));
+        assertEquals(SortedBag.of(1, Card.RED, 1, Card.LOCOMOTIVE), b1.difference(b2));
+        assertEquals(SortedBag.of(), b1.difference(b1));
+        assertTrue(b1.difference(b1).isEmpty());
+        assertTrue(b1.contains(SortedBag.of(1, Card.RED)));
+        assertFalse(b1.contains(b2));
+    }
+
+    @Test
+    void emptyEnumBagEqualsEmptyBag() {
+        var empty = new SortedBag.Builder<Card>().add(0, Card.RED).build();
+        assertEquals(SortedBag.<Card>of(), empty);
+        assertEquals(SortedBag.<Card>of().hashCode(), empty.hashCode());
+        assertEquals(0, empty.countOf(Card.RED));
+    }
+
+    @Test
+    void enumBagHashCodeMatchesMapHashCode() {
+        var bag = SortedBag.of(3, Card.GREEN, 2, Card.LOCOMOTIVE);
+        assertEquals(bag.toMap().hashCode(), bag.hashCode());
+    }
+
+    @Test
+    void builderSizeIsKeptUpToDate() {
+        var builder = new SortedBag.Builder<Card>();
+        assertTrue(builder.isEmpty());
+        builder.add(2, Card.ORANGE).add(Card.VIOLET).add(SortedBag.of(3, Card.ORANGE));
+        assertEquals(6, builder.size());
+        assertEquals(5, builder.build().countOf(Card.ORANGE));
+    }
+
+    @Test
+    void nonEnumBagStillWorks() {
+        var bag = SortedBag.of(List.of("b", "a", "b"));
+        assertEquals(List.of("a", "b", "b"), bag.toList());
+        assertEquals(2, bag.countOf("b"));
+        assertEquals(SortedBag.of(1, "a", 2, "b"), bag);
+    }
+
+    @Test
+    void subsetsOfSizeAreDistinctAndInLexicographicOrder() {
+        var bag = SortedBag.of(List.of(Card.RED, Card.RED, Card.BLUE, Card.LOCOMOTIVE, Card.LOCOMOTIVE));
+        var expected = List.of(
+                SortedBag.of(1, Card.BLUE, 1, Card.RED),
+                SortedBag.of(1, Card.BLUE, 1, Card.LOCOMOTIVE),
+                SortedBag.of(2, Card.RED),
+                SortedBag.of(1, Card.RED, 1, Card.LOCOMOTIVE),
+                SortedBag.of(2, Card.LOCOMOTIVE));
+        assertEquals(expected, bag.subsetsOfSizeStream(2).collect(Collectors.toList()));
+        assertEquals(List.copyOf(expected), List.copyOf(bag.subsetsOfSize(2)));
+    }
+
+    @Test
+    void subsetsOfSizeWorksForLimitSizes() {
+        var bag = SortedBag.of(2, Card.GREEN, 1, Card.WHITE);
+        assertEquals(List.of(SortedBag.<Card>of()), List.copyOf(bag.subsetsOfSize(0)));
+        assertEquals(List.of(bag), List.copyOf(bag.subsetsOfSize(3)));
+        assertThrows(IllegalArgumentException.class, () -> bag.subsetsOfSize(4));
+        assertThrows(IllegalArgumentException.class, () -> bag.subsetsOfSizeStream(-1));
+    }
+
+    @Test
+    void subsetsOfSizeStreamCanStopEarly() {
+        var bag = SortedBag.of(List.of(Card.BLACK, Card.VIOLET, Card.BLUE, Card.GREEN, Card.YELLOW));
+        assertEquals(SortedBag.of(1, Card.BLACK, 1, Card.VIOLET), bag.subsetsOfSizeStream(2).findFirst().orElseThrow());
+        assertEquals(10, bag.subsetsOfSizeStream(2).count());
+    }
+}
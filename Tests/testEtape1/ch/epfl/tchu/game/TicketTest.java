@@ -1,5 +1,6 @@
 package ch.epfl.tchu.game;
 
+import ch.epfl.tchu.SortedBag;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -148,4 +149,32 @@ class TicketTest {
             return new Ticket(trips);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void pointsWithPartitionMatchGenericConnectivity() {
+        var partition = new StationPartition.Builder(ChMap.stations().size())
+                .connect(ChMap.stations().get(0), ChMap.stations().get(7))
+                .connect(ChMap.stations().get(7), ChMap.stations().get(20))
+                .connect(ChMap.stations().get(34), ChMap.stations().get(45))
+                .build();
+        StationConnectivity connectivity = partition::connected;
+
+        var total = 0;
+        for (Ticket ticket : ChMap.tickets()) {
+            assertEquals(ticket.points(connectivity), ticket.points(partition));
+            total += ticket.points(connectivity);
+        }
+        assertEquals(total, Ticket.totalPoints(SortedBag.of(ChMap.tickets()), partition));
+    }
+
+    @Test
+    void totalPointsCountsDuplicateTickets() {
+        var s1 = new Station(0, "From");
+        var s2 = new Station(1, "To");
+        var t = new Ticket(s1, s2, 5);
+        var partition = new StationPartition.Builder(2).build();
+        assertEquals(-10, Ticket.totalPoints(SortedBag.of(2, t), partition));
+        assertEquals(10, Ticket.totalPoints(SortedBag.of(2, t), partition.withConnected(s1, s2)));
+        assertEquals(0, Ticket.totalPoints(SortedBag.of(), partition));
+    }
+}
@@ -156,4 +156,30 @@ public class RouteTest {
         Assertions.assertEquals(possibleClaimCards4, r3.possibleClaimCards());
 
     }
+
+    @Test
+    void checkPossibleClaimCardsAreShared() {
+        Route r1 = ChMap.routes().get(0);
+        Route r2 = new Route("copy", r1.station1(), r1.station2(), r1.length(), r1.level(), r1.color());
+        Assertions.assertSame(r1.possibleClaimCards(), r2.possibleClaimCards());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> r1.possibleClaimCards().clear());
+    }
+
+    @Test
+    void checkCanBeClaimedWithMatchesPossibleClaimCards() {
+        List<SortedBag<Card>> hands = List.of(
+                SortedBag.of(),
+                SortedBag.of(3, Card.RED, 1, Card.LOCOMOTIVE),
+                SortedBag.of(2, Card.BLUE, 2, Card.LOCOMOTIVE),
+                SortedBag.of(6, Card.LOCOMOTIVE),
+                SortedBag.of(5, Card.GREEN, 1, Card.YELLOW),
+                SortedBag.of(1, Card.WHITE, 1, Card.BLACK));
+
+        for (Route route : ChMap.routes()) {
+            for (SortedBag<Card> hand : hands) {
+                boolean expected = route.possibleClaimCards().stream().anyMatch(hand::contains);
+                Assertions.assertEquals(expected, route.canBeClaimedWith(hand), route.id() + " " + hand);
+            }
+        }
+    }
 }
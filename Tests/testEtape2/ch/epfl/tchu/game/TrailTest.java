@@ -54,7 +54,47 @@ public class TrailTest {
 
     @Test
     void checkLongestWithNonTrivialTrail() {
+        Station s1 = new Station(1, "Yverdon");
+        Station s2 = new Station(2, "Fribourg");
+        Station s3 = new Station(3, "Neuchâtel");
+        Station s4 = new Station(4, "Berne");
+        List<Route> routes = List.of(
+                new Route("A", s1, s2, 2, Route.Level.OVERGROUND, null),
+                new Route("B", s2, s3, 1, Route.Level.OVERGROUND, null),
+                new Route("C", s3, s1, 1, Route.Level.OVERGROUND, null),
+                new Route("D", s4, s1, 4, Route.Level.OVERGROUND, null));
+
+        ch.epfl.tchu.game.Trail longest = ch.epfl.tchu.game.Trail.longest(routes);
+        Assertions.assertEquals(8, longest.length());
+        Assertions.assertEquals(4, longest.routes().size());
+        Assertions.assertEquals(s1, longest.station1());
+        Assertions.assertEquals(s4, longest.station2());
+    }
 
+    @Test
+    void checkLongestPrefersFewestRoutes() {
+        Station s1 = new Station(1, "Yverdon");
+        Station s2 = new Station(2, "Fribourg");
+        Station s3 = new Station(3, "Neuchâtel");
+        List<Route> routes = List.of(
+                new Route("A", s1, s2, 1, Route.Level.OVERGROUND, null),
+                new Route("B", s2, s3, 1, Route.Level.OVERGROUND, null),
+                new Route("C", s3, s1, 4, Route.Level.OVERGROUND, null));
+
+        ch.epfl.tchu.game.Trail longest = ch.epfl.tchu.game.Trail.longest(routes);
+        Assertions.assertEquals(6, longest.length());
+        Assertions.assertEquals(3, longest.routes().size());
+        Assertions.assertEquals(s1, longest.station1());
+        Assertions.assertEquals(s1, longest.station2());
+    }
+
+    @Test
+    void checkLongestWithManyRoutes() {
+        // all the routes of the map could not be explored by a breadth-first search keeping every partial trail
+        List<Route> routes = ChMap.routes().subList(0, 45);
+        ch.epfl.tchu.game.Trail longest = ch.epfl.tchu.game.Trail.longest(routes);
+        Assertions.assertEquals(longest.length(), longest.routes().stream().mapToInt(Route::length).sum());
+        Assertions.assertTrue(longest.length() > 0);
     }
 
 
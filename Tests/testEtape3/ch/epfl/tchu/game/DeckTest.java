@@ -86,5 +86,21 @@ public class DeckTest {
         Assertions.assertEquals(0, deck2.size());
     }
 
+    @Test
+    void checkDerivedDecksDoNotAlterOriginal() {
+        Deck<Card> deck = Deck.of(Constants.ALL_CARDS, TestRandomizer.newRandom());
+        SortedBag<Card> topThree = deck.topCards(3);
+
+        Deck<Card> deck2 = deck.withoutTopCards(2);
+        Deck<Card> deck3 = deck2.withoutTopCard();
+
+        Assertions.assertEquals(Constants.TOTAL_CARDS_COUNT, deck.size());
+        Assertions.assertEquals(Constants.TOTAL_CARDS_COUNT - 3, deck3.size());
+        Assertions.assertEquals(topThree, deck.topCards(3));
+        Assertions.assertEquals(topThree, deck.topCards(2).union(SortedBag.of(deck2.topCard())));
+        Assertions.assertEquals(Constants.ALL_CARDS, deck.topCards(3).union(deck3.topCards(deck3.size())));
+        Assertions.assertTrue(deck3.withoutTopCards(deck3.size()).isEmpty());
+    }
+
 
 }
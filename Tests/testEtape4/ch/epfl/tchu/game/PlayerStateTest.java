@@ -0,0 +1,73 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class PlayerStateTest {
+
+    private static PlayerState claimAll(List<Route> routes) {
+        PlayerState playerState = PlayerState.initial(SortedBag.of(4, Card.LOCOMOTIVE));
+        for (Route route : routes)
+            playerState = playerState.withClaimedRoute(route, SortedBag.of());
+        return playerState;
+    }
+
+    @Test
+    void checkLongestTrailWithoutRoutes() {
+        Trail trail = PlayerState.initial(SortedBag.of(4, Card.LOCOMOTIVE)).longestTrail();
+        Assertions.assertEquals(0, trail.length());
+        Assertions.assertNull(trail.station1());
+    }
+
+    @Test
+    void checkLongestTrailMatchesTrailLongest() {
+        Random rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS / 10; i++) {
+            List<Route> routes = new ArrayList<>(ChMap.routes());
+            Collections.shuffle(routes, rng);
+            routes = routes.subList(0, 1 + rng.nextInt(20));
+
+            PlayerState playerState = claimAll(routes);
+            Trail expected = Trail.longest(routes);
+            Assertions.assertEquals(expected.length(), playerState.longestTrail().length());
+            Assertions.assertEquals(expected.routes(), playerState.longestTrail().routes());
+            Assertions.assertEquals(expected.station1(), playerState.longestTrail().station1());
+            Assertions.assertEquals(expected.station2(), playerState.longestTrail().station2());
+        }
+    }
+
+    @Test
+    void checkLongestTrailIsKeptByOtherTransitions() {
+        PlayerState playerState = claimAll(ChMap.routes().subList(0, 5));
+        Trail trail = playerState.longestTrail();
+        Assertions.assertSame(trail, playerState.withAddedCard(Card.RED).longestTrail());
+        Assertions.assertEquals(trail.length(),
+                new PlayerState(SortedBag.of(), SortedBag.of(), playerState.routes()).longestTrail().length());
+    }
+
+    @Test
+    void checkTicketPointsMatchRebuiltState() {
+        Random rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS / 10; i++) {
+            List<Route> routes = new ArrayList<>(ChMap.routes());
+            Collections.shuffle(routes, rng);
+            routes = routes.subList(0, rng.nextInt(25));
+            SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets().subList(0, 15));
+
+            PlayerState playerState = claimAll(routes).withAddedTickets(tickets);
+            PlayerState rebuilt = new PlayerState(tickets, SortedBag.of(), routes);
+            Assertions.assertEquals(rebuilt.ticketPoints(), playerState.ticketPoints());
+            Assertions.assertEquals(rebuilt.finalPoints(), playerState.finalPoints());
+        }
+    }
+}
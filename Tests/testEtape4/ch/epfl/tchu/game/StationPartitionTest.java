@@ -3,6 +3,7 @@ package ch.epfl.tchu.game;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class StationPartitionTest {
@@ -33,4 +34,28 @@ class StationPartitionTest {
         sp.connect(ChMap.stations().get(0), ChMap.stations().get(1));
         assertTrue(sp.build().connected(ChMap.stations().get(0), ChMap.stations().get(1)));
     }
+
+    @Test
+    void withConnectedKeepsOriginalAndGrows() {
+        StationPartition p0 = new StationPartition.Builder(3)
+                .connect(ChMap.stations().get(0), ChMap.stations().get(1))
+                .build();
+        StationPartition p1 = p0.withConnected(ChMap.stations().get(1), ChMap.stations().get(7));
+        StationPartition p2 = p1.withConnected(ChMap.stations().get(7), ChMap.stations().get(2));
+
+        assertTrue(p2.connected(ChMap.stations().get(0), ChMap.stations().get(2)));
+        assertTrue(p1.connected(ChMap.stations().get(0), ChMap.stations().get(7)));
+        assertFalse(p1.connected(ChMap.stations().get(0), ChMap.stations().get(2)));
+        assertFalse(p0.connected(ChMap.stations().get(0), ChMap.stations().get(7)));
+        assertSame(p2, p2.withConnected(ChMap.stations().get(1), ChMap.stations().get(2)));
+    }
+
+    @Test
+    void builderConnectsLongChains() {
+        StationPartition.Builder sp = new StationPartition.Builder(ChMap.stations().size());
+        for (int i = 0; i + 1 < ChMap.stations().size(); i++)
+            sp.connect(ChMap.stations().get(i), ChMap.stations().get(i + 1));
+        StationPartition partition = sp.build();
+        assertTrue(partition.connected(ChMap.stations().get(0), ChMap.stations().get(ChMap.stations().size() - 1)));
+    }
 }
@@ -0,0 +1,38 @@
+package ch.epfl.tchu.game;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class ChMapTest {
+
+    @Test
+    void checkDoubleRoutesLinkTheSameStations() {
+        int doubles = 0;
+        for (Route route : ChMap.routes()) {
+            Route doubleRoute = ChMap.doubleRoute(route);
+            if (doubleRoute == null)
+                continue;
+            doubles++;
+            Assertions.assertNotEquals(route, doubleRoute);
+            Assertions.assertSame(route, ChMap.doubleRoute(doubleRoute));
+            Assertions.assertEquals(Set.of(route.station1(), route.station2()),
+                    Set.of(doubleRoute.station1(), doubleRoute.station2()));
+        }
+        Assertions.assertTrue(doubles > 0);
+    }
+
+    @Test
+    void checkSimpleRoutesHaveNoDouble() {
+        for (Route route : ChMap.routes()) {
+            long sameStations = ChMap.routes().stream()
+                    .filter(r -> Set.of(r.station1(), r.station2()).equals(Set.of(route.station1(), route.station2())))
+                    .count();
+            Assertions.assertEquals(sameStations == 2, ChMap.doubleRoute(route) != null);
+        }
+    }
+}
@@ -82,4 +82,33 @@ public class GameStateTest {
 
     }
 
+    @Test
+    void checkDeterminizedKeepsWhatThePlayerKnows(){
+        SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets());
+        GameState initial = GameState.initial(tickets, new Random(2021));
+        GameState g = initial
+                .withInitiallyChosenTickets(PlayerId.PLAYER_1, initial.topTickets(3))
+                .withoutTopTickets(10)
+                .withBlindlyDrawnCard()
+                .withDrawnFaceUpCard(2);
+        Card topCard = g.topCard();
+        GameState state = g.withoutTopCard().withMoreDiscardedCards(SortedBag.of(topCard)).forNextTurn();
+        PlayerState own = state.playerState(PlayerId.PLAYER_1);
+
+        for (int i = 0; i < 20; i++) {
+            GameState d = GameState.determinized(state, PlayerId.PLAYER_1, own, tickets, new Random(i));
+
+            Assertions.assertSame(own, d.playerState(PlayerId.PLAYER_1));
+            Assertions.assertEquals(state.currentPlayerId(), d.currentPlayerId());
+            Assertions.assertEquals(state.ticketsCount(), d.ticketsCount());
+            Assertions.assertEquals(state.cardState().faceUpCards(), d.cardState().faceUpCards());
+            Assertions.assertEquals(state.cardState().deckSize(), d.cardState().deckSize());
+            Assertions.assertEquals(state.cardState().discardsSize(), d.cardState().discardsSize());
+            Assertions.assertEquals(state.playerState(PlayerId.PLAYER_2).cardCount(), d.playerState(PlayerId.PLAYER_2).cardCount());
+            Assertions.assertEquals(state.playerState(PlayerId.PLAYER_2).ticketCount(), d.playerState(PlayerId.PLAYER_2).ticketCount());
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GameState.determinized(state, PlayerId.PLAYER_1, own.withAddedCard(Card.RED), tickets, new Random()));
+    }
+
 }
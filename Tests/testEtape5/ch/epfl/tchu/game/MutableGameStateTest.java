@@ -0,0 +1,62 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class MutableGameStateTest {
+
+    private static void assertSameState(GameState expected, GameState actual) {
+        Assertions.assertEquals(expected.currentPlayerId(), actual.currentPlayerId());
+        Assertions.assertEquals(expected.lastPlayer(), actual.lastPlayer());
+        Assertions.assertEquals(expected.ticketsCount(), actual.ticketsCount());
+        Assertions.assertEquals(expected.topTickets(expected.ticketsCount()), actual.topTickets(actual.ticketsCount()));
+        Assertions.assertEquals(expected.cardState().faceUpCards(), actual.cardState().faceUpCards());
+        Assertions.assertEquals(expected.cardState().deckSize(), actual.cardState().deckSize());
+        Assertions.assertEquals(expected.cardState().discardsSize(), actual.cardState().discardsSize());
+        for (PlayerId playerId : PlayerId.ALL) {
+            Assertions.assertEquals(expected.playerState(playerId).cards(), actual.playerState(playerId).cards());
+            Assertions.assertEquals(expected.playerState(playerId).tickets(), actual.playerState(playerId).tickets());
+            Assertions.assertEquals(expected.playerState(playerId).routes(), actual.playerState(playerId).routes());
+        }
+    }
+
+    @Test
+    void checkTransitionsMatchImmutableGameState() {
+        SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets());
+        GameState g = GameState.initial(tickets, TestRandomizer.newRandom());
+        MutableGameState m = MutableGameState.initial(tickets, TestRandomizer.newRandom());
+        assertSameState(g, m.snapshot());
+
+        g = g.withInitiallyChosenTickets(PlayerId.PLAYER_1, g.topTickets(3)).withoutTopTickets(3);
+        m.withInitiallyChosenTickets(PlayerId.PLAYER_1, m.topTickets(3)).withoutTopTickets(3);
+        assertSameState(g, m.snapshot());
+
+        g = g.withDrawnFaceUpCard(2).withBlindlyDrawnCard().forNextTurn();
+        m.withDrawnFaceUpCard(2).withBlindlyDrawnCard().forNextTurn();
+        assertSameState(g, m.snapshot());
+
+        Route route = ChMap.routes().get(0);
+        SortedBag<Card> cards = SortedBag.of(route.length(), Card.LOCOMOTIVE);
+        g = g.withClaimedRoute(route, cards).withChosenAdditionalTickets(g.topTickets(3), g.topTickets(1));
+        m.withClaimedRoute(route, cards).withChosenAdditionalTickets(m.topTickets(3), m.topTickets(1));
+        assertSameState(g, m.snapshot());
+    }
+
+    @Test
+    void checkSnapshotIsNotAffectedByLaterTransitions() {
+        MutableGameState m = MutableGameState.initial(SortedBag.of(ChMap.tickets()), TestRandomizer.newRandom());
+        GameState snapshot = m.snapshot();
+        PlayerId firstPlayer = m.currentPlayerId();
+
+        Assertions.assertSame(m, m.withBlindlyDrawnCard().forNextTurn());
+        Assertions.assertEquals(firstPlayer, snapshot.currentPlayerId());
+        Assertions.assertEquals(Constants.INITIAL_CARDS_COUNT, snapshot.playerState(firstPlayer).cardCount());
+        Assertions.assertEquals(Constants.INITIAL_CARDS_COUNT + 1, m.playerState(firstPlayer).cardCount());
+        Assertions.assertEquals(snapshot.cardState().deckSize() - 1, m.cardState().deckSize());
+    }
+}
@@ -0,0 +1,147 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class GameArchiveTest {
+
+    private static GameLog playedGame(long seed) {
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL) {
+            players.put(playerId, new RandomPlayer(seed * 2 + playerId.ordinal()));
+            names.put(playerId, playerId.name());
+        }
+
+        GameLog.Recorder recorder = new GameLog.Recorder();
+        Game.play(players, names, SortedBag.of(ChMap.tickets()), new Random(seed), recorder.recording(MutableGameState::of));
+        return recorder.log();
+    }
+
+    private static void assertSameEvents(GameLog expected, GameLog actual) {
+        Assertions.assertEquals(expected.events().size(), actual.events().size());
+        for (int i = 0; i < expected.events().size(); i++) {
+            GameEvent e = expected.events().get(i);
+            GameEvent a = actual.events().get(i);
+            Assertions.assertEquals(e.kind(), a.kind());
+            Assertions.assertEquals(e.playerId(), a.playerId());
+            Assertions.assertEquals(e.count(), a.count());
+            Assertions.assertEquals(e.route(), a.route());
+            Assertions.assertEquals(e.cards(), a.cards());
+            Assertions.assertEquals(e.tickets(), a.tickets());
+            Assertions.assertEquals(e.cardOrder(), a.cardOrder());
+            Assertions.assertEquals(e.ticketOrder(), a.ticketOrder());
+        }
+    }
+
+    @Test
+    void checkGamesAreReadBackIdentically() throws IOException {
+        Path path = Files.createTempFile("tchu", ".archive");
+        try {
+            List<GameLog> games = new ArrayList<>();
+            try (GameArchive.Writer writer = new GameArchive.Writer(path)) {
+                for (int seed = 0; seed < 10; seed++) {
+                    games.add(playedGame(seed));
+                    Assertions.assertEquals(seed, writer.write(games.get(seed)));
+                }
+            }
+
+            GameArchive.Reader reader = GameArchive.Reader.open(path);
+            Assertions.assertEquals(games.size(), reader.gameCount());
+            for (int game = games.size() - 1; game >= 0; game--) {
+                Assertions.assertEquals(games.get(game).events().size(), reader.eventCount(game));
+                assertSameEvents(games.get(game), reader.game(game));
+            }
+
+            int game = 0;
+            for (GameLog log : reader)
+                assertSameEvents(games.get(game++), log);
+            Assertions.assertEquals(games.size(), game);
+
+            Assertions.assertEquals(games.get(3).finalState().playerState(PlayerId.PLAYER_1).routes(),
+                    reader.game(3).finalState().playerState(PlayerId.PLAYER_1).routes());
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> reader.game(games.size()));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void checkEmptyArchive() throws IOException {
+        Path path = Files.createTempFile("tchu", ".archive");
+        try {
+            new GameArchive.Writer(path).close();
+            GameArchive.Reader reader = GameArchive.Reader.open(path);
+            Assertions.assertEquals(0, reader.gameCount());
+            Assertions.assertFalse(reader.iterator().hasNext());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void checkOpenFailsOnInvalidFile() throws IOException {
+        Path path = Files.createTempFile("tchu", ".archive");
+        try {
+            Files.write(path, new byte[100]);
+            Assertions.assertThrows(IOException.class, () -> GameArchive.Reader.open(path));
+            Files.write(path, new byte[3]);
+            Assertions.assertThrows(IOException.class, () -> GameArchive.Reader.open(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void checkTruncatedArchiveIsRejected() throws IOException {
+        Path path = Files.createTempFile("tchu", ".archive");
+        try {
+            try (GameArchive.Writer writer = new GameArchive.Writer(path)) {
+                writer.write(playedGame(0));
+            }
+            byte[] bytes = Files.readAllBytes(path);
+
+            // cut at the end : the footer is lost
+            Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+            Assertions.assertThrows(IOException.class, () -> GameArchive.Reader.open(path));
+
+            // cut in the middle of the game, with a valid index and footer
+            int headerSize = Integer.BYTES + Byte.BYTES;
+            int gameSize = bytes.length - headerSize - Long.BYTES - (Integer.BYTES + Long.BYTES + Integer.BYTES);
+            int magic = ByteBuffer.wrap(bytes).getInt();
+            ByteBuffer truncated = ByteBuffer.allocate(bytes.length - gameSize / 2);
+            truncated.put(bytes, 0, headerSize + gameSize - gameSize / 2)
+                    .putLong(headerSize)
+                    .putInt(1)
+                    .putLong(headerSize + gameSize - gameSize / 2)
+                    .putInt(magic);
+            Files.write(path, truncated.array());
+            GameArchive.Reader reader = GameArchive.Reader.open(path);
+            Assertions.assertEquals(1, reader.gameCount());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> reader.game(0));
+
+            // index pointing past the games
+            truncated.putLong(headerSize + gameSize - gameSize / 2, Long.MAX_VALUE);
+            Files.write(path, truncated.array());
+            Assertions.assertThrows(IOException.class, () -> GameArchive.Reader.open(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class GameLogTest {
+
+    // RandomPlayer remembering the state it was given at the beginning of each of its turns
+    private static final class ObservingPlayer implements Player {
+        private final Player player;
+        private final List<PublicGameState> turnStates;
+        private PublicGameState lastState;
+
+        private ObservingPlayer(Player player, List<PublicGameState> turnStates) {
+            this.player = player;
+            this.turnStates = turnStates;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            lastState = newState;
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            turnStates.add(lastState);
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+
+    // RandomPlayer drawing tickets on its first turn, and keeping the first one it is offered
+    private static final class TicketDrawingPlayer implements Player {
+        private final Player player;
+        private final Map<PlayerId, SortedBag<Ticket>> keptTickets;
+        private PlayerId ownId;
+
+        private TicketDrawingPlayer(Player player, Map<PlayerId, SortedBag<Ticket>> keptTickets) {
+            this.player = player;
+            this.keptTickets = keptTickets;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            this.ownId = ownId;
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return keptTickets.containsKey(ownId) ? player.nextTurn() : TurnKind.DRAW_TICKETS;
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            SortedBag<Ticket> kept = SortedBag.of(options.get(0));
+            keptTickets.putIfAbsent(ownId, kept);
+            return kept;
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+
+    private static void assertSameState(PublicGameState expected, PublicGameState actual) {
+        Assertions.assertEquals(expected.currentPlayerId(), actual.currentPlayerId());
+        Assertions.assertEquals(expected.lastPlayer(), actual.lastPlayer());
+        Assertions.assertEquals(expected.ticketsCount(), actual.ticketsCount());
+        Assertions.assertEquals(expected.cardState().faceUpCards(), actual.cardState().faceUpCards());
+        Assertions.assertEquals(expected.cardState().deckSize(), actual.cardState().deckSize());
+        Assertions.assertEquals(expected.cardState().discardsSize(), actual.cardState().discardsSize());
+        for (PlayerId playerId : PlayerId.ALL) {
+            Assertions.assertEquals(expected.playerState(playerId).routes(), actual.playerState(playerId).routes());
+            Assertions.assertEquals(expected.playerState(playerId).cardCount(), actual.playerState(playerId).cardCount());
+            Assertions.assertEquals(expected.playerState(playerId).ticketCount(), actual.playerState(playerId).ticketCount());
+        }
+    }
+
+    @Test
+    void checkReplayRebuildsEveryTurn() {
+        for (int seed = 0; seed < 5; seed++) {
+            List<PublicGameState> turnStates = new ArrayList<>();
+            Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+            Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+            for (PlayerId playerId : PlayerId.ALL) {
+                players.put(playerId, new ObservingPlayer(new RandomPlayer(seed * 2L + playerId.ordinal()), turnStates));
+                names.put(playerId, playerId.name());
+            }
+
+            GameLog.Recorder recorder = new GameLog.Recorder();
+            Map<PlayerId, Integer> points = Game.play(players, names, SortedBag.of(ChMap.tickets()), new Random(seed),
+                    recorder.recording(MutableGameState::of));
+            GameLog log = recorder.log();
+
+            Assertions.assertEquals(turnStates.size() + 1, log.turnCount());
+            for (int turn = 0; turn < turnStates.size(); turn++)
+                assertSameState(turnStates.get(turn), log.stateAtTurn(turn));
+
+            for (PlayerId playerId : PlayerId.ALL) {
+                int bonus = points.get(playerId) - log.finalState().playerState(playerId).finalPoints();
+                Assertions.assertTrue(bonus == 0 || bonus == Constants.LONGEST_TRAIL_BONUS_POINTS);
+            }
+        }
+    }
+
+    @Test
+    void checkReplayKeepsTheChosenAdditionalTickets() {
+        Map<PlayerId, SortedBag<Ticket>> keptTickets = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL) {
+            players.put(playerId, new TicketDrawingPlayer(new RandomPlayer(playerId.ordinal()), keptTickets));
+            names.put(playerId, playerId.name());
+        }
+
+        GameLog.Recorder recorder = new GameLog.Recorder();
+        Game.play(players, names, SortedBag.of(ChMap.tickets()), new Random(2021), recorder.recording(MutableGameState::of));
+        GameLog log = recorder.log();
+
+        Assertions.assertEquals(PlayerId.COUNT, keptTickets.size());
+        Assertions.assertTrue(log.events().stream()
+                .filter(event -> event.kind() == GameEvent.Kind.ADDITIONAL_TICKETS_CHOSEN)
+                .count() >= PlayerId.COUNT);
+        GameState afterDrawing = log.stateAtTurn(PlayerId.COUNT);
+        for (PlayerId playerId : PlayerId.ALL) {
+            Ticket kept = keptTickets.get(playerId).get(0);
+            Assertions.assertTrue(afterDrawing.playerState(playerId).tickets().contains(kept));
+            Assertions.assertTrue(log.finalState().playerState(playerId).tickets().contains(kept));
+        }
+    }
+
+    @Test
+    void checkReplayRejectsInconsistentEvents() {
+        GameState initial = GameState.initial(SortedBag.of(ChMap.tickets()), new Random(2021));
+        GameLog.Recorder recorder = new GameLog.Recorder();
+        recorder.recording(state -> state).apply(initial);
+        List<GameEvent> events = new ArrayList<>(recorder.log().events());
+        Card notOnTop = initial.topCard() == Card.LOCOMOTIVE ? Card.RED : Card.LOCOMOTIVE;
+        events.add(GameEvent.topCardRemoved(notOnTop));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GameLog(events).finalState());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GameLog(List.of(GameEvent.turnEnded())));
+    }
+}
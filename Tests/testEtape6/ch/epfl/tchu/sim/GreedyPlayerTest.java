@@ -0,0 +1,64 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Route;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class GreedyPlayerTest {
+
+    @Test
+    void checkShortestPathsAreConsistent() {
+        for (Route route : ChMap.routes()) {
+            int from = route.station1().id();
+            int to = route.station2().id();
+            Assertions.assertTrue(ShortestPaths.distance(from, to) <= route.length());
+            Assertions.assertEquals(to, ShortestPaths.opposite(ShortestPaths.index(route), from));
+        }
+
+        for (int from = 0; from < ShortestPaths.STATION_COUNT; from++) {
+            Assertions.assertEquals(0, ShortestPaths.distance(from, from));
+            for (int to = 0; to < ShortestPaths.STATION_COUNT; to++) {
+                Assertions.assertEquals(ShortestPaths.distance(from, to), ShortestPaths.distance(to, from));
+
+                int length = 0;
+                for (int station = from; station != to; ) {
+                    int route = ShortestPaths.nextRoute(station, to);
+                    length += ChMap.routes().get(route).length();
+                    station = ShortestPaths.opposite(route, station);
+                }
+                Assertions.assertEquals(ShortestPaths.distance(from, to), length);
+            }
+        }
+    }
+
+    @Test
+    void checkDoubleRoutesArePaired() {
+        for (int route = 0; route < ChMap.routes().size(); route++) {
+            int doubleRoute = ShortestPaths.doubleRoute(route);
+            if (doubleRoute >= 0) {
+                Assertions.assertEquals(route, ShortestPaths.doubleRoute(doubleRoute));
+                Assertions.assertEquals(ChMap.routes().get(route).station1(), ChMap.routes().get(doubleRoute).station1());
+            }
+        }
+    }
+
+    @Test
+    void checkBeatsRandomPlayer() {
+        Simulator simulator = new Simulator(
+                Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"),
+                Map.<PlayerId, LongFunction<Player>>of(PlayerId.PLAYER_1, seed -> new GreedyPlayer(), PlayerId.PLAYER_2, RandomPlayer::new));
+        Simulator.Report report = simulator.run(100, 2021, 2);
+
+        Assertions.assertEquals(0, report.abortedGames());
+        Assertions.assertTrue(report.wins(PlayerId.PLAYER_1) > 80);
+    }
+}
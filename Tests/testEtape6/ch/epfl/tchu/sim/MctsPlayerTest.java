@@ -0,0 +1,101 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.GameState;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Ticket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongFunction;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class MctsPlayerTest {
+    private static final Duration SEARCH_TIME_TOLERANCE = Duration.ofMillis(15);
+    private static final Map<PlayerId, String> NAMES = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    @Test
+    void checkPlayoutBudgetOnlyDependsOnSeed() {
+        Simulator simulator = new Simulator(NAMES, Map.<PlayerId, LongFunction<Player>>of(
+                PlayerId.PLAYER_1, seed -> new MctsPlayer(seed, 10, 2),
+                PlayerId.PLAYER_2, RandomPlayer::new));
+        Simulator.Report first = simulator.run(2, 7, 1);
+        Simulator.Report second = simulator.run(2, 7, 2);
+
+        for (int game = 0; game < 2; game++)
+            Assertions.assertArrayEquals(first.points(game), second.points(game));
+    }
+
+    @Test
+    void checkBeatsRandomPlayer() {
+        List<MctsPlayer> players = new CopyOnWriteArrayList<>();
+        Simulator simulator = new Simulator(NAMES, Map.<PlayerId, LongFunction<Player>>of(
+                PlayerId.PLAYER_1, seed -> {
+                    MctsPlayer player = new MctsPlayer(seed, 30, 1);
+                    players.add(player);
+                    return player;
+                },
+                PlayerId.PLAYER_2, RandomPlayer::new));
+        Simulator.Report report = simulator.run(6, 2021, 1);
+
+        Assertions.assertEquals(0, report.abortedGames());
+        Assertions.assertTrue(report.wins(PlayerId.PLAYER_1) > report.wins(PlayerId.PLAYER_2));
+        Assertions.assertTrue(report.pointsStatistics(PlayerId.PLAYER_1).getAverage() > report.pointsStatistics(PlayerId.PLAYER_2).getAverage());
+        for (MctsPlayer player : players) {
+            Assertions.assertTrue(player.playouts() > 0);
+            Assertions.assertTrue(player.playoutsPerSecond() > 0);
+        }
+    }
+
+    @Test
+    void checkTimeBudgetIsRespected() {
+        Duration budget = Duration.ofMillis(20);
+        MctsPlayer player = new MctsPlayer(1, budget, 2);
+        Simulator simulator = new Simulator(NAMES, Map.<PlayerId, LongFunction<Player>>of(
+                PlayerId.PLAYER_1, seed -> player,
+                PlayerId.PLAYER_2, RandomPlayer::new));
+        Simulator.Report report = simulator.run(1, 3, 1);
+
+        Assertions.assertEquals(0, report.abortedGames());
+        Assertions.assertTrue(player.searches() > 0);
+        // each search lasts its budget, plus the end of the playouts running at the deadline
+        Duration average = player.searchTime().dividedBy(player.searches());
+        Assertions.assertTrue(average.compareTo(budget) >= 0);
+        Assertions.assertTrue(average.compareTo(budget.plus(SEARCH_TIME_TOLERANCE)) <= 0, average.toString());
+    }
+
+    @Test
+    void checkChooseTicketsWhenAllInitialTicketsWereKept() {
+        GameState state = GameState.initial(SortedBag.of(ChMap.tickets()), new Random(2021));
+        for (PlayerId playerId : PlayerId.ALL) {
+            state = state.withInitiallyChosenTickets(playerId, state.topTickets(Constants.INITIAL_TICKETS_COUNT))
+                    .withoutTopTickets(Constants.INITIAL_TICKETS_COUNT);
+        }
+        MctsPlayer player = new MctsPlayer(1, 20, 1);
+        player.initPlayers(state.currentPlayerId(), NAMES);
+        player.updateState(state, state.currentPlayerState());
+
+        SortedBag<Ticket> options = state.topTickets(Constants.IN_GAME_TICKETS_COUNT);
+        SortedBag<Ticket> chosen = player.chooseTickets(options);
+
+        Assertions.assertFalse(chosen.isEmpty());
+        Assertions.assertTrue(options.contains(chosen));
+    }
+
+    @Test
+    void checkIllegalArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(0, 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(0, 10, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MctsPlayer(0, Duration.ZERO, 1));
+    }
+}
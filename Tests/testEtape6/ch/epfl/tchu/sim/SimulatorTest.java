@@ -0,0 +1,117 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class SimulatorTest {
+    private static final Simulator SIMULATOR = new Simulator(
+            Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"),
+            Map.<PlayerId, LongFunction<Player>>of(PlayerId.PLAYER_1, RandomPlayer::new, PlayerId.PLAYER_2, RandomPlayer::new));
+
+    @Test
+    void checkResultsOnlyDependOnMasterSeed() {
+        Simulator.Report sequential = SIMULATOR.run(20, 42, 1);
+        Simulator.Report parallel = SIMULATOR.run(20, 42, 4);
+
+        for (int game = 0; game < 20; game++)
+            Assertions.assertArrayEquals(sequential.points(game), parallel.points(game));
+        Assertions.assertNotEquals(Simulator.gameSeed(42, 0), Simulator.gameSeed(43, 0));
+        Assertions.assertNotEquals(Simulator.gameSeed(42, 0), Simulator.gameSeed(42, 1));
+    }
+
+    @Test
+    void checkReportCountsAreConsistent() {
+        Simulator.Report report = SIMULATOR.run(30, 2021, 2);
+        int finished = report.games() - report.abortedGames();
+
+        Assertions.assertEquals(30, report.games());
+        Assertions.assertEquals(finished, report.wins(PlayerId.PLAYER_1) + report.wins(PlayerId.PLAYER_2) + report.draws());
+        Assertions.assertEquals(finished, report.pointsStatistics(PlayerId.PLAYER_1).getCount());
+        Assertions.assertTrue(report.pointsPercentile(PlayerId.PLAYER_2, 10) <= report.pointsPercentile(PlayerId.PLAYER_2, 90));
+        Assertions.assertTrue(report.gamesPerSecond() > 0);
+    }
+
+    @Test
+    void checkFailingPlayerFailsTheBatch() {
+        Simulator simulator = new Simulator(
+                Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"),
+                Map.<PlayerId, LongFunction<Player>>of(PlayerId.PLAYER_1, seed -> new FailingPlayer(), PlayerId.PLAYER_2, RandomPlayer::new));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> simulator.run(2, 2021, 1));
+    }
+
+    @Test
+    void checkIllegalArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SIMULATOR.run(-1, 0, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SIMULATOR.run(1, 0, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Simulator(Map.of(), Map.of()));
+    }
+
+    private static final class FailingPlayer implements Player {
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return SortedBag.of();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int drawSlot() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static ch.epfl.tchu.game.Card.*;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class BinarySerdeTest {
+
+    private static <T> ByteBuffer serialized(BinarySerde<T> serde, T obj) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+        serde.serialize(obj, buffer);
+        return buffer.flip();
+    }
+
+    private static <T> T roundTrip(BinarySerde<T> serde, T obj) {
+        ByteBuffer buffer = serialized(serde, obj);
+        T result = serde.deserialize(buffer);
+        Assertions.assertFalse(buffer.hasRemaining());
+        return result;
+    }
+
+    @Test
+    void checkInt() {
+        for (int i : new int[]{0, 1, -1, 63, -64, 64, 2021, Integer.MAX_VALUE, Integer.MIN_VALUE})
+            Assertions.assertEquals(i, roundTrip(BinarySerdes.INT, i));
+        Assertions.assertEquals(1, serialized(BinarySerdes.INT, -1).remaining());
+        Assertions.assertEquals(2, serialized(BinarySerdes.INT, 2021 / 20).remaining());
+    }
+
+    @Test
+    void checkString() {
+        for (String s : List.of("", "that should work", "Genève à Zürich"))
+            Assertions.assertEquals(s, roundTrip(BinarySerdes.STRING, s));
+    }
+
+    @Test
+    void checkOneOf() {
+        Assertions.assertEquals(PLAYER_2, roundTrip(BinarySerdes.PLAYER_ID, PLAYER_2));
+        Assertions.assertEquals(Player.TurnKind.CLAIM_ROUTE, roundTrip(BinarySerdes.TURN_KIND, Player.TurnKind.CLAIM_ROUTE));
+        Assertions.assertEquals(ChMap.routes().get(87), roundTrip(BinarySerdes.ROUTE, ChMap.routes().get(87)));
+        Assertions.assertEquals(ChMap.tickets().get(45), roundTrip(BinarySerdes.TICKET, ChMap.tickets().get(45)));
+        Assertions.assertEquals(1, serialized(BinarySerdes.ROUTE, ChMap.routes().get(87)).remaining());
+    }
+
+    @Test
+    void checkCardBags() {
+        SortedBag<Card> cards = SortedBag.of(2, RED, 12, LOCOMOTIVE);
+        Assertions.assertEquals(cards, roundTrip(BinarySerdes.SB_CARD, cards));
+        Assertions.assertEquals(4, serialized(BinarySerdes.SB_CARD, cards).remaining());
+        Assertions.assertEquals(SortedBag.of(), roundTrip(BinarySerdes.SB_CARD, SortedBag.<Card>of()));
+
+        List<SortedBag<Card>> options = List.of(SortedBag.of(5, BLUE), SortedBag.of(2, LOCOMOTIVE), SortedBag.of());
+        Assertions.assertEquals(options, roundTrip(BinarySerdes.L_SB_CARD, options));
+    }
+
+    @Test
+    void checkPlayerState() {
+        List<Route> routes = ChMap.routes().subList(10, 14);
+        SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets().subList(0, 3));
+        PlayerState playerState = roundTrip(BinarySerdes.SC_PLAYER_STATE,
+                new PlayerState(tickets, SortedBag.of(3, GREEN, 1, WHITE), routes));
+
+        Assertions.assertEquals(tickets, playerState.tickets());
+        Assertions.assertEquals(SortedBag.of(3, GREEN, 1, WHITE), playerState.cards());
+        Assertions.assertEquals(routes, playerState.routes());
+    }
+
+    @Test
+    void checkPublicGameState() {
+        List<Card> fu = List.of(RED, WHITE, BLUE, BLACK, RED);
+        PublicCardState cs = new PublicCardState(fu, 30, 31);
+        List<Route> rs1 = ChMap.routes().subList(0, 2);
+        Map<PlayerId, PublicPlayerState> ps = Map.of(
+                PLAYER_1, new PublicPlayerState(10, 11, rs1),
+                PLAYER_2, new PublicPlayerState(20, 21, List.of()));
+
+        for (PlayerId lastPlayer : new PlayerId[]{null, PLAYER_1}) {
+            PublicGameState gs = roundTrip(BinarySerdes.SC_PUBLIC_GAME_STATE,
+                    new PublicGameState(40, cs, PLAYER_2, ps, lastPlayer));
+
+            Assertions.assertEquals(40, gs.ticketsCount());
+            Assertions.assertEquals(fu, gs.cardState().faceUpCards());
+            Assertions.assertEquals(30, gs.cardState().deckSize());
+            Assertions.assertEquals(31, gs.cardState().discardsSize());
+            Assertions.assertEquals(PLAYER_2, gs.currentPlayerId());
+            Assertions.assertEquals(rs1, gs.playerState(PLAYER_1).routes());
+            Assertions.assertEquals(21, gs.playerState(PLAYER_2).cardCount());
+            Assertions.assertEquals(lastPlayer, gs.lastPlayer());
+        }
+    }
+}
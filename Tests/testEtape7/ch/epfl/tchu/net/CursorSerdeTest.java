@@ -0,0 +1,77 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static ch.epfl.tchu.game.Card.*;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class CursorSerdeTest {
+
+    private static <T> T parseInside(CursorSerde<T> serde, String serialized) {
+        String text = "<<" + serialized + ">>";
+        return serde.deserialize(text, 2, text.length() - 2);
+    }
+
+    @Test
+    void checkSerializationIsAppended() {
+        StringBuilder builder = new StringBuilder("CARDS ");
+        Serdes.SB_CARD.serialize(SortedBag.of(1, BLACK, 1, BLUE), builder);
+        Serdes.INT.serialize(-12, builder.append(' '));
+        Assertions.assertEquals("CARDS 0,2 -12", builder.toString());
+    }
+
+    @Test
+    void checkRegionsAreParsedInPlace() {
+        Assertions.assertEquals(2021, parseInside(Serdes.INT, "2021"));
+        Assertions.assertEquals("ça marche", parseInside(Serdes.STRING, Serdes.STRING.serialize("ça marche")));
+        Assertions.assertEquals(ChMap.routes().get(87), parseInside(Serdes.ROUTE, "87"));
+        Assertions.assertEquals(List.of(), parseInside(Serdes.L_CARD, ""));
+        Assertions.assertEquals(List.of(SortedBag.of(1, BLACK, 1, VIOLET), SortedBag.of(2, BLUE)),
+                parseInside(Serdes.L_SB_CARD, "0,1;2,2"));
+    }
+
+    @Test
+    void checkGameStatesRoundTrip() {
+        List<Route> routes = ChMap.routes().subList(0, 5);
+        PublicGameState state = new PublicGameState(40,
+                new PublicCardState(List.of(RED, WHITE, BLUE, BLACK, RED), 30, 31),
+                PLAYER_2,
+                Map.of(PLAYER_1, new PublicPlayerState(10, 11, routes), PLAYER_2, new PublicPlayerState(20, 21, List.of())),
+                null);
+        String serialized = Serdes.SC_PUBLIC_GAME_STATE.serialize(state);
+        Assertions.assertEquals("40:6,7,2,0,6;30;31:1:10;11;0,1,2,3,4:20;21;:", serialized);
+
+        PublicGameState parsed = parseInside(Serdes.SC_PUBLIC_GAME_STATE, serialized);
+        Assertions.assertEquals(serialized, Serdes.SC_PUBLIC_GAME_STATE.serialize(parsed));
+        Assertions.assertNull(parsed.lastPlayer());
+
+        PlayerState playerState = new PlayerState(SortedBag.of(ChMap.tickets().subList(0, 3)), SortedBag.of(), routes);
+        String ownSerialized = Serdes.SC_PLAYER_STATE.serialize(playerState);
+        Assertions.assertEquals("0,1,2;;0,1,2,3,4", ownSerialized);
+        Assertions.assertEquals(ownSerialized, Serdes.SC_PLAYER_STATE.serialize(parseInside(Serdes.SC_PLAYER_STATE, ownSerialized)));
+    }
+
+    @Test
+    void checkAdaptedSerdesKeepTheirSerialization() {
+        Serde<Card> serde = Serde.of(card -> card.name(), Card::valueOf);
+        CursorSerde<List<Card>> list = CursorSerde.listOf(CursorSerde.adapt(serde), '/');
+        Assertions.assertEquals("RED/BLUE", list.serialize(List.of(RED, BLUE)));
+        Assertions.assertEquals(List.of(RED, BLUE), parseInside(list, "RED/BLUE"));
+        Assertions.assertSame(Serdes.CARD, CursorSerde.adapt(Serdes.CARD));
+    }
+
+    @Test
+    void checkMissingFieldsFail() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Serdes.SC_PUBLIC_CARD_STATE.deserialize("0,1,0,0,0;12"));
+    }
+}
@@ -85,6 +85,22 @@ public class SerdeTest {
 
     }
 
+    @Test
+    void checkOneOfIndicesMatchIndexOf() {
+        List<Card> reversed = List.of(LOCOMOTIVE, WHITE, RED, ORANGE, YELLOW, GREEN, BLUE, VIOLET, BLACK);
+        List<Card> repeated = List.of(RED, BLUE, RED);
+        List<Card> partial = List.of(BLACK, VIOLET);
+        for (List<Card> list : List.of(Card.ALL, reversed, repeated, partial, List.<Card>of())) {
+            Serde<Card> serde = Serde.oneOf(list);
+            for (Card card : Card.ALL)
+                Assertions.assertEquals(Integer.toString(list.indexOf(card)), serde.serialize(card));
+        }
+
+        Serde<Route> routes = Serde.oneOf(ChMap.routes());
+        for (int i = 0; i < ChMap.routes().size(); i++)
+            Assertions.assertEquals(Integer.toString(i), routes.serialize(ChMap.routes().get(i)));
+    }
+
     @Test
     void checkLString(){
         List<String> s = List.of("it","should","work");
@@ -0,0 +1,87 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static ch.epfl.tchu.game.Card.*;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class DeltaStateTest {
+
+    private static PublicGameState gameState(int deckSize, List<Route> routes1, PlayerId lastPlayer) {
+        PublicCardState cs = new PublicCardState(List.of(RED, WHITE, BLUE, BLACK, RED), deckSize, 110 - deckSize - 5);
+        return new PublicGameState(40, cs, PLAYER_2, Map.of(
+                PLAYER_1, new PublicPlayerState(3, 4, routes1),
+                PLAYER_2, new PublicPlayerState(5, 6, List.of())), lastPlayer);
+    }
+
+    private static PlayerState ownState(List<Route> routes) {
+        return new PlayerState(SortedBag.of(ChMap.tickets().subList(0, 3)), SortedBag.of(4, GREEN), routes);
+    }
+
+    private static void assertSameState(PublicGameState expected, PublicGameState actual) {
+        Assertions.assertEquals(Serdes.SC_PUBLIC_GAME_STATE.serialize(expected), Serdes.SC_PUBLIC_GAME_STATE.serialize(actual));
+    }
+
+    @Test
+    void checkDeltasPatchTheState() {
+        List<Route> routes = ChMap.routes();
+        DeltaState proxy = new DeltaState();
+        DeltaState client = new DeltaState();
+        proxy.set(gameState(80, List.of(), null), ownState(List.of()));
+        client.set(gameState(80, List.of(), null), ownState(List.of()));
+
+        List<PublicGameState> states = List.of(
+                gameState(80, List.of(), null),
+                gameState(79, List.of(), null),
+                gameState(79, routes.subList(0, 1), null),
+                gameState(70, routes.subList(0, 3), PLAYER_1),
+                gameState(70, List.of(routes.get(5)), PLAYER_1));
+
+        for (PublicGameState state : states) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 10);
+            proxy.writeDelta(state, ownState(state.playerState(PLAYER_1).routes()), buffer);
+            buffer.flip();
+
+            Assertions.assertTrue(client.applyDelta(buffer));
+            Assertions.assertFalse(buffer.hasRemaining());
+            assertSameState(state, client.gameState());
+            Assertions.assertEquals(state.playerState(PLAYER_1).routes(), client.ownState().routes());
+            Assertions.assertEquals(SortedBag.of(4, GREEN), client.ownState().cards());
+        }
+    }
+
+    @Test
+    void checkUnchangedStateHasSmallDelta() {
+        DeltaState proxy = new DeltaState();
+        proxy.set(gameState(80, List.of(), null), ownState(List.of()));
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 10);
+        proxy.writeDelta(gameState(80, List.of(), null), ownState(List.of()), buffer);
+        Assertions.assertEquals(Short.BYTES + Integer.BYTES, buffer.position());
+    }
+
+    @Test
+    void checkMismatchIsDetected() {
+        DeltaState proxy = new DeltaState();
+        DeltaState client = new DeltaState();
+        proxy.set(gameState(80, List.of(), null), ownState(List.of()));
+        client.set(gameState(81, List.of(), null), ownState(List.of()));
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 10);
+        proxy.writeDelta(gameState(80, ChMap.routes().subList(0, 1), null), ownState(List.of()), buffer);
+        Assertions.assertFalse(client.applyDelta(buffer.flip()));
+        Assertions.assertFalse(client.hasState());
+        Assertions.assertFalse(client.applyDelta(buffer.flip()));
+    }
+}
@@ -0,0 +1,55 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.PlayerId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.Socket;
+import java.util.Map;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class GameHostTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    @Test
+    void checkHostPlaysTheGamesOfTheLoadGenerator() throws Exception {
+        int games = 50;
+        try (GameHost host = new GameHost(0, NAMES)) {
+            host.start();
+            Assertions.assertEquals(0, LoadGenerator.run("localhost", host.port(), 2 * games, 2021));
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (host.finishedGames() + host.failedGames() < games && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+
+            Assertions.assertEquals(games, host.startedGames());
+            Assertions.assertEquals(games, host.finishedGames());
+            Assertions.assertEquals(0, host.failedGames());
+        }
+    }
+
+    @Test
+    void checkHostDoesNotPairClientsThatLeft() throws Exception {
+        try (GameHost host = new GameHost(0, NAMES)) {
+            host.start();
+
+            new Socket("localhost", host.port()).close();
+            // leaves the time to the client's side to be closed
+            Thread.sleep(200);
+            Assertions.assertEquals(0, LoadGenerator.run("localhost", host.port(), 2, 2021));
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (host.finishedGames() + host.failedGames() < 1 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+
+            Assertions.assertEquals(1, host.startedGames());
+            Assertions.assertEquals(1, host.finishedGames());
+            Assertions.assertEquals(0, host.failedGames());
+        }
+    }
+}
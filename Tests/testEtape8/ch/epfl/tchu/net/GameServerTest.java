@@ -0,0 +1,104 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class GameServerTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    @Test
+    void checkServerPlaysManyGamesAtOnce() throws Exception {
+        int games = 10;
+        try (GameServer server = new GameServer(0, 2, NAMES)) {
+            server.start();
+
+            List<Thread> clients = new ArrayList<>();
+            for (int i = 0; i < 2 * games; i++) {
+                RemotePlayerClient client = new RemotePlayerClient(new RandomPlayer(i), "localhost", server.port());
+                Thread thread = new Thread(client::run);
+                thread.start();
+                clients.add(thread);
+            }
+            for (Thread thread : clients)
+                thread.join();
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (server.finishedGames() + server.failedGames() < games && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+
+            Assertions.assertEquals(games, server.startedGames());
+            Assertions.assertEquals(games, server.finishedGames());
+            Assertions.assertEquals(0, server.failedGames());
+        }
+    }
+
+    @Test
+    void checkServerSurvivesClientsLeaving() throws Exception {
+        try (GameServer server = new GameServer(0, 1, NAMES)) {
+            server.start();
+
+            Socket first = new Socket("localhost", server.port());
+            Socket second = new Socket("localhost", server.port());
+            try {
+                long deadline = System.currentTimeMillis() + 10_000;
+                while (server.startedGames() < 1 && System.currentTimeMillis() < deadline)
+                    Thread.sleep(10);
+            } finally {
+                first.close();
+                second.close();
+            }
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (server.failedGames() < 1 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+            Assertions.assertEquals(1, server.failedGames());
+        }
+    }
+
+    @Test
+    void checkServerDoesNotPairClientsThatLeft() throws Exception {
+        try (GameServer server = new GameServer(0, 1, NAMES)) {
+            server.start();
+
+            Socket left = new Socket("localhost", server.port());
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (server.waitingClients() < 1 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+            left.close();
+            while (server.waitingClients() > 0 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+            Assertions.assertEquals(0, server.waitingClients());
+
+            List<Thread> clients = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                RemotePlayerClient client = new RemotePlayerClient(new RandomPlayer(i), "localhost", server.port());
+                Thread thread = new Thread(client::run);
+                thread.start();
+                clients.add(thread);
+            }
+
+            deadline = System.currentTimeMillis() + 10_000;
+            for (Thread thread : clients)
+                thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            while (server.finishedGames() + server.failedGames() < 1 && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+
+            Assertions.assertEquals(1, server.startedGames());
+            Assertions.assertEquals(1, server.finishedGames());
+            Assertions.assertEquals(0, server.failedGames());
+        }
+    }
+}
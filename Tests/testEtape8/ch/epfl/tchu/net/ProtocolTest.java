@@ -0,0 +1,172 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static ch.epfl.tchu.game.PlayerId.PLAYER_1;
+import static ch.epfl.tchu.game.PlayerId.PLAYER_2;
+import static ch.epfl.tchu.net.ProtocolFeature.BINARY;
+import static ch.epfl.tchu.net.ProtocolFeature.DELTA;
+
+/**
+ * @author Grégory Preisig & Nicolas Cuveillier
+ */
+public class ProtocolTest {
+    private static final long SEED = 2021;
+    private static final Map<PlayerId, String> NAMES = Map.of(PLAYER_1, "Ada", PLAYER_2, "Charles");
+
+    private static Map<PlayerId, Integer> playLocally() {
+        Map<PlayerId, Player> players = Map.of(PLAYER_1, new RandomPlayer(SEED), PLAYER_2, new RandomPlayer(SEED + 1));
+        return Game.play(players, NAMES, SortedBag.of(ChMap.tickets()), new Random(SEED));
+    }
+
+    // plays the same game as playLocally, with the second player behind a proxy
+    private static Map<PlayerId, Integer> playRemotely(Set<ProtocolFeature> offered, Set<ProtocolFeature> supported,
+                                                       Set<ProtocolFeature> expected) throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            RemotePlayerClient client = new RemotePlayerClient(new RandomPlayer(SEED + 1), "localhost",
+                    serverSocket.getLocalPort(), supported);
+            Thread clientThread = new Thread(client::run);
+            clientThread.start();
+
+            Map<PlayerId, Integer> points;
+            try (Socket socket = serverSocket.accept()) {
+                RemotePlayerProxy proxy = new RemotePlayerProxy(socket, offered);
+                Map<PlayerId, Player> players = Map.of(PLAYER_1, new RandomPlayer(SEED), PLAYER_2, proxy);
+                points = Game.play(players, NAMES, SortedBag.of(ChMap.tickets()), new Random(SEED));
+                Assertions.assertEquals(expected.contains(ProtocolFeature.BINARY), proxy.isBinary());
+                Assertions.assertEquals(expected.contains(ProtocolFeature.DELTA), proxy.isDelta());
+            }
+            clientThread.join();
+            return points;
+        }
+    }
+
+    @Test
+    void checkBinaryProtocolPlaysTheSameGame() throws Exception {
+        Assertions.assertEquals(playLocally(), playRemotely(Set.of(BINARY), EnumSet.allOf(ProtocolFeature.class), Set.of(BINARY)));
+        Assertions.assertEquals(playLocally(), playRemotely(EnumSet.allOf(ProtocolFeature.class), Set.of(BINARY), Set.of(BINARY)));
+    }
+
+    @Test
+    void checkDeltaProtocolPlaysTheSameGame() throws Exception {
+        Set<ProtocolFeature> all = EnumSet.allOf(ProtocolFeature.class);
+        Assertions.assertEquals(playLocally(), playRemotely(all, all, all));
+    }
+
+    @Test
+    void checkTextProtocolIsKeptForOldClients() throws Exception {
+        Set<ProtocolFeature> all = EnumSet.allOf(ProtocolFeature.class);
+        Assertions.assertEquals(playLocally(), playRemotely(all, Set.of(), Set.of()));
+        Assertions.assertEquals(playLocally(), playRemotely(Set.of(), all, Set.of()));
+        Assertions.assertEquals(playLocally(), playRemotely(all, Set.of(DELTA), Set.of()));
+    }
+
+    @Test
+    void checkCoalescedWritesPlayTheSameGameWithLessFlushes() throws Exception {
+        for (Set<ProtocolFeature> features : List.of(Set.<ProtocolFeature>of(), EnumSet.allOf(ProtocolFeature.class))) {
+            try (ServerSocket serverSocket = new ServerSocket(0)) {
+                RemotePlayerClient client = new RemotePlayerClient(new RandomPlayer(SEED + 1), "localhost",
+                        serverSocket.getLocalPort(), features);
+                Thread clientThread = new Thread(client::run);
+                clientThread.start();
+
+                try (Socket socket = serverSocket.accept()) {
+                    RemotePlayerProxy proxy = new RemotePlayerProxy(socket, features);
+                    proxy.coalesceWrites(Duration.ofSeconds(1));
+                    Map<PlayerId, Player> players = Map.of(PLAYER_1, new RandomPlayer(SEED), PLAYER_2, proxy);
+                    Assertions.assertEquals(playLocally(), Game.play(players, NAMES, SortedBag.of(ChMap.tickets()), new Random(SEED)));
+                    proxy.flush();
+
+                    WriteCounters counters = proxy.writeCounters();
+                    Assertions.assertTrue(counters.flushes() < counters.messages() / 2);
+                    Assertions.assertEquals(counters.messages() - counters.flushes(), counters.flushesSaved());
+                }
+                clientThread.join();
+            }
+        }
+    }
+
+    @Test
+    void checkWritesAreFlushedOneByOneByDefault() throws Exception {
+        WriteCounters counters;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            RemotePlayerClient client = new RemotePlayerClient(new RandomPlayer(SEED + 1), "localhost",
+                    serverSocket.getLocalPort());
+            Thread clientThread = new Thread(client::run);
+            clientThread.start();
+
+            try (Socket socket = serverSocket.accept()) {
+                RemotePlayerProxy proxy = new RemotePlayerProxy(socket);
+                Map<PlayerId, Player> players = Map.of(PLAYER_1, new RandomPlayer(SEED), PLAYER_2, proxy);
+                Game.play(players, NAMES, SortedBag.of(ChMap.tickets()), new Random(SEED));
+                counters = proxy.writeCounters();
+            }
+            clientThread.join();
+        }
+        Assertions.assertEquals(0, counters.flushesSaved());
+        Assertions.assertTrue(counters.bytes() > counters.messages());
+    }
+
+    @Test
+    void checkBlockedFlushDoesNotDelayTheOtherChannels() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        OutputStream blockedOutput = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void flush() throws IOException {
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+        };
+        CountDownLatch flushed = new CountDownLatch(1);
+        OutputStream output = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void flush() {
+                flushed.countDown();
+            }
+        };
+
+        try {
+            MessageChannel blocked = new MessageChannel(InputStream.nullInputStream(), blockedOutput, true);
+            MessageChannel channel = new MessageChannel(InputStream.nullInputStream(), output, true);
+            blocked.coalesceWrites(Duration.ofMillis(5));
+            channel.coalesceWrites(Duration.ofMillis(5));
+
+            blocked.writeLine("blocked");
+            Thread.sleep(50);
+            channel.writeLine("flushed");
+            Assertions.assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        } finally {
+            unblock.countDown();
+        }
+    }
+}
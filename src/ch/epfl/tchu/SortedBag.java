@@ -1,7 +1,9 @@
 package ch.epfl.tchu;
 
 import java.util.*;
+import java.util.function.ObjIntConsumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Multiensemble trié et immuable.
@@ -9,17 +11,36 @@ import java.util.stream.Stream;
  * @param <E> le type des éléments du multiensemble.
  */
 public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
-    // Table associant sa multiplicité à chaque élément de l'ensemble.
+    // Constantes de chaque type énuméré, partagées par tous les multiensembles de ce type.
+    // Attention: les tableaux ne sont pas copiés et ne doivent donc jamais être modifiés !
+    private static final ClassValue<Object[]> ENUM_UNIVERSES = new ClassValue<>() {
+        @Override
+        protected Object[] computeValue(Class<?> type) {
+            return type.getEnumConstants();
+        }
+    };
+
+    private static final SortedBag<?> EMPTY = new SortedBag<>(new TreeMap<String, Integer>());
+
+    // Table associant sa multiplicité à chaque élément de l'ensemble (null si E est un type énuméré).
     // Invariant : toutes les multiplicités sont strictement positives (> 0).
     private final SortedMap<E, Integer> elements;
+    // Constantes du type énuméré E, dans l'ordre de leur ordinal (null si E n'est pas un type énuméré).
+    private final E[] universe;
+    // Multiplicité de chaque constante de universe, indexée par son ordinal (null si E n'est pas un type énuméré).
+    // Invariant : toutes les multiplicités sont positives ou nulles (>= 0).
+    private final int[] counts;
+    // Nombre total d'éléments du multiensemble.
+    private final int size;
 
     /**
      * Crée un multiensemble vide.
      * @param <E> le type des éléments du multiensemble.
      * @return un multiensemble vide.
      */
+    @SuppressWarnings("unchecked")
     public static <E extends Comparable<E>> SortedBag<E> of() {
-        return new SortedBag<E>(new TreeMap<>());
+        return (SortedBag<E>) EMPTY;
     }
 
     /**
@@ -41,8 +62,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @throws IllegalArgumentException si <code>n</code> est négatif
      */
     public static <E extends Comparable<E>> SortedBag<E> of(int n, E e) {
-        Preconditions.checkArgument(0 <= n);
-        return n == 0 ? of() : new SortedBag<>(new TreeMap<>(Map.of(e, n)));
+        return new Builder<E>().add(n, e).build();
     }
 
     /**
@@ -58,10 +78,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      */
     public static <E extends Comparable<E>> SortedBag<E> of(int n1, E e1, int n2, E e2) {
         Preconditions.checkArgument(0 <= n1 && 0 <= n2);
-        var elements = new TreeMap<E, Integer>();
-        if (n1 > 0) elements.put(e1, n1);
-        if (n2 > 0) elements.put(e2, n2);
-        return new SortedBag<>(elements);
+        return new Builder<E>().add(n1, e1).add(n2, e2).build();
     }
 
     /**
@@ -82,6 +99,45 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
     private SortedBag(SortedMap<E, Integer> elements) {
         assert elements.values().stream().allMatch(n -> n > 0);
         this.elements = Collections.unmodifiableSortedMap(elements);
+        this.universe = null;
+        this.counts = null;
+        this.size = elements.values().stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    // Construit un multiensemble d'éléments d'un type énuméré avec le tableau des multiplicités donné.
+    // La taille doit être la somme des multiplicités, qui doivent toutes être positives ou nulles.
+    // Attention: le tableau n'est pas copié et ne doit donc jamais être modifié !
+    private SortedBag(E[] universe, int[] counts, int size) {
+        assert universe.length == counts.length && Arrays.stream(counts).sum() == size;
+        this.elements = null;
+        this.universe = universe;
+        this.counts = counts;
+        this.size = size;
+    }
+
+    // Retourne un multiensemble énuméré, ou le multiensemble vide si la taille est nulle.
+    private static <E extends Comparable<E>> SortedBag<E> ofCounts(E[] universe, int[] counts, int size) {
+        return size == 0 ? of() : new SortedBag<>(universe, counts, size);
+    }
+
+    // Retourne les constantes du type énuméré de l'élément donné, ou null s'il n'est pas énuméré.
+    @SuppressWarnings("unchecked")
+    private static <E extends Comparable<E>> E[] universeOf(E element) {
+        return (element instanceof Enum<?>)
+                ? (E[]) ENUM_UNIVERSES.get(((Enum<?>) element).getDeclaringClass())
+                : null;
+    }
+
+    // Appelle l'action donnée avec chaque élément distinct et sa multiplicité, dans l'ordre.
+    private void forEachDistinct(ObjIntConsumer<E> action) {
+        if (universe != null) {
+            for (var i = 0; i < counts.length; i++)
+                if (counts[i] > 0) action.accept(universe[i], counts[i]);
+        } else {
+            elements.forEach(action::accept);
+        }
     }
 
     /**
@@ -89,7 +145,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return vrai ssi le multiensemble est vide.
      */
     public boolean isEmpty() {
-        return elements.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -97,9 +153,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return le nombre d'éléments dans le multiensemble.
      */
     public int size() {
-        return elements.values().stream()
-                .mapToInt(Integer::intValue)
-                .sum();
+        return size;
     }
 
     /**
@@ -108,6 +162,10 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return la multiplicité de <code>element</code>, 0 s'il n'appartient pas au multiensemble
      */
     public int countOf(E element) {
+        if (universe != null) {
+            var i = ((Enum<?>) element).ordinal();
+            return universe[i] == element ? counts[i] : 0;
+        }
         return elements.getOrDefault(element, 0);
     }
 
@@ -117,7 +175,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return vrai ssi <code>element</code> appartient au multiensemble
      */
     public boolean contains(E element) {
-        return elements.containsKey(element);
+        return countOf(element) > 0;
     }
 
     /**
@@ -126,7 +184,14 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return vrai ssi <code>that</code> est un sous-ensemble de <code>this</code>
      */
     public boolean contains(SortedBag<E> that) {
-        return that.elements.entrySet().stream()
+        if (that.size > size)
+            return false;
+        if (universe != null && that.universe == universe) {
+            for (var i = 0; i < counts.length; i++)
+                if (that.counts[i] > counts[i]) return false;
+            return true;
+        }
+        return that.toMap().entrySet().stream()
                 .allMatch(e -> e.getValue() <= countOf(e.getKey()));
     }
 
@@ -137,7 +202,14 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @throws IndexOutOfBoundsException si l'index est invalide
      */
     public E get(int index) {
-        Objects.checkIndex(index, size());
+        Objects.checkIndex(index, size);
+        if (universe != null) {
+            for (var i = 0; i < counts.length; i++) {
+                if (index < counts[i])
+                    return universe[i];
+                index -= counts[i];
+            }
+        }
         for (var elementsAndCount : elements.entrySet()) {
             var count = elementsAndCount.getValue();
             if (index < count)
@@ -153,9 +225,15 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return l'union de <code>this</code> et de <code>that</code>
      */
     public SortedBag<E> union(SortedBag<E> that) {
-        var newElements = new TreeMap<>(elements);
-        that.elements.forEach((e, n) -> newElements.merge(e, n, Integer::sum));
-        return new SortedBag<>(newElements);
+        if (that.isEmpty()) return this;
+        if (this.isEmpty()) return that;
+        if (universe != null && that.universe == universe) {
+            var newCounts = new int[counts.length];
+            for (var i = 0; i < counts.length; i++)
+                newCounts[i] = counts[i] + that.counts[i];
+            return new SortedBag<>(universe, newCounts, size + that.size);
+        }
+        return new Builder<E>().add(this).add(that).build();
     }
 
     /**
@@ -164,32 +242,51 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return la différence entre <code>this</code> et <code>that</code>
      */
     public SortedBag<E> difference(SortedBag<E> that) {
-        var newElements = new TreeMap<>(elements);
-        that.elements.forEach((eR, nR) ->
+        if (this.isEmpty() || that.isEmpty()) return this;
+        if (universe != null && that.universe == universe) {
+            var newCounts = new int[counts.length];
+            var newSize = 0;
+            for (var i = 0; i < counts.length; i++) {
+                newCounts[i] = Math.max(counts[i] - that.counts[i], 0);
+                newSize += newCounts[i];
+            }
+            return ofCounts(universe, newCounts, newSize);
+        }
+        var newElements = new TreeMap<>(toMap());
+        that.forEachDistinct((eR, nR) ->
                 newElements.compute(eR, (e, n) -> n != null && n > nR ? n - nR : null));
         return new SortedBag<>(newElements);
     }
 
     /**
      * Retourne tous les sous-ensembles du multiensemble ayant une taille donnée.
+     * L'ensemble retourné les parcourt dans l'ordre lexicographique (voir {@link #subsetsOfSizeStream(int)}).
      * @param size la taille des sous-ensembles à retourner
      * @return l'ensemble des sous-ensembles de <code>this</code> de taille <code>size</code>
      * @throws IllegalArgumentException si <code>size</code> n'est pas comprise entre 0 et
      * la taille du multiensemble
      */
     public Set<SortedBag<E>> subsetsOfSize(int size) {
-        Preconditions.checkArgument(0 <= size && size <= size());
-        if (size == 0)
-            return Set.of(SortedBag.of());
-
-        var result = new HashSet<SortedBag<E>>();
-        for (var e1 : elements.keySet()) {
-            var s1 = SortedBag.of(e1);
-            this.difference(s1)
-                    .subsetsOfSize(size - 1)
-                    .forEach(e -> result.add(s1.union(e)));
-        }
-        return result;
+        var result = new LinkedHashSet<SortedBag<E>>();
+        subsetsOfSizeStream(size).forEach(result::add);
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Retourne un flot des sous-ensembles du multiensemble ayant une taille donnée, chacun
+     * apparaissant exactement une fois. Les sous-ensembles sont produits à la demande, dans
+     * l'ordre lexicographique de leurs listes d'éléments (voir {@link #toList()}), ce qui permet
+     * d'interrompre l'énumération dès qu'un sous-ensemble convenable a été trouvé.
+     * @param size la taille des sous-ensembles à retourner
+     * @return un flot des sous-ensembles de <code>this</code> de taille <code>size</code>
+     * @throws IllegalArgumentException si <code>size</code> n'est pas comprise entre 0 et
+     * la taille du multiensemble
+     */
+    public Stream<SortedBag<E>> subsetsOfSizeStream(int size) {
+        Preconditions.checkArgument(0 <= size && size <= this.size);
+        var iterator = new SubsetsIterator<>(this, size);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
     }
 
     /**
@@ -197,8 +294,8 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return une liste contenant les éléments de <code>this</code>
      */
     public List<E> toList() {
-        var list = new ArrayList<E>(size());
-        elements.forEach((v, n) -> list.addAll(Collections.nCopies(n, v)));
+        var list = new ArrayList<E>(size);
+        forEachDistinct((v, n) -> list.addAll(Collections.nCopies(n, v)));
         return list;
     }
 
@@ -208,7 +305,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      */
     public Stream<E> stream() {
         var builder = Stream.<E>builder();
-        elements.forEach((v, n) -> { for (var i = 0; i < n; i++) builder.add(v); });
+        forEachDistinct((v, n) -> { for (var i = 0; i < n; i++) builder.add(v); });
         return builder.build();
     }
 
@@ -226,7 +323,11 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return une table associant sa multiplicité à chaque élément de <code>this</code>
      */
     public Map<E, Integer> toMap() {
-        return elements;
+        if (universe == null)
+            return elements;
+        var map = new TreeMap<E, Integer>();
+        forEachDistinct(map::put);
+        return Collections.unmodifiableSortedMap(map);
     }
 
     /**
@@ -236,7 +337,11 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      * @return l'ensemble des éléments du multiensemble.
      */
     public Set<E> toSet() {
-        return elements.keySet();
+        if (universe == null)
+            return elements.keySet();
+        var set = new TreeSet<E>();
+        forEachDistinct((e, n) -> set.add(e));
+        return Collections.unmodifiableSortedSet(set);
     }
 
     /**
@@ -245,7 +350,13 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      */
     @Override
     public int hashCode() {
-        return elements.hashCode();
+        if (universe == null)
+            return elements.hashCode();
+        // Même valeur que la table des multiplicités (voir Map.hashCode).
+        var hash = 0;
+        for (var i = 0; i < counts.length; i++)
+            if (counts[i] > 0) hash += universe[i].hashCode() ^ Integer.hashCode(counts[i]);
+        return hash;
     }
 
     /**
@@ -255,8 +366,14 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
      */
     @Override
     public boolean equals(Object that) {
-        return (that instanceof SortedBag<?>)
-                && (elements.equals(((SortedBag<?>) that).elements));
+        if (!(that instanceof SortedBag<?>))
+            return false;
+        var thatBag = (SortedBag<?>) that;
+        if (size != thatBag.size)
+            return false;
+        if (universe != null && thatBag.universe == universe)
+            return Arrays.equals(counts, thatBag.counts);
+        return size == 0 || toMap().equals(thatBag.toMap());
     }
 
     /**
@@ -266,16 +383,85 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
     @Override
     public String toString() {
         var j = new StringJoiner(", ", "{", "}");
-        elements.forEach((e, n) -> j.add((n > 1 ? n + "×" : "") + e));
+        forEachDistinct((e, n) -> j.add((n > 1 ? n + "×" : "") + e));
         return j.toString();
     }
 
+    // Itérateur sur les sous-ensembles de taille donnée d'un multiensemble, dans l'ordre lexicographique.
+    // Le sous-ensemble courant est représenté par le nombre d'occurrences prises de chaque élément
+    // distinct ; le suivant s'obtient en retirant une occurrence de l'élément le plus à droite dont
+    // le reste peut être redistribué sur les éléments suivants, puis en remplissant ceux-ci au plus tôt.
+    private static final class SubsetsIterator<E extends Comparable<E>> implements Iterator<SortedBag<E>> {
+        private final List<E> distinct;
+        private final int[] available;
+        private final int[] taken;
+        private boolean hasNext;
+
+        SubsetsIterator(SortedBag<E> bag, int size) {
+            distinct = new ArrayList<>();
+            var counts = new ArrayList<Integer>();
+            bag.forEachDistinct((e, n) -> {
+                distinct.add(e);
+                counts.add(n);
+            });
+            available = counts.stream().mapToInt(Integer::intValue).toArray();
+            taken = new int[available.length];
+            fillFrom(0, size);
+            hasNext = true;
+        }
+
+        // Répartit au plus tôt le nombre donné d'occurrences sur les éléments à partir de l'index donné.
+        private void fillFrom(int index, int remaining) {
+            for (var i = index; i < taken.length; i++) {
+                taken[i] = Math.min(available[i], remaining);
+                remaining -= taken[i];
+            }
+            assert remaining == 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public SortedBag<E> next() {
+            if (!hasNext)
+                throw new NoSuchElementException();
+
+            var builder = new Builder<E>();
+            for (var i = 0; i < taken.length; i++)
+                builder.add(taken[i], distinct.get(i));
+            advance();
+            return builder.build();
+        }
+
+        private void advance() {
+            var suffixTaken = 0;
+            var suffixCapacity = 0;
+            for (var i = taken.length - 1; i >= 0; i--) {
+                if (taken[i] > 0 && suffixCapacity > suffixTaken) {
+                    taken[i] -= 1;
+                    fillFrom(i + 1, suffixTaken + 1);
+                    return;
+                }
+                suffixTaken += taken[i];
+                suffixCapacity += available[i];
+            }
+            hasNext = false;
+        }
+    }
+
     /**
      * Bâtisseur de multiensemble.
      * @param <E> le type des éléments du multiensemble à bâtir.
      */
     public static final class Builder<E extends Comparable<E>> {
         private final SortedMap<E, Integer> elements = new TreeMap<>();
+        // Tableau des multiplicités, utilisé à la place de la table dès le premier ajout si E est un type énuméré.
+        private E[] universe = null;
+        private int[] counts = null;
+        private int size = 0;
 
         /**
          * Ajoute un nombre donné d'occurrences d'un élément au bâtisseur.
@@ -286,7 +472,17 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
          */
         public Builder<E> add(int count, E element) {
             Preconditions.checkArgument(0 <= count);
-            if (count > 0) elements.merge(element, count, Integer::sum);
+            if (count == 0) return this;
+
+            if (size == 0 && universe == null) {
+                universe = universeOf(element);
+                if (universe != null) counts = new int[universe.length];
+            }
+            if (universe != null)
+                counts[((Enum<?>) element).ordinal()] += count;
+            else
+                elements.merge(element, count, Integer::sum);
+            size += count;
             return this;
         }
 
@@ -305,7 +501,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
          * @return le bâtisseur (<code>this</code>)
          */
         public Builder<E> add(SortedBag<E> that) {
-            that.elements.forEach((e, c) -> elements.merge(e, c, Integer::sum));
+            that.forEachDistinct((e, c) -> add(c, e));
             return this;
         }
 
@@ -314,7 +510,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
          * @return vrai ssi le bâtisseur est actuellement vide.
          */
         public boolean isEmpty() {
-            return elements.isEmpty();
+            return size == 0;
         }
 
         /**
@@ -322,9 +518,7 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
          * @return le nombre d'éléments ajoutés au bâtisseur jusqu'à présent
          */
         public int size() {
-            return elements.values().stream()
-                    .mapToInt(Integer::intValue)
-                    .sum();
+            return size;
         }
 
         /**
@@ -332,7 +526,9 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E> {
          * @return un multiensemble contenant les éléments ajoutés à <code>this</code>
          */
         public SortedBag<E> build() {
-            return new SortedBag<>(new TreeMap<>(elements));
+            return (universe != null)
+                    ? ofCounts(universe, counts.clone(), size)
+                    : new SortedBag<>(new TreeMap<>(elements));
         }
     }
 }
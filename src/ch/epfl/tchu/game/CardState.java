@@ -38,6 +38,20 @@ public final class CardState extends PublicCardState {
         return new CardState(faceUpCards, deck.withoutTopCards(Constants.FACE_UP_CARDS_COUNT), SortedBag.of());
     }
 
+    /**
+     * Builds the CardState made of the given cards, used to build a complete state consistent with the public one.
+     *
+     * @param faceUpCards the face-up cards
+     * @param deckCards   the cards of the deck, the top card first
+     * @param discard     the discarded cards
+     * @return (CardState) the CardState made of these cards
+     * @throws IllegalArgumentException if there aren't five face-up cards
+     */
+    static CardState of(List<Card> faceUpCards, List<Card> deckCards, SortedBag<Card> discard) {
+        Preconditions.checkArgument(faceUpCards.size() == Constants.FACE_UP_CARDS_COUNT);
+        return new CardState(List.copyOf(faceUpCards), Deck.ofOrdered(deckCards), discard);
+    }
+
     /**
      * Computes a card state where the card in the faceUpCards at the given slot has been replaced by the first card in the deck.
      *
@@ -78,6 +92,27 @@ public final class CardState extends PublicCardState {
         return new CardState(faceUpCards(), deck.withoutTopCard(), discard);
     }
 
+    /**
+     * Computes a new CardState where the deck is formed using the discarded cards, in the given order.
+     *
+     * @param cards the discarded cards, in the order of the new deck
+     * @return (CardState) a new CardState where the deck is made of cards
+     * @throws IllegalArgumentException if the deck isn't empty or if cards aren't the discarded cards
+     */
+    CardState withDeckRecreatedFromDiscards(List<Card> cards) {
+        Preconditions.checkArgument(deck.isEmpty() && SortedBag.of(cards).equals(discard));
+        return new CardState(faceUpCards(), Deck.ofOrdered(cards), SortedBag.of());
+    }
+
+    /**
+     * Getter for the cards of the deck, in order.
+     *
+     * @return (List < Card >) the cards of the deck, the top card first
+     */
+    List<Card> deckCards() {
+        return deck.cards();
+    }
+
     /**
      * Computes a new CardState where the deck is formed using the shuffled discarded cards.
      *
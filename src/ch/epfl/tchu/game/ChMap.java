@@ -3,7 +3,9 @@ package ch.epfl.tchu.game;
 import ch.epfl.tchu.game.Route.Level;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public final class ChMap {
     private ChMap() { }
@@ -20,6 +22,16 @@ public final class ChMap {
         return ALL_TICKETS;
     }
 
+    /**
+     * Getter for the double of a route, the other route linking the same stations, in either order.
+     *
+     * @param route a route of the map
+     * @return (Route) the double of route, or null if it has none
+     */
+    public static Route doubleRoute(Route route) {
+        return DOUBLE_ROUTES.get(route);
+    }
+
     // Stations - cities
     private static final Station BAD = new Station(0, "Baden");
     private static final Station BAL = new Station(1, "Bâle");
@@ -232,6 +244,23 @@ public final class ChMap {
             itToNeighbors, itToNeighbors,
             frToNeighbors, frToNeighbors);
 
+    private static final Map<Route, Route> DOUBLE_ROUTES = doubleRoutes();
+
+    private static Map<Route, Route> doubleRoutes() {
+        final Map<List<Integer>, Route> routesByStations = new HashMap<>();
+        final Map<Route, Route> doubleRoutes = new HashMap<>();
+        for (Route route : ALL_ROUTES) {
+            final int id1 = route.station1().id();
+            final int id2 = route.station2().id();
+            final Route other = routesByStations.putIfAbsent(List.of(Math.min(id1, id2), Math.max(id1, id2)), route);
+            if (other != null) {
+                doubleRoutes.put(route, other);
+                doubleRoutes.put(other, route);
+            }
+        }
+        return Map.copyOf(doubleRoutes);
+    }
+
     private static Ticket ticketToNeighbors(List<Station> from, int de, int at, int it, int fr) {
         var trips = new ArrayList<Trip>();
         if (de != 0) trips.addAll(Trip.all(from, DE, de));
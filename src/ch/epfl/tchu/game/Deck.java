@@ -16,9 +16,38 @@ import java.util.Random;
  */
 public final class Deck<C extends Comparable<C>> {
     private final List<C> cards;
+    private final int top;
 
-    private Deck(List<C> cards) {
-        this.cards = List.copyOf(cards);
+    /**
+     * Private constructor for a Deck viewing the given cards from the index top. The list is shared between
+     * all the decks derived from this one, it is never copied and must therefore never be modified.
+     *
+     * @param cards the immutable list of cards shared by the derived decks
+     * @param top   the index, in cards, of the deck's top card
+     */
+    private Deck(List<C> cards, int top) {
+        this.cards = cards;
+        this.top = top;
+    }
+
+    /**
+     * Deck made of the given cards, in the given order, used to rebuild a deck recorded in a {@link GameLog}.
+     *
+     * @param cards the cards of the Deck, the top card first
+     * @param <C>   the Type of the cards
+     * @return (Deck < C >) a new deck of the given cards
+     */
+    static <C extends Comparable<C>> Deck<C> ofOrdered(List<C> cards) {
+        return new Deck<>(List.copyOf(cards), 0);
+    }
+
+    /**
+     * Getter for the cards of the Deck, in order.
+     *
+     * @return (List < C >) the immutable list of the cards, the top card first
+     */
+    List<C> cards() {
+        return cards.subList(top, cards.size());
     }
 
     /**
@@ -32,7 +61,7 @@ public final class Deck<C extends Comparable<C>> {
     public static <C extends Comparable<C>> Deck<C> of(SortedBag<C> cards, Random rng) {
         List<C> listOf = cards.toList();
         Collections.shuffle(listOf, rng);
-        return new Deck<>(listOf);
+        return new Deck<>(List.copyOf(listOf), 0);
     }
 
     /**
@@ -41,7 +70,7 @@ public final class Deck<C extends Comparable<C>> {
      * @return the cards' size
      */
     public int size() {
-        return cards.size();
+        return cards.size() - top;
     }
 
     /**
@@ -50,7 +79,7 @@ public final class Deck<C extends Comparable<C>> {
      * @return true iff the sortedBag is empty
      */
     public boolean isEmpty() {
-        return cards.isEmpty();
+        return size() == 0;
     }
 
     /**
@@ -60,8 +89,8 @@ public final class Deck<C extends Comparable<C>> {
      * @see #topCards(int)
      */
     public C topCard() {
-        Preconditions.checkArgument(!cards.isEmpty());
-        return cards.get(0);
+        Preconditions.checkArgument(!isEmpty());
+        return cards.get(top);
     }
 
     /**
@@ -82,20 +111,21 @@ public final class Deck<C extends Comparable<C>> {
      * @throws IllegalArgumentException if count is negative or superior than cards' size
      */
     public SortedBag<C> topCards(int count) {
-        Preconditions.checkArgument(count >= 0 && count <= cards.size());
-        return SortedBag.of(cards.subList(0, count));
+        Preconditions.checkArgument(count >= 0 && count <= size());
+        return SortedBag.of(cards.subList(top, top + count));
     }
 
     /**
-     * Getter for the deck without the count top cards.
+     * Getter for the deck without the count top cards. The new deck shares its cards with this one, so that
+     * no card is copied.
      *
      * @param count the number of topCard(s) that will be removed
      * @return the deck with the number (count) of cards removed from it's top
      * @throws IllegalArgumentException if count is negative or superior than cards' size
      */
     public Deck<C> withoutTopCards(int count) {
-        Preconditions.checkArgument(count >= 0 && count <= cards.size());
-        return new Deck<>(cards.subList(count, cards.size()));
+        Preconditions.checkArgument(count >= 0 && count <= size());
+        return new Deck<>(cards, top + count);
     }
 
 }
@@ -4,10 +4,12 @@ import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.gui.Info;
 
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**<h1>Game</h1>
@@ -43,16 +45,37 @@ public final class Game {
      * @param playerNames a map that matches PlayerIds with their names, contains the name of each Player
      * @param tickets     a SortedBag of Ticket that is, all the initial tickets of the game
      * @param rng         a Random use to compute the initial GameState
+     * @return the final points of each player, longest trail bonus included
      * @throws IllegalArgumentException if players or playerNames doesn't contains the number of PlayerIds
+     * @see #play(Map, Map, SortedBag, Random, Function)
      */
-    public static void play(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets, Random rng) {
+    public static Map<PlayerId, Integer> play(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames, SortedBag<Ticket> tickets, Random rng) {
+        return play(players, playerNames, tickets, rng, Function.identity());
+    }
+
+    /**
+     * Plays a game exactly as {@link #play(Map, Map, SortedBag, Random)} does, but applies the rules with the engine
+     * built from the initial GameState, for instance {@link MutableGameState#of(GameState)} for simulations. The
+     * players are always given immutable snapshots of the state.
+     *
+     * @param players     a map that matches PlayerId with Player so each PLayerId can be seen as a Player
+     * @param playerNames a map that matches PlayerIds with their names, contains the name of each Player
+     * @param tickets     a SortedBag of Ticket that is, all the initial tickets of the game
+     * @param rng         a Random use to compute the initial GameState
+     * @param engine      the function building the engine from the initial GameState
+     * @param <S>         the type of the engine
+     * @return the final points of each player, longest trail bonus included
+     * @throws IllegalArgumentException if players or playerNames doesn't contains the number of PlayerIds
+     */
+    public static <S extends GameStateEngine<S>> Map<PlayerId, Integer> play(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames,
+                                                                             SortedBag<Ticket> tickets, Random rng, Function<GameState, S> engine) {
         Preconditions.checkArgument(players.size() == PlayerId.COUNT && playerNames.size() == PlayerId.COUNT);
 
         //1.communicate names
         players.forEach((id, player) -> player.initPlayers(id, playerNames));
 
         //2.create GameState
-        GameState gameState = GameState.initial(tickets, rng);
+        S gameState = engine.apply(GameState.initial(tickets, rng));
 
         Info currentPlayerInfo = new Info(playerNames.get(gameState.currentPlayerId()));
 
@@ -111,7 +134,7 @@ public final class Game {
                     receiveInfoForBothPlayer(players, currentPlayerInfo.drewTickets(drawnTickets.size()));
 
                     SortedBag<Ticket> chosenTickets = players.get(currentPlayer).chooseTickets(drawnTickets);
-                    gameState = gameState.withoutTopTickets(Constants.IN_GAME_TICKETS_COUNT);
+                    gameState = gameState.withChosenAdditionalTickets(drawnTickets, chosenTickets);
 
                     receiveInfoForBothPlayer(players, currentPlayerInfo.keptTickets(chosenTickets.size()));
                     break;
@@ -214,7 +237,7 @@ public final class Game {
         final Map<PlayerId, Integer> playerPoints = new EnumMap<>(PlayerId.class);
 
         for (PlayerId p : players.keySet()) {
-            longestTrail.put(p, Trail.longest(gameState.playerState(p).routes()));
+            longestTrail.put(p, gameState.playerState(p).longestTrail());
         }
 
         //find longest
@@ -259,6 +282,8 @@ public final class Game {
 
             receiveInfoForBothPlayer(players, Info.draw(names, winnerPoints));
         }
+
+        return Collections.unmodifiableMap(playerPoints);
     }
 
     /**
@@ -267,8 +292,9 @@ public final class Game {
      * @param players      a map that matches PlayerId with Player so each PLayerId can be seen as a Player
      * @param newGameState the new GameState used for the update
      */
-    private static void updateGameState(Map<PlayerId, Player> players, GameState newGameState) {
-        players.forEach((pi, p) -> p.updateState(newGameState, newGameState.playerState(pi)));
+    private static void updateGameState(Map<PlayerId, Player> players, GameStateEngine<?> newGameState) {
+        final GameState snapshot = newGameState.snapshot();
+        players.forEach((pi, p) -> p.updateState(snapshot, snapshot.playerState(pi)));
     }
 
     /**
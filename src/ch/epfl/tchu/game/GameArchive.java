@@ -0,0 +1,446 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**<h1>GameArchive</h1>
+ * Compact binary file format storing the {@link GameLog}s of many games, written by a {@link Writer} and read back by a
+ * {@link Reader} which memory-maps the file, so that the games are only decoded one at a time, when asked for.
+ * <p>
+ * Cards, routes and tickets are written as one byte, their index in {@link Card#ALL}, {@link ChMap#routes()} and
+ * {@link ChMap#tickets()} (the index spaces of {@link ch.epfl.tchu.net.Serdes}), and counts as unsigned varints. A file
+ * is made of :
+ * <ul>
+ *     <li>a header : the magic number (int) and the version (byte),</li>
+ *     <li>the games, one after the other : the number of events (varint) followed by the events, each one being its
+ *     kind's ordinal (byte) followed by its arguments,</li>
+ *     <li>the index : the offset of each game in the file (long),</li>
+ *     <li>a footer : the number of games (int), the offset of the index (long) and the magic number again (int).</li>
+ * </ul>
+ * The numbers of more than one byte are big-endian.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class GameArchive {
+    private static final int MAGIC = 0x74434841; // "tCHA"
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES;
+    private static final int FOOTER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    // size of the biggest region mapped at once, a MappedByteBuffer being indexed by an int
+    private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    private static final Map<Route, Integer> ROUTE_INDEX = indexOf(ChMap.routes());
+    private static final Map<Ticket, Integer> TICKET_INDEX = indexOf(ChMap.tickets());
+
+    private GameArchive() {
+    }
+
+    private static <T> Map<T, Integer> indexOf(List<T> elements) {
+        Preconditions.checkArgument(elements.size() <= 1 << Byte.SIZE);
+
+        final Map<T, Integer> index = new HashMap<>();
+        for (int i = 0; i < elements.size(); i++)
+            index.put(elements.get(i), i);
+        return Map.copyOf(index);
+    }
+
+    /**
+     * Writer of an archive, adding the games to the end of the file one after the other. The index and the footer are
+     * written when the writer is closed, the file not being readable before.
+     */
+    public static final class Writer implements Closeable {
+        private final OutputStream file;
+        private final ByteArrayOutputStream gameBytes = new ByteArrayOutputStream();
+        private final DataOutputStream game = new DataOutputStream(gameBytes);
+        private long[] offsets = new long[64];
+        private int gameCount;
+        private long position;
+
+        /**
+         * Constructor of a Writer creating the given file, or replacing it if it already exists.
+         *
+         * @param path the path of the archive
+         * @throws IOException if the file can't be created
+         */
+        public Writer(Path path) throws IOException {
+            this.file = new BufferedOutputStream(Files.newOutputStream(path));
+
+            final DataOutputStream header = new DataOutputStream(file);
+            header.writeInt(MAGIC);
+            header.writeByte(VERSION);
+            this.position = HEADER_SIZE;
+        }
+
+        /**
+         * Adds the given game to the archive.
+         *
+         * @param log the log of the game
+         * @return the id of the game in the archive, that is the number of games written before
+         * @throws IOException if the game can't be written
+         */
+        public int write(GameLog log) throws IOException {
+            gameBytes.reset();
+            writeVarint(game, log.events().size());
+            for (GameEvent event : log.events())
+                writeEvent(game, event);
+
+            if (gameCount == offsets.length)
+                offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+            offsets[gameCount] = position;
+
+            gameBytes.writeTo(file);
+            position += gameBytes.size();
+            return gameCount++;
+        }
+
+        /**
+         * Writes the index and the footer, then closes the file.
+         *
+         * @throws IOException if they can't be written
+         */
+        @Override
+        public void close() throws IOException {
+            try (file) {
+                final DataOutputStream footer = new DataOutputStream(file);
+                for (int i = 0; i < gameCount; i++)
+                    footer.writeLong(offsets[i]);
+                footer.writeInt(gameCount);
+                footer.writeLong(position);
+                footer.writeInt(MAGIC);
+                footer.flush();
+            }
+        }
+
+        private static void writeEvent(DataOutputStream out, GameEvent event) throws IOException {
+            out.writeByte(event.kind().ordinal());
+            switch (event.kind()) {
+                case GAME_STARTED:
+                    out.writeByte(event.playerId().ordinal());
+                    writeTickets(out, event.ticketOrder());
+                    writeCards(out, event.cardOrder());
+                    break;
+                case TOP_TICKETS_REMOVED:
+                    writeVarint(out, event.count());
+                    break;
+                case INITIAL_TICKETS_CHOSEN:
+                    out.writeByte(event.playerId().ordinal());
+                    writeTickets(out, event.tickets().toList());
+                    break;
+                case ADDITIONAL_TICKETS_CHOSEN:
+                    writeVarint(out, event.count());
+                    writeTickets(out, event.tickets().toList());
+                    break;
+                case FACE_UP_CARD_DRAWN:
+                    out.writeByte(event.count());
+                    break;
+                case DECK_RECREATED:
+                    writeCards(out, event.cardOrder());
+                    break;
+                case TOP_CARD_REMOVED:
+                    out.writeByte(event.cards().get(0).ordinal());
+                    break;
+                case CARDS_DISCARDED:
+                    writeCards(out, event.cards().toList());
+                    break;
+                case ROUTE_CLAIMED:
+                    out.writeByte(ROUTE_INDEX.get(event.route()));
+                    writeCards(out, event.cards().toList());
+                    break;
+                case DECK_CARD_DRAWN:
+                case TURN_ENDED:
+                    break;
+                default:
+                    throw new Error();
+            }
+        }
+
+        private static void writeCards(DataOutputStream out, List<Card> cards) throws IOException {
+            writeVarint(out, cards.size());
+            for (Card card : cards)
+                out.writeByte(card.ordinal());
+        }
+
+        private static void writeTickets(DataOutputStream out, List<Ticket> tickets) throws IOException {
+            writeVarint(out, tickets.size());
+            for (Ticket ticket : tickets)
+                out.writeByte(Objects.requireNonNull(TICKET_INDEX.get(ticket)));
+        }
+
+        private static void writeVarint(DataOutputStream out, int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+    }
+
+    /**
+     * Reader of an archive, mapping the file in memory. The file is mapped in as few segments as possible, each one
+     * holding whole games, so that archives bigger than what a single mapping allows can be read. A Reader is immutable
+     * and can be shared between threads.
+     */
+    public static final class Reader implements Iterable<GameLog> {
+        private final LongBuffer index;
+        private final int gameCount;
+        private final long indexOffset;
+        private final int[] segmentFirstGames;
+        private final long[] segmentOffsets;
+        private final MappedByteBuffer[] segments;
+
+        private Reader(LongBuffer index, int gameCount, long indexOffset, int[] segmentFirstGames,
+                       long[] segmentOffsets, MappedByteBuffer[] segments) {
+            this.index = index;
+            this.gameCount = gameCount;
+            this.indexOffset = indexOffset;
+            this.segmentFirstGames = segmentFirstGames;
+            this.segmentOffsets = segmentOffsets;
+            this.segments = segments;
+        }
+
+        /**
+         * Opens the given archive. The file can be modified by nobody while it is read. Only the header, the footer and
+         * the index are checked, the games being checked when they are decoded.
+         *
+         * @param path the path of an archive written by a {@link Writer}
+         * @return the Reader of the archive
+         * @throws IOException if the file can't be read or isn't a valid archive, truncated ones included
+         */
+        public static Reader open(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                final long size = channel.size();
+                if (size < HEADER_SIZE + FOOTER_SIZE)
+                    throw new IOException("Not a game archive : " + path);
+
+                final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                final ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - FOOTER_SIZE, FOOTER_SIZE);
+                final int gameCount = footer.getInt();
+                final long indexOffset = footer.getLong();
+                if (header.getInt() != MAGIC || footer.getInt() != MAGIC || gameCount < 0 || indexOffset < HEADER_SIZE
+                        || indexOffset + (long) gameCount * Long.BYTES != size - FOOTER_SIZE)
+                    throw new IOException("Not a game archive : " + path);
+                if (header.get() != VERSION)
+                    throw new IOException("Unsupported game archive version : " + path);
+
+                final LongBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset,
+                        (long) gameCount * Long.BYTES).asLongBuffer();
+
+                // the games must follow each other between the header and the index
+                long previous = HEADER_SIZE;
+                for (int game = 0; game < gameCount; game++) {
+                    if (index.get(game) < previous || index.get(game) > indexOffset)
+                        throw new IOException("Corrupted game archive index : " + path);
+                    previous = index.get(game);
+                }
+
+                // cuts the games into segments, a game never overlapping two segments
+                final List<Integer> firstGames = new ArrayList<>();
+                final List<Long> offsets = new ArrayList<>();
+                for (int game = 0; game < gameCount; game++) {
+                    final long end = game + 1 < gameCount ? index.get(game + 1) : indexOffset;
+                    if (offsets.isEmpty() || end - offsets.get(offsets.size() - 1) > MAX_SEGMENT_SIZE) {
+                        firstGames.add(game);
+                        offsets.add(index.get(game));
+                    }
+                }
+
+                final int segmentCount = firstGames.size();
+                final int[] segmentFirstGames = new int[segmentCount];
+                final long[] segmentOffsets = new long[segmentCount];
+                final MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+                for (int i = 0; i < segmentCount; i++) {
+                    final long end = i + 1 < segmentCount ? offsets.get(i + 1) : indexOffset;
+                    segmentFirstGames[i] = firstGames.get(i);
+                    segmentOffsets[i] = offsets.get(i);
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offsets.get(i), end - offsets.get(i));
+                }
+                return new Reader(index, gameCount, indexOffset, segmentFirstGames, segmentOffsets, segments);
+            }
+        }
+
+        /**
+         * Getter for the number of games of the archive.
+         *
+         * @return the number of games
+         */
+        public int gameCount() {
+            return gameCount;
+        }
+
+        /**
+         * Reads the number of events of the given game, without decoding them.
+         *
+         * @param game the id of the game
+         * @return the number of events of the game
+         * @throws IndexOutOfBoundsException if game isn't in [0;gameCount()[
+         * @throws IllegalArgumentException  if the game is corrupted
+         */
+        public int eventCount(int game) {
+            final ByteBuffer buffer = gameBuffer(game);
+            try {
+                return readVarint(buffer);
+            } catch (BufferUnderflowException e) {
+                throw corrupted(game, e);
+            }
+        }
+
+        /**
+         * Decodes the given game.
+         *
+         * @param game the id of the game
+         * @return the GameLog of the game
+         * @throws IndexOutOfBoundsException if game isn't in [0;gameCount()[
+         * @throws IllegalArgumentException  if the game is corrupted
+         */
+        public GameLog game(int game) {
+            final ByteBuffer buffer = gameBuffer(game);
+            final List<GameEvent> events;
+            try {
+                final int eventCount = readVarint(buffer);
+                Preconditions.checkArgument(eventCount <= buffer.remaining());
+
+                events = new ArrayList<>(eventCount);
+                for (int i = 0; i < eventCount; i++)
+                    events.add(readEvent(buffer));
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                // a game cut short or an index out of the cards, routes, tickets or kinds of events
+                throw corrupted(game, e);
+            }
+            return new GameLog(events);
+        }
+
+        /**
+         * Iterator over the games of the archive, in the order of their ids, each game being decoded only when it is
+         * reached.
+         *
+         * @return the iterator over the GameLogs
+         */
+        @Override
+        public Iterator<GameLog> iterator() {
+            return new Iterator<>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < gameCount;
+                }
+
+                @Override
+                public GameLog next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    return game(next++);
+                }
+            };
+        }
+
+        private static IllegalArgumentException corrupted(int game, RuntimeException cause) {
+            return new IllegalArgumentException("Corrupted game " + game + " in the archive", cause);
+        }
+
+        private ByteBuffer gameBuffer(int game) {
+            Objects.checkIndex(game, gameCount);
+
+            int segment = Arrays.binarySearch(segmentFirstGames, game);
+            if (segment < 0)
+                segment = -segment - 2;
+
+            final long end = game + 1 < gameCount ? index.get(game + 1) : indexOffset;
+            final int start = (int) (index.get(game) - segmentOffsets[segment]);
+            return segments[segment].duplicate()
+                    .position(start)
+                    .limit(start + (int) (end - index.get(game)));
+        }
+
+        private static GameEvent readEvent(ByteBuffer in) {
+            final int kind = Byte.toUnsignedInt(in.get());
+            Objects.checkIndex(kind, GameEvent.Kind.ALL.size());
+
+            switch (GameEvent.Kind.ALL.get(kind)) {
+                case GAME_STARTED:
+                    final PlayerId firstPlayer = PlayerId.ALL.get(in.get());
+                    final List<Ticket> ticketOrder = readTickets(in);
+                    return GameEvent.gameStarted(firstPlayer, ticketOrder, readCards(in));
+                case TOP_TICKETS_REMOVED:
+                    return GameEvent.topTicketsRemoved(readVarint(in));
+                case INITIAL_TICKETS_CHOSEN:
+                    final PlayerId playerId = PlayerId.ALL.get(in.get());
+                    return GameEvent.initialTicketsChosen(playerId, SortedBag.of(readTickets(in)));
+                case ADDITIONAL_TICKETS_CHOSEN:
+                    final int drawnCount = readVarint(in);
+                    return GameEvent.additionalTicketsChosen(drawnCount, SortedBag.of(readTickets(in)));
+                case FACE_UP_CARD_DRAWN:
+                    return GameEvent.faceUpCardDrawn(in.get());
+                case DECK_CARD_DRAWN:
+                    return GameEvent.deckCardDrawn();
+                case DECK_RECREATED:
+                    return GameEvent.deckRecreated(readCards(in));
+                case TOP_CARD_REMOVED:
+                    return GameEvent.topCardRemoved(Card.ALL.get(in.get()));
+                case CARDS_DISCARDED:
+                    return GameEvent.cardsDiscarded(SortedBag.of(readCards(in)));
+                case ROUTE_CLAIMED:
+                    final Route route = ChMap.routes().get(Byte.toUnsignedInt(in.get()));
+                    return GameEvent.routeClaimed(route, SortedBag.of(readCards(in)));
+                case TURN_ENDED:
+                    return GameEvent.turnEnded();
+                default:
+                    throw new Error();
+            }
+        }
+
+        private static List<Card> readCards(ByteBuffer in) {
+            final int count = readVarint(in);
+            Preconditions.checkArgument(count <= in.remaining());
+
+            final Card[] cards = new Card[count];
+            for (int i = 0; i < cards.length; i++)
+                cards[i] = Card.ALL.get(in.get());
+            return Arrays.asList(cards);
+        }
+
+        private static List<Ticket> readTickets(ByteBuffer in) {
+            final int count = readVarint(in);
+            Preconditions.checkArgument(count <= in.remaining());
+
+            final Ticket[] tickets = new Ticket[count];
+            for (int i = 0; i < tickets.length; i++)
+                tickets[i] = ChMap.tickets().get(Byte.toUnsignedInt(in.get()));
+            return Arrays.asList(tickets);
+        }
+
+        private static int readVarint(ByteBuffer in) {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                Preconditions.checkArgument(shift < Integer.SIZE);
+                final byte b = in.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0)
+                    return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.util.List;
+import java.util.Objects;
+
+/**<h1>GameEvent</h1>
+ * Represents one transition of the game's state, with the arguments needed to apply it again. The outcomes of the
+ * randomness, that is the initial order of the tickets and cards and the order of the recreated decks, are recorded
+ * as events as well, so that a sequence of events is enough to rebuild every state of a game, see {@link GameLog}.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class GameEvent {
+
+    /**
+     * Kinds of events, each one matching a transition of {@link GameStateEngine}.
+     */
+    public enum Kind {
+        GAME_STARTED,
+        TOP_TICKETS_REMOVED,
+        INITIAL_TICKETS_CHOSEN,
+        ADDITIONAL_TICKETS_CHOSEN,
+        FACE_UP_CARD_DRAWN,
+        DECK_CARD_DRAWN,
+        DECK_RECREATED,
+        TOP_CARD_REMOVED,
+        CARDS_DISCARDED,
+        ROUTE_CLAIMED,
+        TURN_ENDED;
+
+        public static final List<Kind> ALL = List.of(values());
+    }
+
+    private static final GameEvent DECK_CARD_DRAWN = new GameEvent(Kind.DECK_CARD_DRAWN, null, 0, null, null, null, List.of(), List.of());
+    private static final GameEvent TURN_ENDED = new GameEvent(Kind.TURN_ENDED, null, 0, null, null, null, List.of(), List.of());
+
+    private final Kind kind;
+    private final PlayerId playerId;
+    private final int count;
+    private final Route route;
+    private final SortedBag<Card> cards;
+    private final SortedBag<Ticket> tickets;
+    private final List<Card> cardOrder;
+    private final List<Ticket> ticketOrder;
+
+    private GameEvent(Kind kind, PlayerId playerId, int count, Route route, SortedBag<Card> cards,
+                      SortedBag<Ticket> tickets, List<Card> cardOrder, List<Ticket> ticketOrder) {
+        this.kind = kind;
+        this.playerId = playerId;
+        this.count = count;
+        this.route = route;
+        this.cards = cards;
+        this.tickets = tickets;
+        this.cardOrder = cardOrder;
+        this.ticketOrder = ticketOrder;
+    }
+
+    /**
+     * Event starting a game, built from the order of the tickets and of the cards, before any of them is dealt.
+     *
+     * @param firstPlayer the player who plays first
+     * @param ticketOrder the tickets, the top one first
+     * @param cardOrder   the cards, the top one first
+     * @return the GAME_STARTED event
+     */
+    public static GameEvent gameStarted(PlayerId firstPlayer, List<Ticket> ticketOrder, List<Card> cardOrder) {
+        return new GameEvent(Kind.GAME_STARTED, Objects.requireNonNull(firstPlayer), 0, null, null, null,
+                List.copyOf(cardOrder), List.copyOf(ticketOrder));
+    }
+
+    /**
+     * Event removing the top tickets, see {@link GameStateEngine#withoutTopTickets(int)}.
+     *
+     * @param count the number of tickets removed
+     * @return the TOP_TICKETS_REMOVED event
+     */
+    public static GameEvent topTicketsRemoved(int count) {
+        Preconditions.checkArgument(count >= 0);
+        return new GameEvent(Kind.TOP_TICKETS_REMOVED, null, count, null, null, null, List.of(), List.of());
+    }
+
+    /**
+     * Event giving a player its initial tickets, see
+     * {@link GameStateEngine#withInitiallyChosenTickets(PlayerId, SortedBag)}.
+     *
+     * @param playerId the player who chose the tickets
+     * @param tickets  the chosen tickets
+     * @return the INITIAL_TICKETS_CHOSEN event
+     */
+    public static GameEvent initialTicketsChosen(PlayerId playerId, SortedBag<Ticket> tickets) {
+        return new GameEvent(Kind.INITIAL_TICKETS_CHOSEN, Objects.requireNonNull(playerId), 0, null, null,
+                Objects.requireNonNull(tickets), List.of(), List.of());
+    }
+
+    /**
+     * Event giving the current player the tickets it chose among the top ones, see
+     * {@link GameStateEngine#withChosenAdditionalTickets(SortedBag, SortedBag)}.
+     *
+     * @param drawnCount the number of top tickets drawn
+     * @param tickets    the chosen tickets
+     * @return the ADDITIONAL_TICKETS_CHOSEN event
+     */
+    public static GameEvent additionalTicketsChosen(int drawnCount, SortedBag<Ticket> tickets) {
+        Preconditions.checkArgument(drawnCount >= 0);
+        return new GameEvent(Kind.ADDITIONAL_TICKETS_CHOSEN, null, drawnCount, null, null,
+                Objects.requireNonNull(tickets), List.of(), List.of());
+    }
+
+    /**
+     * Event drawing a face-up card, see {@link GameStateEngine#withDrawnFaceUpCard(int)}.
+     *
+     * @param slot the slot of the drawn card
+     * @return the FACE_UP_CARD_DRAWN event
+     */
+    public static GameEvent faceUpCardDrawn(int slot) {
+        Objects.checkIndex(slot, Constants.FACE_UP_CARDS_COUNT);
+        return new GameEvent(Kind.FACE_UP_CARD_DRAWN, null, slot, null, null, null, List.of(), List.of());
+    }
+
+    /**
+     * Event drawing the top deck card, see {@link GameStateEngine#withBlindlyDrawnCard()}.
+     *
+     * @return the DECK_CARD_DRAWN event
+     */
+    public static GameEvent deckCardDrawn() {
+        return DECK_CARD_DRAWN;
+    }
+
+    /**
+     * Event recreating the deck from the discard, see {@link GameStateEngine#withCardsDeckRecreatedIfNeeded}.
+     *
+     * @param cardOrder the cards of the new deck, the top one first
+     * @return the DECK_RECREATED event
+     */
+    public static GameEvent deckRecreated(List<Card> cardOrder) {
+        return new GameEvent(Kind.DECK_RECREATED, null, 0, null, null, null, List.copyOf(cardOrder), List.of());
+    }
+
+    /**
+     * Event removing the top deck card, see {@link GameStateEngine#withoutTopCard()}.
+     *
+     * @param card the removed card, recorded to know the outcome of a tunnel attempt
+     * @return the TOP_CARD_REMOVED event
+     */
+    public static GameEvent topCardRemoved(Card card) {
+        return new GameEvent(Kind.TOP_CARD_REMOVED, null, 0, null, SortedBag.of(Objects.requireNonNull(card)), null,
+                List.of(), List.of());
+    }
+
+    /**
+     * Event adding cards to the discard, see {@link GameStateEngine#withMoreDiscardedCards(SortedBag)}.
+     *
+     * @param cards the discarded cards
+     * @return the CARDS_DISCARDED event
+     */
+    public static GameEvent cardsDiscarded(SortedBag<Card> cards) {
+        return new GameEvent(Kind.CARDS_DISCARDED, null, 0, null, Objects.requireNonNull(cards), null, List.of(), List.of());
+    }
+
+    /**
+     * Event claiming a route, see {@link GameStateEngine#withClaimedRoute(Route, SortedBag)}.
+     *
+     * @param route the claimed route
+     * @param cards the cards used to claim it
+     * @return the ROUTE_CLAIMED event
+     */
+    public static GameEvent routeClaimed(Route route, SortedBag<Card> cards) {
+        return new GameEvent(Kind.ROUTE_CLAIMED, null, 0, Objects.requireNonNull(route), Objects.requireNonNull(cards),
+                null, List.of(), List.of());
+    }
+
+    /**
+     * Event ending the turn, see {@link GameStateEngine#forNextTurn()}.
+     *
+     * @return the TURN_ENDED event
+     */
+    public static GameEvent turnEnded() {
+        return TURN_ENDED;
+    }
+
+    /**
+     * Getter for the kind of the event.
+     *
+     * @return the kind
+     */
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Getter for the player of a GAME_STARTED (the first player) or INITIAL_TICKETS_CHOSEN event.
+     *
+     * @return the player, null for the other kinds
+     */
+    public PlayerId playerId() {
+        return playerId;
+    }
+
+    /**
+     * Getter for the number of tickets of a TOP_TICKETS_REMOVED or ADDITIONAL_TICKETS_CHOSEN event, or the slot of a
+     * FACE_UP_CARD_DRAWN event.
+     *
+     * @return the count or slot, 0 for the other kinds
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Getter for the route of a ROUTE_CLAIMED event.
+     *
+     * @return the route, null for the other kinds
+     */
+    public Route route() {
+        return route;
+    }
+
+    /**
+     * Getter for the cards of a TOP_CARD_REMOVED, CARDS_DISCARDED or ROUTE_CLAIMED event.
+     *
+     * @return the cards, null for the other kinds
+     */
+    public SortedBag<Card> cards() {
+        return cards;
+    }
+
+    /**
+     * Getter for the tickets of an INITIAL_TICKETS_CHOSEN or ADDITIONAL_TICKETS_CHOSEN event.
+     *
+     * @return the tickets, null for the other kinds
+     */
+    public SortedBag<Ticket> tickets() {
+        return tickets;
+    }
+
+    /**
+     * Getter for the order of the cards of a GAME_STARTED or DECK_RECREATED event.
+     *
+     * @return the cards, the top one first, empty for the other kinds
+     */
+    public List<Card> cardOrder() {
+        return cardOrder;
+    }
+
+    /**
+     * Getter for the order of the tickets of a GAME_STARTED event.
+     *
+     * @return the tickets, the top one first, empty for the other kinds
+     */
+    public List<Ticket> ticketOrder() {
+        return ticketOrder;
+    }
+
+    /**
+     * Applies the event to the given state.
+     *
+     * @param state the state before the event
+     * @return the state after the event
+     * @throws IllegalArgumentException if the event can't be applied to state, for instance if the removed top card
+     *                                  isn't the recorded one
+     */
+    GameState applyTo(GameState state) {
+        switch (kind) {
+            case GAME_STARTED:
+                return GameState.initial(playerId, ticketOrder, cardOrder);
+            case TOP_TICKETS_REMOVED:
+                return state.withoutTopTickets(count);
+            case INITIAL_TICKETS_CHOSEN:
+                return state.withInitiallyChosenTickets(playerId, tickets);
+            case ADDITIONAL_TICKETS_CHOSEN:
+                return state.withChosenAdditionalTickets(state.topTickets(count), tickets);
+            case FACE_UP_CARD_DRAWN:
+                return state.withDrawnFaceUpCard(count);
+            case DECK_CARD_DRAWN:
+                return state.withBlindlyDrawnCard();
+            case DECK_RECREATED:
+                return state.withCardsDeckRecreated(cardOrder);
+            case TOP_CARD_REMOVED:
+                Preconditions.checkArgument(state.topCard() == cards.get(0));
+                return state.withoutTopCard();
+            case CARDS_DISCARDED:
+                return state.withMoreDiscardedCards(cards);
+            case ROUTE_CLAIMED:
+                return state.withClaimedRoute(route, cards);
+            case TURN_ENDED:
+                return state.forNextTurn();
+            default:
+                throw new Error();
+        }
+    }
+}
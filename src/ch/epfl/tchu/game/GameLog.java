@@ -0,0 +1,141 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**<h1>GameLog</h1>
+ * Sequence of the {@link GameEvent}s of a game, from which any state of the game can be rebuilt without the players
+ * nor the Random that played it. A log is recorded by playing the game with the engine given by a
+ * {@link Recorder}, for instance :
+ * <pre>
+ *     GameLog.Recorder recorder = new GameLog.Recorder();
+ *     Game.play(players, playerNames, tickets, rng, recorder.recording(MutableGameState::of));
+ *     GameState state = recorder.log().stateAtTurn(10);
+ * </pre>
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class GameLog {
+    private final List<GameEvent> events;
+    private final List<Integer> turnStarts;
+
+    /**
+     * Constructor of a GameLog.
+     *
+     * @param events the events of the game, in the order they happened
+     * @throws IllegalArgumentException if the events don't begin with a GAME_STARTED event, the only one of the log
+     */
+    public GameLog(List<GameEvent> events) {
+        Preconditions.checkArgument(!events.isEmpty() && events.get(0).kind() == GameEvent.Kind.GAME_STARTED);
+
+        this.events = List.copyOf(events);
+        final List<Integer> turnStarts = new ArrayList<>();
+
+        // the first turn starts after the initial tickets are chosen, the next ones after the end of the previous one
+        int firstTurnStart = 1;
+        for (int i = 1; i < this.events.size(); i++) {
+            final GameEvent.Kind kind = this.events.get(i).kind();
+            Preconditions.checkArgument(kind != GameEvent.Kind.GAME_STARTED);
+
+            if (kind == GameEvent.Kind.INITIAL_TICKETS_CHOSEN && turnStarts.isEmpty())
+                firstTurnStart = i + 1;
+            else if (kind == GameEvent.Kind.TURN_ENDED) {
+                if (turnStarts.isEmpty())
+                    turnStarts.add(firstTurnStart);
+                turnStarts.add(i + 1);
+            }
+        }
+        if (turnStarts.isEmpty())
+            turnStarts.add(firstTurnStart);
+        this.turnStarts = List.copyOf(turnStarts);
+    }
+
+    /**
+     * Getter for the events of the game.
+     *
+     * @return the immutable list of the events, in the order they happened
+     */
+    public List<GameEvent> events() {
+        return events;
+    }
+
+    /**
+     * Getter for the number of turns whose beginning is in the log, the first turn being the one following the choice
+     * of the initial tickets.
+     *
+     * @return the number of turns
+     */
+    public int turnCount() {
+        return turnStarts.size();
+    }
+
+    /**
+     * Rebuilds the state of the game after the given number of events.
+     *
+     * @param eventCount the number of events applied, at least one
+     * @return the GameState after the first eventCount events
+     * @throws IllegalArgumentException if eventCount isn't in [1;events().size()] or if the events can't be applied
+     */
+    public GameState stateAfter(int eventCount) {
+        Preconditions.checkArgument(eventCount >= 1 && eventCount <= events.size());
+
+        GameState state = null;
+        for (GameEvent event : events.subList(0, eventCount))
+            state = event.applyTo(state);
+        return state;
+    }
+
+    /**
+     * Rebuilds the state of the game at the beginning of the given turn, before the current player plays.
+     *
+     * @param turn the index of the turn, 0 being the first turn following the choice of the initial tickets
+     * @return the GameState at the beginning of turn
+     * @throws IllegalArgumentException  if the events can't be applied
+     * @throws IndexOutOfBoundsException if turn isn't in [0;turnCount()[
+     */
+    public GameState stateAtTurn(int turn) {
+        return stateAfter(turnStarts.get(turn));
+    }
+
+    /**
+     * Rebuilds the final state of the game.
+     *
+     * @return the GameState after all the events
+     */
+    public GameState finalState() {
+        return stateAfter(events.size());
+    }
+
+    /**
+     * Recorder of the events of a game, to be played with the engine given by {@link #recording(Function)}.
+     */
+    public static final class Recorder {
+        private final List<GameEvent> events = new ArrayList<>();
+
+        /**
+         * Computes an engine for {@link Game#play(java.util.Map, java.util.Map, ch.epfl.tchu.SortedBag,
+         * java.util.Random, Function)} which applies the transitions with the given engine and records them.
+         *
+         * @param engine the function building the engine applying the transitions from the initial GameState
+         * @param <S>    the type of the engine
+         * @return the function building the recording engine from the initial GameState
+         */
+        public <S extends GameStateEngine<S>> Function<GameState, RecordingGameState<S>> recording(
+                Function<GameState, S> engine) {
+            return initial -> new RecordingGameState<>(engine.apply(initial), events::add);
+        }
+
+        /**
+         * Computes the log of the events recorded so far.
+         *
+         * @return the GameLog of the recorded events
+         * @throws IllegalArgumentException if no game was started
+         */
+        public GameLog log() {
+            return new GameLog(events);
+        }
+    }
+}
@@ -3,7 +3,10 @@ package ch.epfl.tchu.game;
 import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
@@ -13,19 +16,28 @@ import java.util.Random;
  * 
  * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
  */
-public final class GameState extends PublicGameState {
+public final class GameState extends PublicGameState implements GameStateEngine<GameState> {
 
-    private final static int MINIMUM_CAR_FOR_LAST_TURN_BEGIN = 2;
+    final static int MINIMUM_CAR_FOR_LAST_TURN_BEGIN = 2;
     private final Deck<Ticket> tickets;
     private final Map<PlayerId, PlayerState> playerState;
     private final CardState cardState;
 
-    private GameState(PlayerId currentPlayerId, Deck<Ticket> tickets, Map<PlayerId, PlayerState> playerState, CardState cardState, PlayerId lastPlayer) {
-        super(tickets.size(), new PublicCardState(cardState.faceUpCards(), cardState.deckSize(),
-                        cardState.discardsSize()), currentPlayerId, Map.copyOf(playerState), lastPlayer);
+    /**
+     * Constructor for a GameState, used by the transitions and by {@link MutableGameState#snapshot()}. Neither the map
+     * nor the card state are copied : the unchanged parts of a state are shared with the states derived from it.
+     *
+     * @param currentPlayerId the current player
+     * @param tickets         the deck of tickets
+     * @param playerState     the immutable map of the players' complete states
+     * @param cardState       the complete state of the cards, which is also the public one
+     * @param lastPlayer      the last player of the game, can be null
+     */
+    GameState(PlayerId currentPlayerId, Deck<Ticket> tickets, Map<PlayerId, PlayerState> playerState, CardState cardState, PlayerId lastPlayer) {
+        super(tickets.size(), cardState, currentPlayerId, playerState, lastPlayer);
 
         this.tickets = Objects.requireNonNull(tickets);
-        this.playerState = Map.copyOf(playerState);
+        this.playerState = playerState;
         this.cardState = Objects.requireNonNull(cardState);
     }
 
@@ -37,9 +49,25 @@ public final class GameState extends PublicGameState {
      * @return the initial GameState
      */
     public static GameState initial(SortedBag<Ticket> tickets, Random rng) {
+        final List<Card> cards = Deck.of(Constants.ALL_CARDS, rng).cards();
+        final PlayerId firstPlayer = PlayerId.ALL.get(rng.nextInt(PlayerId.COUNT));
+
+        return initial(firstPlayer, Deck.of(tickets, rng).cards(), cards);
+    }
+
+    /**
+     * Static method which computes the complete GameState from the given order of the tickets and cards, used to
+     * replay a {@link GameLog}.
+     *
+     * @param firstPlayer the player who plays first
+     * @param tickets     the tickets, the top one first
+     * @param cards       the cards, the top one first, from which the players' initial cards are dealt before the
+     *                    face-up cards
+     * @return the initial GameState
+     */
+    static GameState initial(PlayerId firstPlayer, List<Ticket> tickets, List<Card> cards) {
         final Map<PlayerId, PlayerState> playerState = new EnumMap<>(PlayerId.class);
-        final SortedBag<Card> cards = Constants.ALL_CARDS;
-        Deck<Card> deck = Deck.of(cards, rng);
+        Deck<Card> deck = Deck.ofOrdered(cards);
 
         SortedBag.Builder<Card> playerCards;
         for (PlayerId playerId: PlayerId.ALL) {
@@ -52,7 +80,64 @@ public final class GameState extends PublicGameState {
         }
         CardState cardState = CardState.of(deck);
 
-        return new GameState(PlayerId.ALL.get(rng.nextInt(PlayerId.COUNT)), Deck.of(tickets, rng), playerState, cardState, null);
+        return new GameState(firstPlayer, Deck.ofOrdered(tickets), Map.copyOf(playerState), cardState, null);
+    }
+
+    /**
+     * Static method which computes a complete GameState consistent with what the given player knows of the game, for
+     * players searching their moves by simulating the rest of the game. The information hidden from the player, namely
+     * the cards and tickets of the other players, the order of the deck of cards, the discard and the order of the
+     * deck of tickets, is sampled uniformly among the cards and tickets the player doesn't see.
+     *
+     * @param publicState the public state of the game
+     * @param playerId    the player
+     * @param ownState    the complete state of the player
+     * @param tickets     all the tickets of the game
+     * @param rng         Random used to sample the hidden information
+     * @return a GameState whose public part is publicState and whose state of playerId is ownState
+     * @throws IllegalArgumentException if the cards or the tickets of the states aren't consistent with all the cards
+     *                                  and tickets
+     */
+    public static GameState determinized(PublicGameState publicState, PlayerId playerId, PlayerState ownState,
+                                         SortedBag<Ticket> tickets, Random rng) {
+        final PublicCardState publicCardState = publicState.cardState();
+        final List<Card> unseenCards = new ArrayList<>(Constants.ALL_CARDS
+                .difference(ownState.cards())
+                .difference(SortedBag.of(publicCardState.faceUpCards()))
+                .toList());
+        final List<Ticket> unseenTickets = new ArrayList<>(tickets.difference(ownState.tickets()).toList());
+        Collections.shuffle(unseenCards, rng);
+        Collections.shuffle(unseenTickets, rng);
+
+        final Map<PlayerId, PlayerState> playerState = new EnumMap<>(PlayerId.class);
+        int cards = 0;
+        int dealtTickets = 0;
+        for (PlayerId id : PlayerId.ALL) {
+            if (id == playerId) {
+                playerState.put(id, ownState);
+                continue;
+            }
+            final PublicPlayerState publicPlayerState = publicState.playerState(id);
+            Preconditions.checkArgument(cards + publicPlayerState.cardCount() <= unseenCards.size()
+                    && dealtTickets + publicPlayerState.ticketCount() <= unseenTickets.size());
+
+            playerState.put(id, new PlayerState(
+                    SortedBag.of(unseenTickets.subList(dealtTickets, dealtTickets + publicPlayerState.ticketCount())),
+                    SortedBag.of(unseenCards.subList(cards, cards + publicPlayerState.cardCount())),
+                    publicPlayerState.routes()));
+            cards += publicPlayerState.cardCount();
+            dealtTickets += publicPlayerState.ticketCount();
+        }
+        Preconditions.checkArgument(unseenCards.size() - cards == publicCardState.deckSize() + publicCardState.discardsSize()
+                && unseenTickets.size() - dealtTickets >= publicState.ticketsCount());
+
+        final int deckEnd = cards + publicCardState.deckSize();
+        final CardState cardState = CardState.of(publicCardState.faceUpCards(), unseenCards.subList(cards, deckEnd),
+                SortedBag.of(unseenCards.subList(deckEnd, unseenCards.size())));
+        final Deck<Ticket> ticketsDeck = Deck.ofOrdered(unseenTickets.subList(dealtTickets, dealtTickets + publicState.ticketsCount()));
+
+        return new GameState(publicState.currentPlayerId(), ticketsDeck, Map.copyOf(playerState), cardState,
+                publicState.lastPlayer());
     }
 
     /**
@@ -76,6 +161,24 @@ public final class GameState extends PublicGameState {
         return playerState(currentPlayerId());
     }
 
+    /**
+     * Getter for the deck of tickets, used by {@link MutableGameState} to start from this state.
+     *
+     * @return the deck of tickets
+     */
+    Deck<Ticket> ticketsDeck() {
+        return tickets;
+    }
+
+    /**
+     * Getter for the complete cards' state, used by {@link MutableGameState} to start from this state.
+     *
+     * @return the complete CardState
+     */
+    CardState completeCardState() {
+        return cardState;
+    }
+
     /**
      * Getter for the specified count of top ticket(s) from all tickets.
      *
@@ -132,6 +235,18 @@ public final class GameState extends PublicGameState {
         return new GameState(currentPlayerId(), tickets, playerState, cardState.withMoreDiscardedCards(discardedCards), lastPlayer());
     }
 
+    /**
+     * Computes a new GameState where the cards' deck has been recreated from the discard, in the given order, used
+     * to replay a {@link GameLog}.
+     *
+     * @param cards the discarded cards, in the order of the new deck
+     * @return the GameState with the deck made of cards
+     * @throws IllegalArgumentException if the deck isn't empty or if cards aren't the discarded cards
+     */
+    GameState withCardsDeckRecreated(List<Card> cards) {
+        return new GameState(currentPlayerId(), tickets, playerState, cardState.withDeckRecreatedFromDiscards(cards), lastPlayer());
+    }
+
     /**
      * Computes a new GameState where the cards' deck has been recreated from the discard.
      *
@@ -155,10 +270,8 @@ public final class GameState extends PublicGameState {
     public GameState withInitiallyChosenTickets(PlayerId playerId, SortedBag<Ticket> chosenTickets) {
         Preconditions.checkArgument(playerState.get(playerId).tickets().isEmpty());
 
-        final Map<PlayerId, PlayerState> playerState = new EnumMap<>(this.playerState);
-        playerState.put(playerId, playerState(playerId).withAddedTickets(chosenTickets));
-
-        return new GameState(currentPlayerId(), tickets, playerState, cardState, lastPlayer());
+        return new GameState(currentPlayerId(), tickets, playerStateWith(playerId, playerState(playerId).withAddedTickets(chosenTickets)),
+                cardState, lastPlayer());
     }
 
     /**
@@ -173,10 +286,8 @@ public final class GameState extends PublicGameState {
     public GameState withChosenAdditionalTickets(SortedBag<Ticket> drawnTickets, SortedBag<Ticket> chosenTickets) {
         Preconditions.checkArgument(drawnTickets.contains(chosenTickets));
 
-        final Map<PlayerId, PlayerState> playerState = new EnumMap<>(this.playerState);
-        playerState.put(currentPlayerId(), currentPlayerState().withAddedTickets(chosenTickets));
-
-        return new GameState(currentPlayerId(), tickets.withoutTopCards(drawnTickets.size()), playerState, cardState, lastPlayer());
+        return new GameState(currentPlayerId(), tickets.withoutTopCards(drawnTickets.size()),
+                playerStateWith(currentPlayerId(), currentPlayerState().withAddedTickets(chosenTickets)), cardState, lastPlayer());
     }
 
     /**
@@ -188,11 +299,8 @@ public final class GameState extends PublicGameState {
      * @see #canDrawCards()
      */
     public GameState withDrawnFaceUpCard(int slot) {
-
-        final Map<PlayerId, PlayerState> playerState = new EnumMap<>(this.playerState);
-        playerState.put(currentPlayerId(), currentPlayerState().withAddedCard(cardState.faceUpCard(slot)));
-
-        return new GameState(currentPlayerId(), tickets, playerState, cardState.withDrawnFaceUpCard(slot), lastPlayer());
+        return new GameState(currentPlayerId(), tickets, playerStateWith(currentPlayerId(), currentPlayerState().withAddedCard(cardState.faceUpCard(slot))),
+                cardState.withDrawnFaceUpCard(slot), lastPlayer());
     }
 
     /**
@@ -203,11 +311,8 @@ public final class GameState extends PublicGameState {
      * @see #canDrawCards()
      */
     public GameState withBlindlyDrawnCard() {
-
-        final Map<PlayerId, PlayerState> playerState = new EnumMap<>(this.playerState);
-        playerState.put(currentPlayerId(), currentPlayerState().withAddedCard(cardState.topDeckCard()));
-
-        return new GameState(currentPlayerId(), tickets, playerState, cardState.withoutTopDeckCard(), lastPlayer());
+        return new GameState(currentPlayerId(), tickets, playerStateWith(currentPlayerId(), currentPlayerState().withAddedCard(cardState.topDeckCard())),
+                cardState.withoutTopDeckCard(), lastPlayer());
     }
 
     /**
@@ -218,11 +323,21 @@ public final class GameState extends PublicGameState {
      * @return the same GameState where the current player has seized the given route using the given cards.
      */
     public GameState withClaimedRoute(Route route, SortedBag<Card> cards) {
+        return new GameState(currentPlayerId(), tickets, playerStateWith(currentPlayerId(), currentPlayerState().withClaimedRoute(route, cards)),
+                cardState.withMoreDiscardedCards(cards), lastPlayer());
+    }
 
-        final Map<PlayerId, PlayerState> playerState = new EnumMap<>(this.playerState);
-        playerState.put(currentPlayerId(), currentPlayerState().withClaimedRoute(route, cards));
-
-        return new GameState(currentPlayerId(), tickets, playerState, cardState.withMoreDiscardedCards(cards), lastPlayer());
+    /**
+     * Computes the immutable map of the players' states where the state of the given player has been replaced.
+     *
+     * @param playerId       the player whose state is replaced
+     * @param newPlayerState the new state of playerId
+     * @return the new immutable map of the players' states
+     */
+    private Map<PlayerId, PlayerState> playerStateWith(PlayerId playerId, PlayerState newPlayerState) {
+        final Map<PlayerId, PlayerState> newPlayerStates = new EnumMap<>(this.playerState);
+        newPlayerStates.put(playerId, newPlayerState);
+        return Map.copyOf(newPlayerStates);
     }
 
     /**
@@ -244,4 +359,14 @@ public final class GameState extends PublicGameState {
         return (lastTurnBegins() ? new GameState(currentPlayerId().next(), tickets, playerState, cardState, currentPlayerId())
                 : new GameState(currentPlayerId().next(), tickets, playerState, cardState, lastPlayer()));
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return this, since a GameState is immutable
+     */
+    @Override
+    public GameState snapshot() {
+        return this;
+    }
 }
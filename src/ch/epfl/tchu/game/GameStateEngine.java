@@ -0,0 +1,189 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.util.Random;
+
+/**<h1>GameStateEngine</h1>
+ * Interfaces the rules of the game as transitions applied to a complete game state. Implemented by the immutable
+ * {@link GameState}, whose transitions return new states, and by {@link MutableGameState}, whose transitions modify
+ * the state in place and return it.
+ *
+ * @param <S> the type of the state returned by the transitions
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public interface GameStateEngine<S extends GameStateEngine<S>> {
+
+    /**
+     * Getter for the id of the current player.
+     *
+     * @return the current player's id
+     */
+    PlayerId currentPlayerId();
+
+    /**
+     * Getter for the id of the last player.
+     *
+     * @return the last player's id, null as long as the last turn has not begun
+     */
+    PlayerId lastPlayer();
+
+    /**
+     * Tests whether it is possible to draw tickets or not.
+     *
+     * @return true iff there are still tickets left
+     */
+    boolean canDrawTickets();
+
+    /**
+     * Tests whether it is possible to draw cards from the deck or not.
+     *
+     * @return true iff there are at least five cards in the deck and the discard
+     */
+    boolean canDrawCards();
+
+    /**
+     * Getter for the number of tickets left in the deck of tickets.
+     *
+     * @return the number of tickets
+     */
+    int ticketsCount();
+
+    /**
+     * Getter for the public part of the cards' state.
+     *
+     * @return the PublicCardState
+     */
+    PublicCardState cardState();
+
+    /**
+     * Getter for the complete state of the given player.
+     *
+     * @param playerId the player whose state is returned
+     * @return the PlayerState of playerId
+     */
+    PlayerState playerState(PlayerId playerId);
+
+    /**
+     * Getter for the complete state of the current player.
+     *
+     * @return the PlayerState of the current player
+     */
+    PlayerState currentPlayerState();
+
+    /**
+     * Getter for the specified count of top ticket(s) from all tickets.
+     *
+     * @param count the number of top tickets needed
+     * @return the SortedBag of the top count Tickets
+     * @throws IllegalArgumentException if counts is negative or superior than tickets' size
+     */
+    SortedBag<Ticket> topTickets(int count);
+
+    /**
+     * Removes the first count tickets of the deck of tickets.
+     *
+     * @param count the number of top tickets to remove
+     * @return the state without the count top tickets
+     * @throws IllegalArgumentException if counts is negative or superior than tickets' size
+     */
+    S withoutTopTickets(int count);
+
+    /**
+     * Getter for the top deck card.
+     *
+     * @return the first card of the deck of cards
+     * @throws IllegalArgumentException if the deck of cards is empty
+     */
+    Card topCard();
+
+    /**
+     * Removes the first card of the deck of cards.
+     *
+     * @return the state without the first card of the deck of cards
+     * @throws IllegalArgumentException if the deck of cards is empty
+     */
+    S withoutTopCard();
+
+    /**
+     * Adds the given cards to the discard.
+     *
+     * @param discardedCards cards that will be added to the discard
+     * @return the state with this SortedBag of cards added to the discard
+     */
+    S withMoreDiscardedCards(SortedBag<Card> discardedCards);
+
+    /**
+     * Recreates the cards' deck from the discard if the deck is empty.
+     *
+     * @param rng Random used to shuffle the deck
+     * @return the state with its deck recreated from the discard if it was empty
+     */
+    S withCardsDeckRecreatedIfNeeded(Random rng);
+
+    /**
+     * Adds the initially chosen tickets to the specified player's tickets.
+     *
+     * @param playerId      the player that will receive the tickets
+     * @param chosenTickets tickets that are chosen by the player
+     * @return the state with the tickets given to playerId
+     * @throws IllegalArgumentException if the player as already some tickets
+     */
+    S withInitiallyChosenTickets(PlayerId playerId, SortedBag<Ticket> chosenTickets);
+
+    /**
+     * Removes the drawn tickets from the deck of tickets and adds the chosen ones to the current player's tickets.
+     *
+     * @param drawnTickets  tickets drawn by the player
+     * @param chosenTickets tickets chosen by the player
+     * @return the state where the current player took chosenTickets
+     * @throws IllegalArgumentException if drawnTickets doesn't contains the chosenTickets
+     */
+    S withChosenAdditionalTickets(SortedBag<Ticket> drawnTickets, SortedBag<Ticket> chosenTickets);
+
+    /**
+     * Adds the face-up card at the specified slot to the current player's cards and replaces it by the top deck card.
+     *
+     * @param slot the index of the face up card
+     * @return the state where the current player drew the face-up card at slot
+     */
+    S withDrawnFaceUpCard(int slot);
+
+    /**
+     * Adds the top deck card to the current player's cards.
+     *
+     * @return the state where the current player drew the top deck card
+     */
+    S withBlindlyDrawnCard();
+
+    /**
+     * Makes the current player claim the given route with the given cards.
+     *
+     * @param route route which the current player claimed
+     * @param cards cards that will be discarded to claim the route
+     * @return the state where the current player has seized the given route using the given cards
+     */
+    S withClaimedRoute(Route route, SortedBag<Card> cards);
+
+    /**
+     * Tests if the last turn begins.
+     *
+     * @return true iff the last player is still unknown and the current player has less than two car
+     */
+    boolean lastTurnBegins();
+
+    /**
+     * Gives the turn to the next player, who becomes the last player if the last turn begins.
+     *
+     * @return the state where the other player is now the current player
+     */
+    S forNextTurn();
+
+    /**
+     * Getter for an immutable snapshot of the state, which is not affected by the later transitions.
+     *
+     * @return the GameState equal to the current state
+     */
+    GameState snapshot();
+}
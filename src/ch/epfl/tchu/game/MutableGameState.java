@@ -0,0 +1,194 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**<h1>MutableGameState</h1>
+ * Represents the Game's state in its complete form, like {@link GameState}, but applies the transitions in place
+ * instead of building a new state for each of them. Intended for simulations playing a large number of games, it
+ * must not be shared between threads and {@link #snapshot()} must be used to hand the state over to the players.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class MutableGameState implements GameStateEngine<MutableGameState> {
+
+    private PlayerId currentPlayerId;
+    private PlayerId lastPlayer;
+    private Deck<Ticket> tickets;
+    private CardState cardState;
+    private final Map<PlayerId, PlayerState> playerState;
+
+    private MutableGameState(GameState gameState) {
+        this.currentPlayerId = gameState.currentPlayerId();
+        this.lastPlayer = gameState.lastPlayer();
+        this.tickets = gameState.ticketsDeck();
+        this.cardState = gameState.completeCardState();
+        this.playerState = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL)
+            playerState.put(playerId, gameState.playerState(playerId));
+    }
+
+    /**
+     * Static method which computes a MutableGameState starting from the given GameState, which is left unchanged.
+     *
+     * @param gameState the initial state
+     * @return a MutableGameState equal to gameState
+     */
+    public static MutableGameState of(GameState gameState) {
+        return new MutableGameState(gameState);
+    }
+
+    /**
+     * Static method which computes the complete MutableGameState with initial tickets, drawing the cards and the
+     * first player exactly as {@link GameState#initial(SortedBag, Random)} does.
+     *
+     * @param tickets SortedBag of tickets that a initially present in the game
+     * @param rng     Random used to shuffle cards and Tickets
+     * @return the initial MutableGameState
+     */
+    public static MutableGameState initial(SortedBag<Ticket> tickets, Random rng) {
+        return of(GameState.initial(tickets, rng));
+    }
+
+    @Override
+    public PlayerId currentPlayerId() {
+        return currentPlayerId;
+    }
+
+    @Override
+    public PlayerId lastPlayer() {
+        return lastPlayer;
+    }
+
+    @Override
+    public boolean canDrawTickets() {
+        return !tickets.isEmpty();
+    }
+
+    @Override
+    public boolean canDrawCards() {
+        return cardState.deckSize() + cardState.discardsSize() >= PublicGameState.MINIMUM_CARD_FOR_DRAWING;
+    }
+
+    @Override
+    public int ticketsCount() {
+        return tickets.size();
+    }
+
+    @Override
+    public PublicCardState cardState() {
+        return cardState;
+    }
+
+    @Override
+    public PlayerState playerState(PlayerId playerId) {
+        return playerState.get(playerId);
+    }
+
+    @Override
+    public PlayerState currentPlayerState() {
+        return playerState(currentPlayerId);
+    }
+
+    @Override
+    public SortedBag<Ticket> topTickets(int count) {
+        Preconditions.checkArgument(count >= 0 && count <= tickets.size());
+        return tickets.topCards(count);
+    }
+
+    @Override
+    public MutableGameState withoutTopTickets(int count) {
+        Preconditions.checkArgument(count >= 0 && count <= tickets.size());
+        tickets = tickets.withoutTopCards(count);
+        return this;
+    }
+
+    @Override
+    public Card topCard() {
+        Preconditions.checkArgument(!cardState.isDeckEmpty());
+        return cardState.topDeckCard();
+    }
+
+    @Override
+    public MutableGameState withoutTopCard() {
+        Preconditions.checkArgument(!cardState.isDeckEmpty());
+        cardState = cardState.withoutTopDeckCard();
+        return this;
+    }
+
+    @Override
+    public MutableGameState withMoreDiscardedCards(SortedBag<Card> discardedCards) {
+        cardState = cardState.withMoreDiscardedCards(discardedCards);
+        return this;
+    }
+
+    @Override
+    public MutableGameState withCardsDeckRecreatedIfNeeded(Random rng) {
+        if (cardState.isDeckEmpty())
+            cardState = cardState.withDeckRecreatedFromDiscards(rng);
+        return this;
+    }
+
+    @Override
+    public MutableGameState withInitiallyChosenTickets(PlayerId playerId, SortedBag<Ticket> chosenTickets) {
+        Preconditions.checkArgument(playerState(playerId).tickets().isEmpty());
+        playerState.put(playerId, playerState(playerId).withAddedTickets(chosenTickets));
+        return this;
+    }
+
+    @Override
+    public MutableGameState withChosenAdditionalTickets(SortedBag<Ticket> drawnTickets, SortedBag<Ticket> chosenTickets) {
+        Preconditions.checkArgument(drawnTickets.contains(chosenTickets));
+        playerState.put(currentPlayerId, currentPlayerState().withAddedTickets(chosenTickets));
+        tickets = tickets.withoutTopCards(drawnTickets.size());
+        return this;
+    }
+
+    @Override
+    public MutableGameState withDrawnFaceUpCard(int slot) {
+        playerState.put(currentPlayerId, currentPlayerState().withAddedCard(cardState.faceUpCard(slot)));
+        cardState = cardState.withDrawnFaceUpCard(slot);
+        return this;
+    }
+
+    @Override
+    public MutableGameState withBlindlyDrawnCard() {
+        playerState.put(currentPlayerId, currentPlayerState().withAddedCard(cardState.topDeckCard()));
+        cardState = cardState.withoutTopDeckCard();
+        return this;
+    }
+
+    @Override
+    public MutableGameState withClaimedRoute(Route route, SortedBag<Card> cards) {
+        playerState.put(currentPlayerId, currentPlayerState().withClaimedRoute(route, cards));
+        cardState = cardState.withMoreDiscardedCards(cards);
+        return this;
+    }
+
+    @Override
+    public boolean lastTurnBegins() {
+        return lastPlayer == null && currentPlayerState().carCount() <= GameState.MINIMUM_CAR_FOR_LAST_TURN_BEGIN;
+    }
+
+    @Override
+    public MutableGameState forNextTurn() {
+        if (lastTurnBegins())
+            lastPlayer = currentPlayerId;
+        currentPlayerId = currentPlayerId.next();
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The player and card states being immutable, they are shared with the snapshot instead of being copied.
+     */
+    @Override
+    public GameState snapshot() {
+        return new GameState(currentPlayerId, tickets, Map.copyOf(playerState), cardState, lastPlayer);
+    }
+}
@@ -15,7 +15,8 @@ public final class PlayerState extends PublicPlayerState {
 
     private final SortedBag<Ticket> tickets;
     private final SortedBag<Card> cards;
-    private final List<Route> routes;
+    private final TrailComponents trailComponents;
+    private final StationPartition connectivity;
 
     /**
      * Primary constructor of a PlayerState, builds a PlayerState with its Tickets, Cards and Routes.
@@ -28,7 +29,28 @@ public final class PlayerState extends PublicPlayerState {
         super(tickets.size(), cards.size(), routes);
         this.tickets = tickets;
         this.cards = cards;
-        this.routes = List.copyOf(routes);
+        this.trailComponents = TrailComponents.of(routes());
+        this.connectivity = connectivity(routes());
+    }
+
+    /**
+     * Constructor used by the transitions, which share the unchanged parts of the state instead of copying them.
+     *
+     * @param tickets         the sortedBag of the player's ticket
+     * @param cards           the sortedBag of the player's cards
+     * @param routes          the immutable list of the player's Route, which is not copied
+     * @param carCount        the number of cars the player still has
+     * @param claimPoints     the points received from claiming the routes
+     * @param trailComponents the connected components of routes, with their longest trails
+     * @param connectivity    the partition of the stations connected by routes
+     */
+    private PlayerState(SortedBag<Ticket> tickets, SortedBag<Card> cards, List<Route> routes, int carCount,
+                        int claimPoints, TrailComponents trailComponents, StationPartition connectivity) {
+        super(tickets.size(), cards.size(), routes, carCount, claimPoints);
+        this.tickets = tickets;
+        this.cards = cards;
+        this.trailComponents = trailComponents;
+        this.connectivity = connectivity;
     }
 
     /**
@@ -49,7 +71,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return (SortedBag < Ticket >) the PlayerState tickets
      */
     public SortedBag<Ticket> tickets() {
-        return SortedBag.of(tickets);
+        return tickets;
     }
 
     /**
@@ -58,7 +80,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return (PlayerState) new PlayerState with more tickets
      */
     public PlayerState withAddedTickets(SortedBag<Ticket> newTickets) {
-        return new PlayerState(tickets.union(newTickets), cards, routes);
+        return new PlayerState(tickets.union(newTickets), cards, routes(), carCount(), claimPoints(), trailComponents, connectivity);
     }
     /**
      * Computes a new PlayerState with one additional card.
@@ -67,7 +89,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return (PlayerState) new PlayerState with one more card
      */
     public PlayerState withAddedCard(Card card) {
-        return new PlayerState(tickets, cards.union(SortedBag.of(card)), routes);
+        return new PlayerState(tickets, cards.union(SortedBag.of(card)), routes(), carCount(), claimPoints(), trailComponents, connectivity);
     }
 
     /**
@@ -76,7 +98,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return (SortedBag < Card >) the PlayerState cards
      */
     public SortedBag<Card> cards() {
-        return SortedBag.of(cards);
+        return cards;
     }
 
     /**
@@ -86,7 +108,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return (boolean) true iff the player can take possession of the given Route according to his car and cards
      */
     public boolean canClaimRoute(Route route) {
-        return (this.carCount() >= route.length() && !possibleClaimCards(route).isEmpty());
+        return (this.carCount() >= route.length() && route.canBeClaimedWith(cards));
     }
 
     /**
@@ -126,12 +148,12 @@ public final class PlayerState extends PublicPlayerState {
                 .filter(c -> c.equals(Card.LOCOMOTIVE) || c.equals(initialCards.get(0)))
                 .collect(Collectors.toList());
 
-        Set<SortedBag<Card>> additionalCardsSet = new HashSet<>();
+        if (usableCard.size() < additionalCardsCount)
+            return List.of();
 
-        if (usableCard.size() >= additionalCardsCount)
-            additionalCardsSet = SortedBag.of(usableCard).subsetsOfSize(additionalCardsCount);
-
-        final List<SortedBag<Card>> additionalCards = new ArrayList<>(additionalCardsSet);
+        final List<SortedBag<Card>> additionalCards = SortedBag.of(usableCard)
+                .subsetsOfSizeStream(additionalCardsCount)
+                .collect(Collectors.toList());
         additionalCards.sort(Comparator.comparingInt(cs -> cs.countOf(Card.LOCOMOTIVE)));
 
         return additionalCards;
@@ -145,9 +167,23 @@ public final class PlayerState extends PublicPlayerState {
      * @return (PlayerState) a new PlayerState with one route added
      */
     public PlayerState withClaimedRoute(Route route, SortedBag<Card> claimCards) {
-        final List<Route> newRoutes = new ArrayList<>(routes);
+        final List<Route> newRoutes = new ArrayList<>(routes());
         newRoutes.add(route);
-        return new PlayerState(tickets, cards.difference(claimCards), newRoutes);
+        final List<Route> claimedRoutes = List.copyOf(newRoutes);
+        return new PlayerState(tickets, cards.difference(claimCards), claimedRoutes,
+                carCount() - route.length(), claimPoints() + route.claimPoints(),
+                trailComponents.withAddedRoute(route, claimedRoutes.size() - 1),
+                connectivity.withConnected(route.station1(), route.station2()));
+    }
+
+    /**
+     * Getter for the longest trail of the player, which is only searched again in the components of its routes
+     * changed by the claims since it was last asked for, instead of among all the routes.
+     *
+     * @return (Trail) the longest trail, the same one as {@link Trail#longest(List)} computes from the player's routes
+     */
+    public Trail longestTrail() {
+        return trailComponents.longest();
     }
 
     /**
@@ -156,6 +192,10 @@ public final class PlayerState extends PublicPlayerState {
      * @return (int) the number of points per tickets
      */
     public int ticketPoints() {
+        return Ticket.totalPoints(tickets, connectivity);
+    }
+
+    private static StationPartition connectivity(List<Route> routes) {
         int id = 0;
 
         for (Route r : routes) {
@@ -166,11 +206,7 @@ public final class PlayerState extends PublicPlayerState {
         final StationPartition.Builder stationPartitionBuilder = new StationPartition.Builder(id + 1);
 
         routes.forEach(route -> stationPartitionBuilder.connect(route.station1(), route.station2()));
-        final StationPartition connectivity = stationPartitionBuilder.build();
-
-        return tickets.stream()
-                .mapToInt(i -> i.points(connectivity))
-                .sum();
+        return stationPartitionBuilder.build();
     }
 
     /**
@@ -14,7 +14,7 @@ import java.util.Objects;
  */
 public class PublicGameState {
 
-    private final static int MINIMUM_CARD_FOR_DRAWING = 5;
+    final static int MINIMUM_CARD_FOR_DRAWING = 5;
     private final int ticketsCount;
     private final PublicCardState cardState;
     private final PlayerId currentPlayerId;
@@ -33,7 +33,7 @@ public class PublicGameState {
      *                                  if there is more than two player
      * @throws NullPointerException     if cardState or currentPlayerId is null
      */
-    public PublicGameState(int ticketsCount, PublicCardState cardState, PlayerId currentPlayerId, Map<PlayerId, PublicPlayerState> playerState, PlayerId lastPlayer) {
+    public PublicGameState(int ticketsCount, PublicCardState cardState, PlayerId currentPlayerId, Map<PlayerId, ? extends PublicPlayerState> playerState, PlayerId lastPlayer) {
         Preconditions.checkArgument(ticketsCount >= 0);
         Preconditions.checkArgument(playerState.size() == PlayerId.COUNT);
 
@@ -26,21 +26,30 @@ public class PublicPlayerState {
      * @throws IllegalArgumentException if ticketsCount or cardCount are negative
      */
     public PublicPlayerState(int ticketCount, int cardCount, List<Route> routes) {
+        this(ticketCount, cardCount, List.copyOf(routes),
+                Constants.INITIAL_CAR_COUNT - routes.stream().mapToInt(Route::length).sum(),
+                routes.stream().mapToInt(Route::claimPoints).sum());
+    }
+
+    /**
+     * Constructor used by the transitions of {@link PlayerState}, which already know the car count and the claim
+     * points, so that they are not recomputed from the routes.
+     *
+     * @param ticketCount the number of tickets
+     * @param cardCount   the number of card(s)
+     * @param routes      the immutable list of the Route(s) that the player claimed, which is not copied
+     * @param carCount    the number of cars the player still has
+     * @param claimPoints the points received from claiming the routes
+     * @throws IllegalArgumentException if ticketsCount or cardCount are negative
+     */
+    PublicPlayerState(int ticketCount, int cardCount, List<Route> routes, int carCount, int claimPoints) {
         Preconditions.checkArgument(ticketCount >= 0 && cardCount >= 0);
 
         this.ticketCount = ticketCount;
         this.cardCount = cardCount;
-        this.routes = List.copyOf(routes);
-
-        final int length = routes.stream()
-                .mapToInt(Route::length)
-                .sum();
-
-        carCount = (Constants.INITIAL_CAR_COUNT - length);
-
-        claimPoints = routes.stream()
-                .mapToInt(Route::claimPoints)
-                .sum();
+        this.routes = routes;
+        this.carCount = carCount;
+        this.claimPoints = claimPoints;
     }
 
     /**
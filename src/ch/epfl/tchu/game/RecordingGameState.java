@@ -0,0 +1,165 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**<h1>RecordingGameState</h1>
+ * Engine applying the transitions with another engine and reporting each of them as a {@link GameEvent}. Built by
+ * {@link GameLog.Recorder#recording(java.util.function.Function)}.
+ *
+ * @param <S> the type of the engine applying the transitions
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class RecordingGameState<S extends GameStateEngine<S>> implements GameStateEngine<RecordingGameState<S>> {
+
+    private S state;
+    private final Consumer<GameEvent> events;
+
+    /**
+     * Constructor of a RecordingGameState, which reports the start of the game.
+     *
+     * @param state  the engine, in the initial state of the game
+     * @param events the consumer of the events
+     */
+    RecordingGameState(S state, Consumer<GameEvent> events) {
+        this.state = state;
+        this.events = events;
+
+        final GameState initial = state.snapshot();
+        final List<Card> cardOrder = new ArrayList<>();
+        for (PlayerId playerId : PlayerId.ALL)
+            cardOrder.addAll(initial.playerState(playerId).cards().toList());
+        cardOrder.addAll(initial.cardState().faceUpCards());
+        cardOrder.addAll(initial.completeCardState().deckCards());
+
+        events.accept(GameEvent.gameStarted(initial.currentPlayerId(), initial.ticketsDeck().cards(), cardOrder));
+    }
+
+    private RecordingGameState<S> record(S newState, GameEvent event) {
+        state = newState;
+        events.accept(event);
+        return this;
+    }
+
+    @Override
+    public PlayerId currentPlayerId() {
+        return state.currentPlayerId();
+    }
+
+    @Override
+    public PlayerId lastPlayer() {
+        return state.lastPlayer();
+    }
+
+    @Override
+    public boolean canDrawTickets() {
+        return state.canDrawTickets();
+    }
+
+    @Override
+    public boolean canDrawCards() {
+        return state.canDrawCards();
+    }
+
+    @Override
+    public int ticketsCount() {
+        return state.ticketsCount();
+    }
+
+    @Override
+    public PublicCardState cardState() {
+        return state.cardState();
+    }
+
+    @Override
+    public PlayerState playerState(PlayerId playerId) {
+        return state.playerState(playerId);
+    }
+
+    @Override
+    public PlayerState currentPlayerState() {
+        return state.currentPlayerState();
+    }
+
+    @Override
+    public SortedBag<Ticket> topTickets(int count) {
+        return state.topTickets(count);
+    }
+
+    @Override
+    public RecordingGameState<S> withoutTopTickets(int count) {
+        return record(state.withoutTopTickets(count), GameEvent.topTicketsRemoved(count));
+    }
+
+    @Override
+    public Card topCard() {
+        return state.topCard();
+    }
+
+    @Override
+    public RecordingGameState<S> withoutTopCard() {
+        final Card topCard = state.topCard();
+        return record(state.withoutTopCard(), GameEvent.topCardRemoved(topCard));
+    }
+
+    @Override
+    public RecordingGameState<S> withMoreDiscardedCards(SortedBag<Card> discardedCards) {
+        return record(state.withMoreDiscardedCards(discardedCards), GameEvent.cardsDiscarded(discardedCards));
+    }
+
+    @Override
+    public RecordingGameState<S> withCardsDeckRecreatedIfNeeded(Random rng) {
+        if (!state.cardState().isDeckEmpty())
+            return this;
+
+        state = state.withCardsDeckRecreatedIfNeeded(rng);
+        return record(state, GameEvent.deckRecreated(state.snapshot().completeCardState().deckCards()));
+    }
+
+    @Override
+    public RecordingGameState<S> withInitiallyChosenTickets(PlayerId playerId, SortedBag<Ticket> chosenTickets) {
+        return record(state.withInitiallyChosenTickets(playerId, chosenTickets),
+                GameEvent.initialTicketsChosen(playerId, chosenTickets));
+    }
+
+    @Override
+    public RecordingGameState<S> withChosenAdditionalTickets(SortedBag<Ticket> drawnTickets, SortedBag<Ticket> chosenTickets) {
+        return record(state.withChosenAdditionalTickets(drawnTickets, chosenTickets),
+                GameEvent.additionalTicketsChosen(drawnTickets.size(), chosenTickets));
+    }
+
+    @Override
+    public RecordingGameState<S> withDrawnFaceUpCard(int slot) {
+        return record(state.withDrawnFaceUpCard(slot), GameEvent.faceUpCardDrawn(slot));
+    }
+
+    @Override
+    public RecordingGameState<S> withBlindlyDrawnCard() {
+        return record(state.withBlindlyDrawnCard(), GameEvent.deckCardDrawn());
+    }
+
+    @Override
+    public RecordingGameState<S> withClaimedRoute(Route route, SortedBag<Card> cards) {
+        return record(state.withClaimedRoute(route, cards), GameEvent.routeClaimed(route, cards));
+    }
+
+    @Override
+    public boolean lastTurnBegins() {
+        return state.lastTurnBegins();
+    }
+
+    @Override
+    public RecordingGameState<S> forNextTurn() {
+        return record(state.forNextTurn(), GameEvent.turnEnded());
+    }
+
+    @Override
+    public GameState snapshot() {
+        return state.snapshot();
+    }
+}
@@ -23,6 +23,8 @@ public final class Route {
         UNDERGROUND
     }
 
+    private static final List<List<SortedBag<Card>>> POSSIBLE_CLAIM_CARDS = computeAllPossibleClaimCards();
+
     private final String id;
     private final Station station1, station2;
     private final Level level;
@@ -85,28 +87,77 @@ public final class Route {
 
     /**
      * Computes from a List of SortedBag of Cards all the possible cards the player can choose to take the route.
+     * The lists only depend on the level, the color and the length of the route, they are computed once for all and
+     * shared by the routes.
      *
-     * @return (List < SortedBag < Card > >) a List of SortedBag of all possible Cards to claim the Route
+     * @return (List < SortedBag < Card > >) an immutable List of SortedBag of all possible Cards to claim the Route
      */
     public List<SortedBag<Card>> possibleClaimCards() {
+        return POSSIBLE_CLAIM_CARDS.get(possibleClaimCardsIndex(level, color, length));
+    }
+
+    /**
+     * Tests whether at least one of the possible claim cards of the Route can be played with the given cards,
+     * without building the possible claim cards.
+     *
+     * @param cards the cards the player has
+     * @return (boolean) true iff one of {@link #possibleClaimCards()} is contained in cards
+     */
+    public boolean canBeClaimedWith(SortedBag<Card> cards) {
+        final int locomotives = (level == Level.UNDERGROUND) ? cards.countOf(Card.LOCOMOTIVE) : 0;
+
+        if (color != null)
+            return cards.countOf(Card.of(color)) + locomotives >= length;
+
+        for (Card car : Card.CARS) {
+            if (cards.countOf(car) + locomotives >= length)
+                return true;
+        }
+        return locomotives >= length;
+    }
+
+    private static int possibleClaimCardsIndex(Level level, Color color, int length) {
+        final int colorIndex = (color == null) ? Color.COUNT : color.ordinal();
+        return (level.ordinal() * (Color.COUNT + 1) + colorIndex) * (Constants.MAX_ROUTE_LENGTH + 1) + length;
+    }
+
+    private static List<List<SortedBag<Card>>> computeAllPossibleClaimCards() {
+        final List<List<SortedBag<Card>>> all = new ArrayList<>();
+        final List<Color> colors = new ArrayList<>(Color.ALL);
+        colors.add(null);
+
+        for (Level level : Level.values()) {
+            for (Color color : colors) {
+                for (int length = 0; length <= Constants.MAX_ROUTE_LENGTH; length++) {
+                    assert all.size() == possibleClaimCardsIndex(level, color, length);
+                    all.add(length < Constants.MIN_ROUTE_LENGTH
+                            ? List.of()
+                            : computePossibleClaimCards(level, color, length));
+                }
+            }
+        }
+        return List.copyOf(all);
+    }
+
+    private static List<SortedBag<Card>> computePossibleClaimCards(Level level, Color color, int length) {
         final List<SortedBag<Card>> possibleClaimCards = new ArrayList<>();
 
         if (color == null) {
             if (level.equals(Level.UNDERGROUND))
-                unColorUnderGroundPossibleClaimCards(possibleClaimCards);
+                unColorUnderGroundPossibleClaimCards(possibleClaimCards, length);
             else
-                unColorOverGroundPossibleClaimCards(possibleClaimCards);
+                unColorOverGroundPossibleClaimCards(possibleClaimCards, length);
 
         } else {
             if (level.equals(Level.UNDERGROUND))
-                colorUndergroundPossibleClaimCards(possibleClaimCards);
+                colorUndergroundPossibleClaimCards(possibleClaimCards, color, length);
             else
-                colorOvergroundPossibleClaimCards(possibleClaimCards);
+                colorOvergroundPossibleClaimCards(possibleClaimCards, color, length);
         }
-        return possibleClaimCards;
+        return List.copyOf(possibleClaimCards);
     }
 
-    private void unColorUnderGroundPossibleClaimCards(List<SortedBag<Card>> possibleClaimCards) {
+    private static void unColorUnderGroundPossibleClaimCards(List<SortedBag<Card>> possibleClaimCards, int length) {
 
         for (int i = 0; i < length; i++) {
             int finalI = i;
@@ -115,11 +166,11 @@ public final class Route {
         possibleClaimCards.add(SortedBag.of(length, Card.LOCOMOTIVE));
     }
 
-    private void unColorOverGroundPossibleClaimCards(List<SortedBag<Card>> possibleClaimCards) {
+    private static void unColorOverGroundPossibleClaimCards(List<SortedBag<Card>> possibleClaimCards, int length) {
         Color.ALL.forEach(color1 -> possibleClaimCards.add(SortedBag.of(length, Card.of(color1))));
     }
 
-    private void colorUndergroundPossibleClaimCards(List<SortedBag<Card>> possibleClaimCards) {
+    private static void colorUndergroundPossibleClaimCards(List<SortedBag<Card>> possibleClaimCards, Color color, int length) {
         SortedBag.Builder<Card> sBuilder;
         for (int i = 0; i <= length; i++) {
             sBuilder = new SortedBag.Builder<>();
@@ -128,7 +179,7 @@ public final class Route {
         }
     }
 
-    private void colorOvergroundPossibleClaimCards(List<SortedBag<Card>> possibleClaimCards) {
+    private static void colorOvergroundPossibleClaimCards(List<SortedBag<Card>> possibleClaimCards, Color color, int length) {
         possibleClaimCards.add(SortedBag.of(length, Card.of(color)));
     }
 
@@ -13,7 +13,7 @@ public final class StationPartition implements StationConnectivity {
     private final int[] representativeId;
 
     private StationPartition(int[] linksId) {
-        representativeId = Arrays.copyOf(linksId,linksId.length);
+        representativeId = linksId;
     }
 
     /**
@@ -21,7 +21,45 @@ public final class StationPartition implements StationConnectivity {
      */
     @Override
     public boolean connected(Station st1, Station st2) {
-        return (st1.id() < representativeId.length && st2.id() < representativeId.length) ? representativeId[st1.id()] == representativeId[st2.id()] : st1.id() == st2.id();
+        return connected(st1.id(), st2.id());
+    }
+
+    /**
+     * Tests whether the stations of the given ids are connected, without going through the stations themselves.
+     *
+     * @param id1 the id of the first Station
+     * @param id2 the id of the second Station
+     * @return (boolean) true if the two stations are connected or if they are the same station
+     */
+    boolean connected(int id1, int id2) {
+        return (id1 < representativeId.length && id2 < representativeId.length) ? representativeId[id1] == representativeId[id2] : id1 == id2;
+    }
+
+    /**
+     * Computes the StationPartition where the two given stations are also connected, leaving this one unchanged.
+     * The new partition stays flat: the stations of one of the two joined sets are given the representative of the
+     * other, so that connecting two stations costs a single copy of the table, whatever the number of stations.
+     *
+     * @param s1 the first Station to connect
+     * @param s2 the second Station to connect
+     * @return (StationPartition) the partition where s1 and s2 are connected, this if they already were
+     */
+    public StationPartition withConnected(Station s1, Station s2) {
+        if (connected(s1, s2))
+            return this;
+
+        final int length = Math.max(representativeId.length, Math.max(s1.id(), s2.id()) + 1);
+        final int[] newRepresentativeId = Arrays.copyOf(representativeId, length);
+        for (int i = representativeId.length; i < length; i++)
+            newRepresentativeId[i] = i;
+
+        final int oldRepresentative = newRepresentativeId[s1.id()];
+        final int newRepresentative = newRepresentativeId[s2.id()];
+        for (int i = 0; i < length; i++) {
+            if (newRepresentativeId[i] == oldRepresentative)
+                newRepresentativeId[i] = newRepresentative;
+        }
+        return new StationPartition(newRepresentativeId);
     }
 
     /**
@@ -29,10 +67,12 @@ public final class StationPartition implements StationConnectivity {
      */
     public static final class Builder {
         private final int[] representativeId;
+        private final int[] rank;
 
         /**
          * Compute the representative of the station, is used in connect when connecting two stations so it
-         * always return the representative of the partition.
+         * always return the representative of the partition. The stations met on the way are then linked directly
+         * to the representative, so that the next calls don't walk the same chain again.
          *
          * @param id id of the station you want to compute the representative
          * @return (int) the representative
@@ -44,6 +84,12 @@ public final class StationPartition implements StationConnectivity {
                 representative = representativeId[representative];
             }
 
+            while (representativeId[id] != representative) {
+                int next = representativeId[id];
+                representativeId[id] = representative;
+                id = next;
+            }
+
             return representative;
         }
 
@@ -57,12 +103,14 @@ public final class StationPartition implements StationConnectivity {
             Preconditions.checkArgument(stationCount >= 0);
 
             representativeId = new int[stationCount];
+            rank = new int[stationCount];
             for (int i = 0; i < stationCount; i++)
                 representativeId[i] = i;
         }
 
         /**
-         * Connects the two stations ,joins the two stations sets and chooses a representative for the new set.
+         * Connects the two stations ,joins the two stations sets and chooses a representative for the new set, the
+         * representative of the set with the highest rank, so that the chains to the representatives stay short.
          *
          * @param s1 the first Station to connect
          * @param s2 the second Station to connect
@@ -70,7 +118,17 @@ public final class StationPartition implements StationConnectivity {
          * @throws IllegalArgumentException if one or the other id is negative
          */
         public Builder connect(Station s1, Station s2) {
-            representativeId[representative(s1.id())] = representative(s2.id());
+            final int representative1 = representative(s1.id());
+            final int representative2 = representative(s2.id());
+
+            if (rank[representative1] < rank[representative2]) {
+                representativeId[representative1] = representative2;
+            } else if (rank[representative1] > rank[representative2]) {
+                representativeId[representative2] = representative1;
+            } else if (representative1 != representative2) {
+                representativeId[representative1] = representative2;
+                rank[representative2] += 1;
+            }
             return this;
         }
 
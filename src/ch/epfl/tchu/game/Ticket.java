@@ -1,8 +1,10 @@
 package ch.epfl.tchu.game;
 
 import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
 
 import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
 
 /**<h1>Ticket</h1>
@@ -14,6 +16,10 @@ public final class Ticket implements Comparable<Ticket> {
 
     private final List<Trip> trips;
     private final String name;
+    private final int[] fromIds;
+    private final int[] toIds;
+    private final int[] tripPoints;
+    private final int minPoints;
 
     /**
      * Primary constructor for a Ticket, creating it with a List of trips.
@@ -31,6 +37,19 @@ public final class Ticket implements Comparable<Ticket> {
         this.trips = List.copyOf(trips);
         this.name = computeText(this.trips);
 
+        // trips compiled once into station ids and points, see points(StationPartition)
+        this.fromIds = new int[trips.size()];
+        this.toIds = new int[trips.size()];
+        this.tripPoints = new int[trips.size()];
+        int min = trips.get(0).points();
+        for (int i = 0; i < trips.size(); i++) {
+            fromIds[i] = trips.get(i).from().id();
+            toIds[i] = trips.get(i).to().id();
+            tripPoints[i] = trips.get(i).points();
+            min = Math.min(min, tripPoints[i]);
+        }
+        this.minPoints = min;
+
     }
 
     /**
@@ -70,6 +89,9 @@ public final class Ticket implements Comparable<Ticket> {
      * @return (int) the points given the connectivity
      */
     public int points(StationConnectivity connectivity) {
+        if (connectivity instanceof StationPartition)
+            return points((StationPartition) connectivity);
+
         int maxPoint = 0;
         int minPoint = trips.get(0).points();
 
@@ -82,6 +104,50 @@ public final class Ticket implements Comparable<Ticket> {
         return (maxPoint == 0) ? -minPoint : maxPoint;
     }
 
+    /**
+     * Computes how many points will be earned with the Ticket according to the given partition, using the station
+     * ids and points of the trips computed when the Ticket was built.
+     *
+     * @param partition the partition of the stations connected by the player's routes
+     * @return (int) the points given the partition
+     */
+    public int points(StationPartition partition) {
+        int maxPoint = 0;
+
+        for (int i = 0; i < tripPoints.length; i++) {
+            if (tripPoints[i] > maxPoint && partition.connected(fromIds[i], toIds[i]))
+                maxPoint = tripPoints[i];
+        }
+
+        return (maxPoint == 0) ? -minPoints : maxPoint;
+    }
+
+    /**
+     * Computes the total points earned with the given tickets according to the given partition, each ticket being
+     * counted as many times as it appears in the bag.
+     *
+     * @param tickets   the tickets of a player
+     * @param partition the partition of the stations connected by the player's routes
+     * @return (int) the sum of the points of the tickets, can be negative
+     */
+    public static int totalPoints(SortedBag<Ticket> tickets, StationPartition partition) {
+        int total = 0;
+
+        for (Map.Entry<Ticket, Integer> ticketAndCount : tickets.toMap().entrySet())
+            total += ticketAndCount.getKey().points(partition) * ticketAndCount.getValue();
+
+        return total;
+    }
+
+    /**
+     * Getter for the trips of the Ticket.
+     *
+     * @return (List < Trip >) the immutable list of the trips
+     */
+    public List<Trip> trips() {
+        return trips;
+    }
+
     /**
      * Getter for the private field name.
      *
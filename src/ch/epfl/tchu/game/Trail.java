@@ -2,8 +2,8 @@ package ch.epfl.tchu.game;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 
 /**<h1>Trail</h1>
  * Implements a Trail of the game.
@@ -30,6 +30,10 @@ public final class Trail {
 
     /**
      * Computes the longest or one of the longest Trail for a given List of Route.
+     * <p>
+     * The routes are indexed once by station, then the trails are explored depth-first while the routes already
+     * used are marked in a bit mask, so that only the returned Trail is built. Among the longest trails, the one made
+     * of the fewest routes is returned, the first one found if there are still several of them.
      *
      * @param routes the list of all Route(s) to make the Trail
      * @return (Trail) the longest trail given all Route(s)
@@ -39,58 +43,108 @@ public final class Trail {
         if (routes.isEmpty())
             return new Trail(List.of(), null, null);
 
-        List<Trail> cs;
-        Trail longestTrail = null;
-        int length = 0;
-
-        cs = getSingleRoutes(routes);
-
-        while (!cs.isEmpty()) {
-            List<Trail> cs2 = new ArrayList<>();
+        return new LongestTrailSearch(routes).longest();
+    }
 
-            for (Trail c : cs) {
+    /**
+     * Depth-first search of the longest trail, over the routes indexed by station id.
+     */
+    private static final class LongestTrailSearch {
+        private final List<Route> routes;
+        private final int[] lengths;
+        private final int[] firstIncidence;
+        private final int[] incidentRoutes;
+        private final int[] incidentEnds;
+        private final long[] used;
+        private final int[] path;
+        private final int[] bestPath;
+        private int bestLength = -1;
+        private int bestDepth;
+        private int bestStart;
+        private int bestEnd;
+
+        private LongestTrailSearch(List<Route> routes) {
+            this.routes = routes;
+            int routeCount = routes.size();
+            int stationCount = 0;
+            lengths = new int[routeCount];
+            for (int i = 0; i < routeCount; i++) {
+                Route route = routes.get(i);
+                lengths[i] = route.length();
+                stationCount = Math.max(stationCount, Math.max(route.station1().id(), route.station2().id()) + 1);
+            }
 
-                if (longestTrail != null)
-                    length = longestTrail.length;
+            // incidences of station s are stored, in the order of the routes, from firstIncidence[s]
+            // to firstIncidence[s + 1]
+            firstIncidence = new int[stationCount + 1];
+            for (Route route : routes) {
+                firstIncidence[route.station1().id() + 1] += 1;
+                firstIncidence[route.station2().id() + 1] += 1;
+            }
+            for (int s = 0; s < stationCount; s++)
+                firstIncidence[s + 1] += firstIncidence[s];
+
+            int[] next = Arrays.copyOf(firstIncidence, stationCount);
+            incidentRoutes = new int[2 * routeCount];
+            incidentEnds = new int[2 * routeCount];
+            for (int i = 0; i < routeCount; i++) {
+                int s1 = routes.get(i).station1().id();
+                int s2 = routes.get(i).station2().id();
+                incidentRoutes[next[s1]] = i;
+                incidentEnds[next[s1]++] = s2;
+                incidentRoutes[next[s2]] = i;
+                incidentEnds[next[s2]++] = s1;
+            }
 
-                //go through all routes and search possible candidate to continue the trail
-                routes.stream()
-                        .filter(route -> !c.routes().contains(route))
-                        .forEach(route -> {
-                            if ((c.station2().id() == route.station1().id()) && (Objects.equals(c.station2().name(), route.station1().name()))) {
-                                addTrailBuildWithRouteAccordingToSt2(c, cs2, route);
-                            } else if ((c.station2().id() == route.station2().id()) && (Objects.equals(c.station2().name(), route.station2().name()))) {
-                                addTrailBuildWithRouteAccordingToSt1(c, cs2, route);
-                            }
-                        });
+            used = new long[(routeCount + Long.SIZE - 1) / Long.SIZE];
+            path = new int[routeCount];
+            bestPath = new int[routeCount];
+        }
 
-                longestTrail = length < c.length() ? c : longestTrail;
-            }
-            cs = cs2;
+        private Trail longest() {
+            for (int i = 0; i < routes.size(); i++)
+                start(i, routes.get(i).station1().id(), routes.get(i).station2().id());
+            for (int i = 0; i < routes.size(); i++)
+                start(i, routes.get(i).station2().id(), routes.get(i).station1().id());
+
+            List<Route> trailRoutes = new ArrayList<>(bestDepth);
+            for (int i = 0; i < bestDepth; i++)
+                trailRoutes.add(routes.get(bestPath[i]));
+            return new Trail(trailRoutes, station(trailRoutes.get(0), bestStart),
+                    station(trailRoutes.get(bestDepth - 1), bestEnd));
         }
-        return longestTrail;
-    }
 
-    private static void addTrailBuildWithRouteAccordingToSt1(Trail c, List<Trail> cs2, Route toAdd) {
-        List<Route> routeList = new ArrayList<>(c.routes());
-        routeList.add(toAdd);
-        Trail t = new Trail(routeList, c.station1(), toAdd.station1());
-        cs2.add(t);
-    }
+        private void start(int route, int from, int to) {
+            path[0] = route;
+            used[route / Long.SIZE] |= 1L << route;
+            extend(from, to, 1, lengths[route]);
+            used[route / Long.SIZE] &= ~(1L << route);
+        }
 
-    private static void addTrailBuildWithRouteAccordingToSt2(Trail c, List<Trail> cs2, Route toAdd) {
-        List<Route> routeList = new ArrayList<>(c.routes());
-        routeList.add(toAdd);
-        Trail t = new Trail(routeList, c.station1(), toAdd.station2());
-        cs2.add(t);
-    }
+        private void extend(int from, int end, int depth, int length) {
+            if (length > bestLength || (length == bestLength && depth < bestDepth)) {
+                bestLength = length;
+                bestDepth = depth;
+                bestStart = from;
+                bestEnd = end;
+                System.arraycopy(path, 0, bestPath, 0, depth);
+            }
 
-    private static List<Trail> getSingleRoutes(List<Route> routes) {
-        final List<Trail> trails = new ArrayList<>();
+            for (int k = firstIncidence[end]; k < firstIncidence[end + 1]; k++) {
+                int route = incidentRoutes[k];
+                long bit = 1L << route;
+                if ((used[route / Long.SIZE] & bit) == 0) {
+                    path[depth] = route;
+                    used[route / Long.SIZE] |= bit;
+                    extend(from, incidentEnds[k], depth + 1, length + lengths[route]);
+                    used[route / Long.SIZE] &= ~bit;
+                }
+            }
+        }
 
-        routes.forEach(r -> trails.add(new Trail(List.of(r), r.station1(), r.station2())));
-        routes.forEach(r -> trails.add(new Trail(List.of(r), r.station2(), r.station1())));
-        return trails;
+        private static Station station(Route route, int stationId) {
+            return route.station1().id() == stationId ? route.station1() : route.station2();
+        }
     }
 
     /**
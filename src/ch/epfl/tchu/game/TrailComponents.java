@@ -0,0 +1,201 @@
+package ch.epfl.tchu.game;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**<h1>TrailComponents</h1>
+ * Partition of a player's routes into connected components, each one knowing its longest trail. Since a trail never
+ * leaves its component, adding a route only requires to search again the component the route ends up in.
+ * <p>
+ * The longest trails are only searched when they are asked for, once per component, the components left untouched by
+ * a claim being shared with their trails by the following TrailComponents.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+final class TrailComponents {
+
+    /**
+     * TrailComponents of a player who has no route.
+     */
+    static final TrailComponents EMPTY = new TrailComponents(List.of());
+
+    private static final Trail EMPTY_TRAIL = Trail.longest(List.of());
+
+    private final List<Component> components;
+    // written at most once, the same Trail being computed by the threads which would race for it
+    private volatile Trail longest;
+
+    private TrailComponents(List<Component> components) {
+        this.components = components;
+    }
+
+    /**
+     * Static method computing the TrailComponents of the given routes, as if they had been added one after the other.
+     * The components are found by union-find over the stations, without searching any trail.
+     *
+     * @param routes the routes, in the order they were claimed
+     * @return the TrailComponents of routes
+     */
+    static TrailComponents of(List<Route> routes) {
+        if (routes.isEmpty())
+            return EMPTY;
+
+        int stationCount = 0;
+        for (Route route : routes)
+            stationCount = Math.max(stationCount, Math.max(route.station1().id(), route.station2().id()) + 1);
+        final int[] parents = new int[stationCount];
+        for (int station = 0; station < stationCount; station++)
+            parents[station] = station;
+        for (Route route : routes)
+            parents[root(parents, route.station1().id())] = root(parents, route.station2().id());
+
+        // the claim indices of the routes of each component, in increasing order
+        final Map<Integer, List<Integer>> claimIndices = new LinkedHashMap<>();
+        for (int i = 0; i < routes.size(); i++)
+            claimIndices.computeIfAbsent(root(parents, routes.get(i).station1().id()), root -> new ArrayList<>()).add(i);
+
+        final List<Component> components = new ArrayList<>(claimIndices.size());
+        for (List<Integer> indices : claimIndices.values()) {
+            final List<Route> componentRoutes = new ArrayList<>(indices.size());
+            for (int i : indices)
+                componentRoutes.add(routes.get(i));
+            components.add(new Component(componentRoutes, indices.stream().mapToInt(Integer::intValue).toArray()));
+        }
+        return new TrailComponents(List.copyOf(components));
+    }
+
+    /**
+     * Computes the TrailComponents with one more route, merging the components it connects, whose longest trail will
+     * be searched again.
+     *
+     * @param route      the added route
+     * @param claimIndex the index of route among all the routes, in the order they were claimed, greater than the
+     *                   ones of the routes already added
+     * @return the TrailComponents with route added
+     */
+    TrailComponents withAddedRoute(Route route, int claimIndex) {
+        final List<Component> newComponents = new ArrayList<>(components.size() + 1);
+        Component merged = new Component(List.of(route), new int[]{claimIndex});
+
+        for (Component component : components) {
+            if (component.touches(route))
+                merged = component.mergedWith(merged);
+            else
+                newComponents.add(component);
+        }
+        newComponents.add(merged);
+        return new TrailComponents(List.copyOf(newComponents));
+    }
+
+    /**
+     * Getter for the longest trail among all the components, searched the first time it is asked for.
+     *
+     * @return the longest trail, the same one as Trail.longest would compute from all the routes
+     */
+    Trail longest() {
+        Trail trail = longest;
+        if (trail == null) {
+            Component longestComponent = null;
+            for (Component component : components) {
+                if (longestComponent == null || component.isLonger(longestComponent))
+                    longestComponent = component;
+            }
+            trail = longest = (longestComponent == null) ? EMPTY_TRAIL : longestComponent.longest().trail;
+        }
+        return trail;
+    }
+
+    private static int root(int[] parents, int station) {
+        while (parents[station] != station)
+            station = parents[station] = parents[parents[station]];
+        return station;
+    }
+
+    /**
+     * Connected routes, in the order they were claimed, with their indices in that order and their longest trail.
+     */
+    private static final class Component {
+        private final List<Route> routes;
+        private final int[] claimIndices;
+        private final BitSet stations = new BitSet();
+        private volatile ComponentTrail longest;
+
+        private Component(List<Route> routes, int[] claimIndices) {
+            this.routes = routes;
+            this.claimIndices = claimIndices;
+            for (Route route : routes) {
+                stations.set(route.station1().id());
+                stations.set(route.station2().id());
+            }
+        }
+
+        private boolean touches(Route route) {
+            return stations.get(route.station1().id()) || stations.get(route.station2().id());
+        }
+
+        // merges the routes of both components, keeping the order they were claimed in
+        private Component mergedWith(Component that) {
+            final List<Route> mergedRoutes = new ArrayList<>(routes.size() + that.routes.size());
+            final int[] mergedIndices = new int[routes.size() + that.routes.size()];
+            int i = 0;
+            int j = 0;
+            while (i < routes.size() || j < that.routes.size()) {
+                if (j == that.routes.size() || (i < routes.size() && claimIndices[i] < that.claimIndices[j])) {
+                    mergedIndices[i + j] = claimIndices[i];
+                    mergedRoutes.add(routes.get(i++));
+                } else {
+                    mergedIndices[i + j] = that.claimIndices[j];
+                    mergedRoutes.add(that.routes.get(j++));
+                }
+            }
+            return new Component(mergedRoutes, mergedIndices);
+        }
+
+        private ComponentTrail longest() {
+            ComponentTrail componentTrail = longest;
+            if (componentTrail == null) {
+                // the routes keep the order they were claimed in, so that ties are broken as Trail.longest(routes) does
+                final Trail trail = Trail.longest(routes);
+                final Route first = trail.routes().get(0);
+                int firstIndex = 0;
+                while (routes.get(firstIndex) != first)
+                    firstIndex++;
+                componentTrail = longest = new ComponentTrail(trail, first.station1().id() != trail.station1().id(),
+                        claimIndices[firstIndex]);
+            }
+            return componentTrail;
+        }
+
+        // same order as the search of Trail.longest : longest first, then fewest routes, then the first one explored
+        private boolean isLonger(Component that) {
+            final ComponentTrail t1 = longest();
+            final ComponentTrail t2 = that.longest();
+            if (t1.trail.length() != t2.trail.length())
+                return t1.trail.length() > t2.trail.length();
+            if (t1.trail.routes().size() != t2.trail.routes().size())
+                return t1.trail.routes().size() < t2.trail.routes().size();
+            if (t1.reversed != t2.reversed)
+                return !t1.reversed;
+            return t1.firstClaimIndex < t2.firstClaimIndex;
+        }
+    }
+
+    /**
+     * Longest trail of a component, with the rank at which Trail.longest explores it : the trails starting with a
+     * route taken from its first station come first, in the order the routes were claimed.
+     */
+    private static final class ComponentTrail {
+        private final Trail trail;
+        private final boolean reversed;
+        private final int firstClaimIndex;
+
+        private ComponentTrail(Trail trail, boolean reversed, int firstClaimIndex) {
+            this.trail = trail;
+            this.reversed = reversed;
+            this.firstClaimIndex = firstClaimIndex;
+        }
+    }
+}
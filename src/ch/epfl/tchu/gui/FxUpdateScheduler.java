@@ -0,0 +1,91 @@
+package ch.epfl.tchu.gui;
+
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import javafx.application.Platform;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**<h1>FxUpdateScheduler</h1>
+ * Coalesces the updates sent to the JavaFX thread by a thread of the game : the information messages are queued, only
+ * the latest state is kept, and a single task applies all of them on the JavaFX thread, at most one such task being
+ * pending at once. A burst of messages therefore costs a single task and a single layout pass, the intermediate
+ * states being skipped.
+ * <p>
+ * As the JavaFX thread runs its tasks in the order they were posted, the updates scheduled before another task is
+ * posted with {@link Platform#runLater(Runnable)} are applied before it runs.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+final class FxUpdateScheduler {
+    private final Consumer<String> infoConsumer;
+    private final BiConsumer<PublicGameState, PlayerState> stateConsumer;
+    private final Queue<String> pendingInfos = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<State> pendingState = new AtomicReference<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    /**
+     * Constructor of a FxUpdateScheduler.
+     *
+     * @param infoConsumer  the function displaying an information message, called on the JavaFX thread
+     * @param stateConsumer the function displaying a state, called on the JavaFX thread
+     */
+    FxUpdateScheduler(Consumer<String> infoConsumer, BiConsumer<PublicGameState, PlayerState> stateConsumer) {
+        this.infoConsumer = infoConsumer;
+        this.stateConsumer = stateConsumer;
+    }
+
+    /**
+     * Schedule the display of an information message, after the ones already scheduled.
+     *
+     * @param info the information message
+     */
+    void scheduleInfo(String info) {
+        pendingInfos.add(info);
+        scheduleDrain();
+    }
+
+    /**
+     * Schedule the display of a state, replacing the one already scheduled if it hasn't been displayed yet.
+     *
+     * @param newState the new state of the game
+     * @param ownState the state of the player
+     */
+    void scheduleState(PublicGameState newState, PlayerState ownState) {
+        pendingState.set(new State(newState, ownState));
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true))
+            Platform.runLater(this::drain);
+    }
+
+    // the flag is cleared before reading what is pending, so that what is scheduled meanwhile gets a new task
+    private void drain() {
+        drainScheduled.set(false);
+
+        String info;
+        while ((info = pendingInfos.poll()) != null)
+            infoConsumer.accept(info);
+
+        final State state = pendingState.getAndSet(null);
+        if (state != null)
+            stateConsumer.accept(state.gameState, state.ownState);
+    }
+
+    private static final class State {
+        private final PublicGameState gameState;
+        private final PlayerState ownState;
+
+        private State(PublicGameState gameState, PlayerState ownState) {
+            this.gameState = gameState;
+            this.ownState = ownState;
+        }
+    }
+}
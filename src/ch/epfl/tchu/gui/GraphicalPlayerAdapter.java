@@ -21,6 +21,7 @@ public final class GraphicalPlayerAdapter implements Player {
     private final ArrayBlockingQueue<Integer> blockingCardIndexQueue;
     private final ArrayBlockingQueue<Route> blockingRouteQueue;
     private final ArrayBlockingQueue<SortedBag<Card>> blockingCardsQueue;
+    private final FxUpdateScheduler updates;
 
     /**
      * Unique constructor of a Graphical adapter which is in charge to simply initialize BlockingQueue
@@ -32,6 +33,8 @@ public final class GraphicalPlayerAdapter implements Player {
         blockingRouteQueue = new ArrayBlockingQueue<>(1);
         blockingCardsQueue = new ArrayBlockingQueue<>(Constants.ALL_CARDS.size());
         graphicalPlayer = null;
+        updates = new FxUpdateScheduler(info -> graphicalPlayer.receiveInfo(info),
+                (newState, ownState) -> graphicalPlayer.setState(newState, ownState));
     }
 
     /**
@@ -46,24 +49,27 @@ public final class GraphicalPlayerAdapter implements Player {
     }
 
     /**
-     * Call the method receiveInfo of the graphicalPlayer on the JavaFX thread
+     * Call the method receiveInfo of the graphicalPlayer on the JavaFX thread, along with the other updates scheduled
+     * meanwhile, see {@link FxUpdateScheduler}.
      *
      * @param info Information to give to the player, parsed by the class Info
      */
     @Override
     public void receiveInfo(String info) {
-        runLater(() -> graphicalPlayer.receiveInfo(info));
+        updates.scheduleInfo(info);
     }
 
     /**
-     * Call the method setState of the graphicalPlayer on the JavaFX thread
+     * Call the method setState of the graphicalPlayer on the JavaFX thread, along with the other updates scheduled
+     * meanwhile, a state being skipped if a newer one is received before it is displayed, see
+     * {@link FxUpdateScheduler}.
      *
      * @param newState new state of the game
      * @param ownState current state of the player
      */
     @Override
     public void updateState(PublicGameState newState, PlayerState ownState) {
-        runLater(() -> graphicalPlayer.setState(newState, ownState));
+        updates.scheduleState(newState, ownState);
     }
 
     /**
@@ -7,15 +7,37 @@ import ch.epfl.tchu.game.Route;
 import javafx.beans.property.ObjectProperty;
 import javafx.scene.Group;
 import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
 import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
+import javafx.scene.shape.StrokeLineCap;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**<h1>MapViewCreator</h1>
  * None instantiable class that handle the creation of the map.
+ * <p>
+ * The tracks are either built as nodes, styled by the style sheets, or drawn once on a canvas whose image is cached
+ * and shared by all the maps, in which case each cell of a route only keeps one track node for the clicks, hidden unless
+ * the route is hovered so that the hover scales the tracks as in the first mode, its car being built when the route is
+ * claimed. The second mode, which builds far less nodes, is chosen with the system property
+ * {@value #CACHED_TRACKS_PROPERTY}. In both modes, the
+ * positions of the cells and the fills and strokes of the tracks come from the style sheets, which the second mode reads
+ * to draw the image.
  * 
  * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
  */
@@ -27,9 +49,21 @@ final class MapViewCreator {
     private static final String STYLE_MAP = "map.css";
     private static final String STYLE_ROUTE = "route";
     private static final String STYLE_CAR = "car";
+    private static final String STYLE_HIT = "hit";
+    private static final String CACHED_TRACKS_PROPERTY = "tchu.cachedTracks";
+
+    private static final double CELL_WIDTH = 36;
+    private static final double CELL_HEIGHT = 12;
+    private static final double TRACKS_MARGIN = CELL_WIDTH + CELL_HEIGHT;
+    private static final Pattern STYLE_RULE = Pattern.compile("([^{}]+)\\{([^}]*)}");
+    private static final Pattern STYLE_COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+
+    // drawn once, on the JavaFX thread, and shared by all the maps
+    private static WritableImage tracksImage;
 
     /**
-     * Static method that will create a node containing all the different component of the tchu's map.
+     * Static method that will create a node containing all the different component of the tchu's map, its tracks being
+     * cached if the system property {@value #CACHED_TRACKS_PROPERTY} is true.
      *
      * @param gameState   an instance of ObservableGameState that gives to this method the properties of some components
      * @param claimRouteH property of the {@link ch.epfl.tchu.gui.ActionHandler.ClaimRouteHandler} that handle route claiming
@@ -38,41 +72,64 @@ final class MapViewCreator {
      */
     public static Node createMapView(ObservableGameState gameState, ObjectProperty<ActionHandler.ClaimRouteHandler> claimRouteH,
                                      CardChooser cardChooser) {
+        return createMapView(gameState, claimRouteH, cardChooser, Boolean.getBoolean(CACHED_TRACKS_PROPERTY));
+    }
+
+    /**
+     * Static method that will create a node containing all the different component of the tchu's map.
+     *
+     * @param gameState    an instance of ObservableGameState that gives to this method the properties of some components
+     * @param claimRouteH  property of the {@link ch.epfl.tchu.gui.ActionHandler.ClaimRouteHandler} that handle route claiming
+     * @param cardChooser  an instance of the functional interface that handle the choosing part of the route claiming
+     * @param cachedTracks true to draw the tracks on the cached image rather than building them as nodes
+     * @return (Node) the Node of the main part of the Tchu's GUI that represent the map, routes and stations
+     */
+    public static Node createMapView(ObservableGameState gameState, ObjectProperty<ActionHandler.ClaimRouteHandler> claimRouteH,
+                                     CardChooser cardChooser, boolean cachedTracks) {
         Pane view = new Pane();
         view.getStylesheets().addAll(STYLE_MAP, STYLE_COLORS);
 
         ImageView imageView = new ImageView();
         view.getChildren().add(imageView);
+        if (cachedTracks) {
+            // a canvas rather than an image view, whose image would be replaced by the one of the map's style sheet
+            WritableImage tracks = tracksImage();
+            Canvas tracksCanvas = new Canvas(tracks.getWidth(), tracks.getHeight());
+            tracksCanvas.getGraphicsContext2D().drawImage(tracks, 0, 0);
+            view.getChildren().add(tracksCanvas);
+        }
 
         for (Route route : ChMap.routes()) {
             Group routeGroup = new Group();
             routeGroup.setId(route.id());
-            routeGroup.getStyleClass().addAll(STYLE_ROUTE, route.level().name(), (route.color() == null) ? "NEUTRAL" : route.color().name());
+            routeGroup.getStyleClass().addAll(STYLE_ROUTE, route.level().name(), colorName(route));
 
             //define all case of the route
             for (int i = 1; i <= route.length(); i++) {
                 Group routeCas = new Group();
                 routeCas.setId(routeGroup.getId() + "_" + i);
 
-                Group carGroup = new Group();
-                carGroup.getStyleClass().add(STYLE_CAR);
-
-                Rectangle carRectangle = new Rectangle(36, 12);
-                carRectangle.getStyleClass().add("filled");
-                Circle carCircle1 = new Circle(12, 6, 3);
-                Circle carCircle2 = new Circle(24, 6, 3);
-
-                Rectangle trackRectangle = new Rectangle(36, 12);
-                trackRectangle.getStyleClass().addAll("track", "filled");
-
-                carGroup.getChildren().addAll(carRectangle, carCircle1, carCircle2);
-                routeCas.getChildren().addAll(trackRectangle, carGroup);
+                if (cachedTracks) {
+                    // styled as the track, so that it is scaled the same way when it is shown on hover
+                    Rectangle hitRectangle = new Rectangle(CELL_WIDTH, CELL_HEIGHT);
+                    hitRectangle.getStyleClass().addAll("track", "filled", STYLE_HIT);
+                    routeCas.getChildren().add(hitRectangle);
+                } else {
+                    Rectangle trackRectangle = new Rectangle(CELL_WIDTH, CELL_HEIGHT);
+                    trackRectangle.getStyleClass().addAll("track", "filled");
+                    routeCas.getChildren().addAll(trackRectangle, createCar());
+                }
                 routeGroup.getChildren().add(routeCas);
             }
 
             //set properties
             gameState.routeOwnerProperty(route).addListener((obj, oV, nV) -> {
-                if (nV != null) routeGroup.getStyleClass().add(nV.name());
+                if (nV == null) return;
+                routeGroup.getStyleClass().add(nV.name());
+                if (cachedTracks) {
+                    for (Node routeCas : routeGroup.getChildren())
+                        ((Group) routeCas).getChildren().add(createCar());
+                }
             });
             routeGroup.disableProperty().bind(claimRouteH.isNull().or(gameState.claimableRouteProperty(route).not()));
             routeGroup.setOnMouseClicked(o -> {
@@ -90,6 +147,130 @@ final class MapViewCreator {
         return view;
     }
 
+    private static Group createCar() {
+        Group carGroup = new Group();
+        carGroup.getStyleClass().add(STYLE_CAR);
+
+        Rectangle carRectangle = new Rectangle(CELL_WIDTH, CELL_HEIGHT);
+        carRectangle.getStyleClass().add("filled");
+        Circle carCircle1 = new Circle(12, 6, 3);
+        Circle carCircle2 = new Circle(24, 6, 3);
+
+        carGroup.getChildren().addAll(carRectangle, carCircle1, carCircle2);
+        return carGroup;
+    }
+
+    /**
+     * Getter for the image of the tracks, drawn the first time it is needed as the style sheets would draw them, the
+     * positions of the cells and the fills and strokes of the tracks being read from the rules of these style sheets
+     * (#id, .COLOR .filled, .track, .BLACK .track and .UNDERGROUND .track).
+     *
+     * @return (WritableImage) the image of the tracks, with a transparent background
+     * @throws IllegalStateException if one of these rules doesn't declare what is needed to draw the tracks
+     */
+    private static WritableImage tracksImage() {
+        if (tracksImage != null)
+            return tracksImage;
+
+        Map<String, Map<String, String>> rules = styleRules(STYLE_MAP);
+        rules.putAll(styleRules(STYLE_COLORS));
+
+        double width = 0, height = 0;
+        for (Route route : ChMap.routes()) {
+            for (int i = 1; i <= route.length(); i++) {
+                String cell = "#" + route.id() + "_" + i;
+                width = Math.max(width, number(rules, cell, "-fx-translate-x") + TRACKS_MARGIN);
+                height = Math.max(height, number(rules, cell, "-fx-translate-y") + TRACKS_MARGIN);
+            }
+        }
+
+        Color trackStroke = Color.web(declaration(rules, ".track", "-fx-stroke"));
+        Color blackTrackStroke = Color.web(declaration(rules, ".BLACK .track", "-fx-stroke"));
+        double strokeWidth = number(rules, ".track", "-fx-stroke-width");
+        String[] dashArray = declaration(rules, ".UNDERGROUND .track", "-fx-stroke-dash-array").split("[\\s,]+");
+        double[] undergroundDashes = new double[dashArray.length];
+        for (int i = 0; i < dashArray.length; i++)
+            undergroundDashes[i] = Double.parseDouble(dashArray[i]);
+        double undergroundDashOffset = number(rules, ".UNDERGROUND .track", "-fx-stroke-dash-offset");
+
+        Canvas canvas = new Canvas(width, height);
+        GraphicsContext context = canvas.getGraphicsContext2D();
+        context.setLineWidth(strokeWidth);
+        context.setLineCap(StrokeLineCap.BUTT);
+        for (Route route : ChMap.routes()) {
+            context.setFill(Color.web(declaration(rules, "." + colorName(route) + " .filled", "-fx-fill")));
+            context.setStroke(route.color() == ch.epfl.tchu.game.Color.BLACK ? blackTrackStroke : trackStroke);
+            boolean underground = route.level() == Route.Level.UNDERGROUND;
+            context.setLineDashes(underground ? undergroundDashes : null);
+            context.setLineDashOffset(underground ? undergroundDashOffset : 0);
+
+            for (int i = 1; i <= route.length(); i++) {
+                String cell = "#" + route.id() + "_" + i;
+                context.save();
+                // as the nodes, translated then rotated around their center
+                context.translate(number(rules, cell, "-fx-translate-x") + CELL_WIDTH / 2,
+                        number(rules, cell, "-fx-translate-y") + CELL_HEIGHT / 2);
+                context.rotate(number(rules, cell, "-fx-rotate"));
+                context.translate(-CELL_WIDTH / 2, -CELL_HEIGHT / 2);
+                context.fillRect(0, 0, CELL_WIDTH, CELL_HEIGHT);
+                // the stroke of the nodes is outside of the rectangle
+                context.strokeRect(-strokeWidth / 2, -strokeWidth / 2, CELL_WIDTH + strokeWidth, CELL_HEIGHT + strokeWidth);
+                context.restore();
+            }
+        }
+
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        tracksImage = canvas.snapshot(parameters, null);
+        return tracksImage;
+    }
+
+    /**
+     * Reads the rules of a style sheet, the declarations of each selector being indexed by their property, with their
+     * quotes removed.
+     */
+    private static Map<String, Map<String, String>> styleRules(String name) {
+        Map<String, Map<String, String>> rules = new HashMap<>();
+        Matcher rule = STYLE_RULE.matcher(STYLE_COMMENT.matcher(readResource(name)).replaceAll(""));
+        while (rule.find()) {
+            Map<String, String> declarations = rules.computeIfAbsent(rule.group(1).trim().replaceAll("\\s+", " "),
+                    selector -> new HashMap<>());
+            for (String declaration : rule.group(2).split(";")) {
+                int colon = declaration.indexOf(':');
+                if (colon >= 0)
+                    declarations.put(declaration.substring(0, colon).trim(),
+                            declaration.substring(colon + 1).replace("\"", "").trim());
+            }
+        }
+        return rules;
+    }
+
+    private static String declaration(Map<String, Map<String, String>> rules, String selector, String property) {
+        String value = rules.getOrDefault(selector, Map.of()).get(property);
+        if (value == null)
+            throw new IllegalStateException("Cached tracks : no " + property + " declared for " + selector + " in "
+                    + STYLE_MAP + " or " + STYLE_COLORS);
+        return value;
+    }
+
+    private static double number(Map<String, Map<String, String>> rules, String selector, String property) {
+        return Double.parseDouble(declaration(rules, selector, property));
+    }
+
+    private static String colorName(Route route) {
+        return (route.color() == null) ? "NEUTRAL" : route.color().name();
+    }
+
+    private static String readResource(String name) {
+        try (InputStream stream = MapViewCreator.class.getClassLoader().getResourceAsStream(name)) {
+            if (stream == null)
+                throw new IllegalStateException("Missing resource " + name);
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Functional interface that implement the notion of Card chooser.
      */
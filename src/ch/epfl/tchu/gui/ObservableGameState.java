@@ -89,58 +89,73 @@ public final class ObservableGameState {
     }
 
     /**
-     * Method that will update all properties that have changed during a player turn according to the new game state
-     * and to the actual playerState.
+     * Method that will update the properties that have changed since the previous state, according to the new game
+     * state and to the actual playerState. The properties which only depend on parts of the states that didn't change
+     * aren't recomputed.
      *
-     * @param newGameState the new PublicGameState that has been updated during the game
-     * @param playerState  actual PlayerState specific to the corresponding PlayerId
+     * @param newGameState   the new PublicGameState that has been updated during the game
+     * @param newPlayerState actual PlayerState specific to the corresponding PlayerId
      */
-    public void setState(PublicGameState newGameState, PlayerState playerState) {
+    public void setState(PublicGameState newGameState, PlayerState newPlayerState) {
+        final PublicGameState previousGameState = this.publicGameState;
+        final PlayerState previousPlayerState = this.playerState;
         this.publicGameState = newGameState;
-        this.playerState = playerState;
+        this.playerState = newPlayerState;
 
-        ticketsInDeckPercent.setValue(ticketsPercent(publicGameState.ticketsCount()));
-        cardsInDeckPercent.setValue(cardsPercent(publicGameState.cardState().deckSize()));
+        ticketsInDeckPercent.set(ticketsPercent(newGameState.ticketsCount()));
+        cardsInDeckPercent.set(cardsPercent(newGameState.cardState().deckSize()));
 
-        for (int slot : Constants.FACE_UP_CARD_SLOTS) {
-            Card newCard = publicGameState.cardState().faceUpCard(slot);
-            faceUpCards.get(slot).setValue(newCard);
+        if (previousGameState == null || !previousGameState.cardState().faceUpCards().equals(newGameState.cardState().faceUpCards())) {
+            for (int slot : Constants.FACE_UP_CARD_SLOTS)
+                faceUpCards.get(slot).set(newGameState.cardState().faceUpCard(slot));
         }
 
-        for (Route claimedRoute : newGameState.claimedRoutes()) {
-            for (PlayerId pId : PlayerId.ALL) {
-                if (newGameState.playerState(pId).routes().contains(claimedRoute))
-                    routeOwner.get(claimedRoute).setValue(pId);
+        boolean claimedRoutesChanged = previousGameState == null;
+        for (PlayerId player : PlayerId.ALL) {
+            final PublicPlayerState newState = newGameState.playerState(player);
+            final PublicPlayerState previousState = previousGameState == null ? null : previousGameState.playerState(player);
+
+            if (previousState == null || !previousState.routes().equals(newState.routes())) {
+                claimedRoutesChanged = true;
+                for (Route route : newRoutes(previousState == null ? List.of() : previousState.routes(), newState.routes()))
+                    routeOwner.get(route).set(player);
             }
-        }
 
-        for (PlayerId player : PlayerId.ALL) {
-            ticketsCount.get(player).setValue(newGameState.playerState(player).ticketCount());
-            cardsCount.get(player).setValue(newGameState.playerState(player).cardCount());
-            carsCount.get(player).setValue(newGameState.playerState(player).carCount());
-            pointsCount.get(player).setValue(newGameState.playerState(player).claimPoints());
+            ticketsCount.get(player).set(newState.ticketCount());
+            cardsCount.get(player).set(newState.cardCount());
+            carsCount.get(player).set(newState.carCount());
+            pointsCount.get(player).set(newState.claimPoints());
         }
 
-        tickets.setAll(playerState.tickets().toList());
-
-        for (Card card : Card.ALL)
-            cards.get(card).setValue(playerState.cards().countOf(card));
+        if (previousPlayerState == null || !previousPlayerState.tickets().equals(newPlayerState.tickets()))
+            tickets.setAll(newPlayerState.tickets().toList());
 
-        for (Route route : ChMap.routes()) {
-            Route nextRoute = getDoubleRoute(route);
+        final boolean cardsChanged = previousPlayerState == null || !previousPlayerState.cards().equals(newPlayerState.cards());
+        if (cardsChanged) {
+            for (Card card : Card.ALL)
+                cards.get(card).set(newPlayerState.cards().countOf(card));
+        }
 
-            if (!possibleClaimCards(route).isEmpty() && !newGameState.claimedRoutes().contains(route))
-                claimableRoutes.get(route).setValue(nextRoute == null || !newGameState.claimedRoutes().contains(nextRoute));
-            else claimableRoutes.get(route).setValue(false);
+        if (cardsChanged || claimedRoutesChanged || previousPlayerState.carCount() != newPlayerState.carCount()) {
+            final Set<Route> claimedRoutes = new HashSet<>(newGameState.claimedRoutes());
+            for (Route route : ChMap.routes()) {
+                final Route doubleRoute = ChMap.doubleRoute(route);
+                claimableRoutes.get(route).set(!claimedRoutes.contains(route)
+                        && (doubleRoute == null || !claimedRoutes.contains(doubleRoute))
+                        && newPlayerState.canClaimRoute(route));
+            }
         }
     }
 
-    private Route getDoubleRoute(Route route) {
-        for (Route r : ChMap.routes()) {
-            if (route.station1().id() == r.station1().id() && route.station2().id() == r.station2().id() && !r.id().equals(route.id()))
-                return r;
-        }
-        return null;
+    /**
+     * Computes the routes of a player which weren't in its previous routes, the routes being added at the end of the
+     * list when claimed.
+     */
+    private static List<Route> newRoutes(List<Route> previousRoutes, List<Route> routes) {
+        int shared = 0;
+        while (shared < previousRoutes.size() && shared < routes.size() && previousRoutes.get(shared) == routes.get(shared))
+            shared++;
+        return routes.subList(shared, routes.size());
     }
 
     /**
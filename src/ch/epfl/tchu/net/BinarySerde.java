@@ -0,0 +1,151 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * <h1>BinarySerde</h1>
+ * Binary counterpart of {@link Serde}, writing the components of the game into a {@link ByteBuffer} and reading them
+ * back, for the binary mode of the protocol.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public interface BinarySerde<T> {
+
+    /**
+     * Serialize an object at the position of the buffer, advancing it.
+     *
+     * @param obj    the object of type T that will be serialized
+     * @param buffer the buffer in which the object is written
+     */
+    void serialize(T obj, ByteBuffer buffer);
+
+    /**
+     * Deserialize an object from the position of the buffer, advancing it. Do the inverse of the serialize method.
+     *
+     * @param buffer the buffer from which the object is read
+     * @return an object of type T according to its serialized representation
+     */
+    T deserialize(ByteBuffer buffer);
+
+    /**
+     * Static method that build a BinarySerde from its serialization and deserialization functions.
+     *
+     * @param serializableFunc   the function that will serialize the object
+     * @param deserializableFunc the function that will deserialize the object
+     * @param <T>                the type of the object that will be (de)serialized
+     * @return a BinarySerde which is able to (de)serialize basic object according to the functions
+     */
+    static <T> BinarySerde<T> of(BiConsumer<T, ByteBuffer> serializableFunc, Function<ByteBuffer, T> deserializableFunc) {
+        return new BinarySerde<>() {
+            @Override
+            public void serialize(T obj, ByteBuffer buffer) {
+                serializableFunc.accept(obj, buffer);
+            }
+
+            @Override
+            public T deserialize(ByteBuffer buffer) {
+                return deserializableFunc.apply(buffer);
+            }
+        };
+    }
+
+    /**
+     * Static method that build a BinarySerde able to (de)serialize one object in the list of parameter < T >, as the
+     * byte of its index in it.
+     *
+     * @param list list of the objects that will potentially be (de)serialize, of at most 256 elements
+     * @param <T>  the type of the elements that compose the list
+     * @return a BinarySerde able to (de)serialize object from the list according to its index in it
+     * @throws IllegalArgumentException if the list has more than 256 elements, or when serializing an object which
+     *                                  isn't in the list
+     */
+    static <T> BinarySerde<T> oneOf(List<T> list) {
+        Preconditions.checkArgument(list.size() <= 1 << Byte.SIZE);
+
+        final ToIntFunction<T> index = ListIndex.of(list);
+        return BinarySerde.of((obj, buffer) -> {
+                    final int i = index.applyAsInt(obj);
+                    Preconditions.checkArgument(i >= 0);
+                    buffer.put((byte) i);
+                },
+                buffer -> list.get(Byte.toUnsignedInt(buffer.get())));
+    }
+
+    /**
+     * Static method that build a BinarySerde able to (de)serialize a whole list of parameter < T >, as its size
+     * followed by its elements.
+     *
+     * @param serde BinarySerde that can (de)serialize object of type T
+     * @param <T>   the type of the elements that can be (de)serialize by the BinarySerde
+     * @return a BinarySerde able to (de)serialize a whole list of objects at once
+     */
+    static <T> BinarySerde<List<T>> listOf(BinarySerde<T> serde) {
+        return BinarySerde.of((obj, buffer) -> {
+            writeVarint(obj.size(), buffer);
+            obj.forEach(i -> serde.serialize(i, buffer));
+        }, buffer -> {
+            final int size = readVarint(buffer);
+            Preconditions.checkArgument(size <= buffer.remaining());
+
+            final List<T> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++)
+                list.add(serde.deserialize(buffer));
+            return list;
+        });
+    }
+
+    /**
+     * Static method that build a BinarySerde able to (de)serialize a whole SortedBag of parameter < T >, as the list of
+     * its elements.
+     *
+     * @param serde BinarySerde that can (de)serialize object of type T
+     * @param <T>   the type of the elements that can be (de)serialize by the BinarySerde
+     * @return a BinarySerde able to (de)serialize a whole SortedBag of objects at once
+     */
+    static <T extends Comparable<T>> BinarySerde<SortedBag<T>> bagOf(BinarySerde<T> serde) {
+        final BinarySerde<List<T>> serdeList = BinarySerde.listOf(serde);
+        return BinarySerde.of((obj, buffer) -> serdeList.serialize(obj.toList(), buffer),
+                buffer -> SortedBag.of(serdeList.deserialize(buffer)));
+    }
+
+    /**
+     * Writes a positive integer as an unsigned varint : 7 bits per byte, the least significant first, the high bit of
+     * each byte telling whether another one follows.
+     *
+     * @param value  the integer to write
+     * @param buffer the buffer in which it is written
+     */
+    static void writeVarint(int value, ByteBuffer buffer) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned varint written by {@link #writeVarint(int, ByteBuffer)}.
+     *
+     * @param buffer the buffer from which it is read
+     * @return the integer
+     * @throws IllegalArgumentException if the varint is longer than an int
+     */
+    static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            Preconditions.checkArgument(shift < Integer.SIZE);
+            final byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>BinarySerdes</h1>
+ * Defines every constant related to the binary serialization and deserialization of the elements of the game, the
+ * counterparts of the ones of {@link Serdes}. Enums, routes and tickets are written as the byte of their index, as in
+ * {@link Serdes}, and numbers as varints.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class BinarySerdes {
+    private final static byte NO_PLAYER = -1;
+
+    private BinarySerdes() {
+    }
+
+    //Single Objects
+    /**
+     * A BinarySerde able to (de)serialize an Integer, as the zigzag varint of it so that small negative integers are
+     * short too.
+     */
+    public static final BinarySerde<Integer> INT = BinarySerde.of(
+            (i, buffer) -> BinarySerde.writeVarint((i << 1) ^ (i >> 31), buffer),
+            buffer -> {
+                final int zigzag = BinarySerde.readVarint(buffer);
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            });
+    /**
+     * A BinarySerde able to (de)serialize a String, as the length of its UTF-8 encoding followed by it.
+     */
+    public static final BinarySerde<String> STRING = BinarySerde.of((s, buffer) -> {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        BinarySerde.writeVarint(bytes.length, buffer);
+        buffer.put(bytes);
+    }, buffer -> {
+        final int length = BinarySerde.readVarint(buffer);
+        Preconditions.checkArgument(length <= buffer.remaining());
+
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    });
+    /**
+     * A BinarySerde able to (de)serialize one element of the PlayerId enum.
+     */
+    public static final BinarySerde<PlayerId> PLAYER_ID = BinarySerde.oneOf(PlayerId.ALL);
+    /**
+     * A BinarySerde able to (de)serialize one element of the TurnKind enum.
+     */
+    public static final BinarySerde<Player.TurnKind> TURN_KIND = BinarySerde.oneOf(Player.TurnKind.ALL);
+    /**
+     * A BinarySerde able to (de)serialize one element of the Card enum.
+     */
+    public static final BinarySerde<Card> CARD = BinarySerde.oneOf(Card.ALL);
+    /**
+     * A BinarySerde able to (de)serialize one element of the Routes that compose the Game.
+     */
+    public static final BinarySerde<Route> ROUTE = BinarySerde.oneOf(ChMap.routes());
+    /**
+     * A BinarySerde able to (de)serialize one element of the Tickets that compose the Game.
+     */
+    public static final BinarySerde<Ticket> TICKET = BinarySerde.oneOf(ChMap.tickets());
+
+    //Collections
+    /**
+     * A BinarySerde able to (de)serialize a whole list of Strings.
+     */
+    public static final BinarySerde<List<String>> L_STRING = BinarySerde.listOf(STRING);
+    /**
+     * A BinarySerde able to (de)serialize a whole list of Cards.
+     */
+    public static final BinarySerde<List<Card>> L_CARD = BinarySerde.listOf(CARD);
+    /**
+     * A BinarySerde able to (de)serialize a whole list of Routes.
+     */
+    public static final BinarySerde<List<Route>> L_ROUTE = BinarySerde.listOf(ROUTE);
+    /**
+     * A BinarySerde able to (de)serialize a whole SortedBag of Cards, as the bit set of the kinds of cards it contains
+     * (on two bytes) followed by the number of cards of each of these kinds.
+     */
+    public static final BinarySerde<SortedBag<Card>> SB_CARD = BinarySerde.of((cards, buffer) -> {
+        int kinds = 0;
+        for (Card card : cards.toSet())
+            kinds |= 1 << card.ordinal();
+        buffer.putShort((short) kinds);
+
+        for (Card card : Card.ALL) {
+            if (cards.contains(card))
+                BinarySerde.writeVarint(cards.countOf(card), buffer);
+        }
+    }, buffer -> {
+        final int kinds = Short.toUnsignedInt(buffer.getShort());
+        final SortedBag.Builder<Card> cards = new SortedBag.Builder<>();
+        for (Card card : Card.ALL) {
+            if ((kinds & 1 << card.ordinal()) != 0)
+                cards.add(BinarySerde.readVarint(buffer), card);
+        }
+        return cards.build();
+    });
+    /**
+     * A BinarySerde able to (de)serialize a whole SortedBag of Tickets.
+     */
+    public static final BinarySerde<SortedBag<Ticket>> SB_TICKET = BinarySerde.bagOf(TICKET);
+    /**
+     * A BinarySerde able to (de)serialize a whole list of SortedBag of Cards.
+     */
+    public static final BinarySerde<List<SortedBag<Card>>> L_SB_CARD = BinarySerde.listOf(SB_CARD);
+
+    //Serializable Classes
+    /**
+     * A BinarySerde able to (de)serialize a Public Card State.
+     */
+    public static final BinarySerde<PublicCardState> SC_PUBLIC_CARD_STATE = BinarySerde.of((cardState, buffer) -> {
+        cardState.faceUpCards().forEach(card -> CARD.serialize(card, buffer));
+        BinarySerde.writeVarint(cardState.deckSize(), buffer);
+        BinarySerde.writeVarint(cardState.discardsSize(), buffer);
+    }, buffer -> {
+        final List<Card> faceUpCards = new ArrayList<>(Constants.FACE_UP_CARDS_COUNT);
+        for (int i = 0; i < Constants.FACE_UP_CARDS_COUNT; i++)
+            faceUpCards.add(CARD.deserialize(buffer));
+        final int deckSize = BinarySerde.readVarint(buffer);
+        return new PublicCardState(faceUpCards, deckSize, BinarySerde.readVarint(buffer));
+    });
+    /**
+     * A BinarySerde able to (de)serialize a Public Player State.
+     */
+    public static final BinarySerde<PublicPlayerState> SC_PUBLIC_PLAYER_STATE = BinarySerde.of((playerState, buffer) -> {
+        BinarySerde.writeVarint(playerState.ticketCount(), buffer);
+        BinarySerde.writeVarint(playerState.cardCount(), buffer);
+        L_ROUTE.serialize(playerState.routes(), buffer);
+    }, buffer -> {
+        final int ticketCount = BinarySerde.readVarint(buffer);
+        final int cardCount = BinarySerde.readVarint(buffer);
+        return new PublicPlayerState(ticketCount, cardCount, L_ROUTE.deserialize(buffer));
+    });
+    /**
+     * A BinarySerde able to (de)serialize a Player State.
+     */
+    public static final BinarySerde<PlayerState> SC_PLAYER_STATE = BinarySerde.of((playerState, buffer) -> {
+        SB_TICKET.serialize(playerState.tickets(), buffer);
+        SB_CARD.serialize(playerState.cards(), buffer);
+        L_ROUTE.serialize(playerState.routes(), buffer);
+    }, buffer -> {
+        final SortedBag<Ticket> tickets = SB_TICKET.deserialize(buffer);
+        final SortedBag<Card> cards = SB_CARD.deserialize(buffer);
+        return new PlayerState(tickets, cards, L_ROUTE.deserialize(buffer));
+    });
+    /**
+     * A BinarySerde able to (de)serialize a Public Game State.
+     */
+    public static final BinarySerde<PublicGameState> SC_PUBLIC_GAME_STATE = BinarySerde.of((gameState, buffer) -> {
+        BinarySerde.writeVarint(gameState.ticketsCount(), buffer);
+        SC_PUBLIC_CARD_STATE.serialize(gameState.cardState(), buffer);
+        PLAYER_ID.serialize(gameState.currentPlayerId(), buffer);
+        SC_PUBLIC_PLAYER_STATE.serialize(gameState.playerState(PlayerId.PLAYER_1), buffer);
+        SC_PUBLIC_PLAYER_STATE.serialize(gameState.playerState(PlayerId.PLAYER_2), buffer);
+        buffer.put(gameState.lastPlayer() == null ? NO_PLAYER : (byte) gameState.lastPlayer().ordinal());
+    }, buffer -> {
+        final int ticketsCount = BinarySerde.readVarint(buffer);
+        final PublicCardState cardState = SC_PUBLIC_CARD_STATE.deserialize(buffer);
+        final PlayerId currentPlayerId = PLAYER_ID.deserialize(buffer);
+        final PublicPlayerState playerState1 = SC_PUBLIC_PLAYER_STATE.deserialize(buffer);
+        final PublicPlayerState playerState2 = SC_PUBLIC_PLAYER_STATE.deserialize(buffer);
+        final byte lastPlayer = buffer.get();
+
+        return new PublicGameState(ticketsCount, cardState, currentPlayerId,
+                Map.of(PlayerId.PLAYER_1, playerState1, PlayerId.PLAYER_2, playerState2),
+                lastPlayer == NO_PLAYER ? null : PlayerId.ALL.get(lastPlayer));
+    });
+}
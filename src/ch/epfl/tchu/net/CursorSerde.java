@@ -0,0 +1,204 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * <h1>CursorSerde</h1>
+ * {@link Serde} writing its serializations at the end of a {@link StringBuilder}, which can be reused from one message
+ * to the next, and reading them directly from a region of a {@link CharSequence}, so that the serializations of
+ * collections and composite objects are neither joined nor split into intermediate strings. Its serializations are the
+ * same as the ones of the corresponding {@link Serde}s. The binary counterpart is {@link BinarySerde}, which already
+ * works on a region of a {@link java.nio.ByteBuffer}.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public interface CursorSerde<T> extends Serde<T> {
+
+    /**
+     * Function reading an object from a region of a sequence of characters.
+     *
+     * @param <T> the type of the object
+     */
+    @FunctionalInterface
+    interface Parser<T> {
+        /**
+         * Read the object whose serialization is the given region of the text.
+         *
+         * @param text  the text
+         * @param start the index of the first character of the region
+         * @param end   the index following the last character of the region
+         * @return (T) the object
+         */
+        T parse(CharSequence text, int start, int end);
+    }
+
+    /**
+     * Serialize an object at the end of the builder.
+     *
+     * @param obj     the object of type T that will be serialized
+     * @param builder the builder to which the serialization is appended
+     */
+    void serialize(T obj, StringBuilder builder);
+
+    /**
+     * Deserialize the object whose serialization is the given region of the text.
+     *
+     * @param text  the text
+     * @param start the index of the first character of the region
+     * @param end   the index following the last character of the region
+     * @return (T) the object
+     */
+    T deserialize(CharSequence text, int start, int end);
+
+    @Override
+    default String serialize(T obj) {
+        final StringBuilder builder = new StringBuilder();
+        serialize(obj, builder);
+        return builder.toString();
+    }
+
+    @Override
+    default T deserialize(String message) {
+        return deserialize(message, 0, message.length());
+    }
+
+    /**
+     * Static method that build a CursorSerde from the functions appending and reading the serialization.
+     *
+     * @param serializer the function appending the serialization of an object to a builder
+     * @param parser     the function reading an object from a region of a text
+     * @param <T>        the type of the object that will be (de)serialized
+     * @return a CursorSerde (de)serializing according to the functions
+     */
+    static <T> CursorSerde<T> of(BiConsumer<T, StringBuilder> serializer, Parser<T> parser) {
+        return new CursorSerde<>() {
+            @Override
+            public void serialize(T obj, StringBuilder builder) {
+                serializer.accept(obj, builder);
+            }
+
+            @Override
+            public T deserialize(CharSequence text, int start, int end) {
+                return parser.parse(text, start, end);
+            }
+        };
+    }
+
+    /**
+     * Static method that adapt any Serde to a CursorSerde, the serialization being appended to the builder and the
+     * region being extracted as a string to be deserialized.
+     *
+     * @param serde the Serde
+     * @param <T>   the type of the object that will be (de)serialized
+     * @return a CursorSerde with the same serialization as the Serde, which is returned if it is already one
+     */
+    static <T> CursorSerde<T> adapt(Serde<T> serde) {
+        if (serde instanceof CursorSerde)
+            return (CursorSerde<T>) serde;
+        return of((obj, builder) -> builder.append(serde.serialize(obj)),
+                (text, start, end) -> serde.deserialize(text.subSequence(start, end).toString()));
+    }
+
+    /**
+     * Static method that build a CursorSerde able to (de)serialize an int, in decimal.
+     *
+     * @return a CursorSerde of integers, parsing them without extracting their region
+     */
+    static CursorSerde<Integer> ofInt() {
+        return of((i, builder) -> builder.append((int) i), (text, start, end) -> Integer.parseInt(text, start, end, 10));
+    }
+
+    /**
+     * Static method that build a CursorSerde able to (de)serialize one object in the list of parameter < T >, as its
+     * index in it. The indices of the objects are precomputed, see {@link ListIndex}.
+     *
+     * @param list list of the objects that will potentially be (de)serialize
+     * @param <T>  the type of the elements that compose the list
+     * @return a CursorSerde able to (de)serialize object from the list according to its index in it
+     */
+    static <T> CursorSerde<T> oneOf(List<T> list) {
+        final ToIntFunction<T> index = ListIndex.of(list);
+        return of((obj, builder) -> builder.append(index.applyAsInt(obj)),
+                (text, start, end) -> list.get(Integer.parseInt(text, start, end, 10)));
+    }
+
+    /**
+     * Static method that build a CursorSerde able to (de)serialize a whole list of parameter < T >, the serializations
+     * of its elements being separated by the separator.
+     *
+     * @param serde     CursorSerde that can (de)serialize object of type T
+     * @param separator character that will separate the different elements of the list
+     * @param <T>       the type of the elements that can be (de)serialize by the CursorSerde
+     * @return a CursorSerde able to (de)serialize a whole list of objects at once
+     */
+    static <T> CursorSerde<List<T>> listOf(CursorSerde<T> serde, char separator) {
+        return of((list, builder) -> {
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0)
+                    builder.append(separator);
+                serde.serialize(list.get(i), builder);
+            }
+        }, (text, start, end) -> {
+            final List<T> list = new ArrayList<>();
+            if (start == end)
+                return list;
+
+            int elementStart = start;
+            int elementEnd;
+            do {
+                elementEnd = indexOf(text, separator, elementStart, end);
+                list.add(serde.deserialize(text, elementStart, elementEnd));
+                elementStart = elementEnd + 1;
+            } while (elementEnd < end);
+            return list;
+        });
+    }
+
+    /**
+     * Static method that build a CursorSerde able to (de)serialize a whole SortedBag of parameter < T >, as the list of
+     * its elements.
+     *
+     * @param serde     CursorSerde that can (de)serialize object of type T
+     * @param separator character that will separate the different elements of the list
+     * @param <T>       the type of the elements that can be (de)serialize by the CursorSerde
+     * @return a CursorSerde able to (de)serialize a whole SortedBag of objects at once
+     */
+    static <T extends Comparable<T>> CursorSerde<SortedBag<T>> bagOf(CursorSerde<T> serde, char separator) {
+        final CursorSerde<List<T>> listSerde = listOf(serde, separator);
+        return of((bag, builder) -> {
+                    boolean first = true;
+                    for (T element : bag) {
+                        if (!first)
+                            builder.append(separator);
+                        serde.serialize(element, builder);
+                        first = false;
+                    }
+                },
+                (text, start, end) -> SortedBag.of(listSerde.deserialize(text, start, end)));
+    }
+
+    /**
+     * Find the first occurrence of a character in a region of a text.
+     *
+     * @param text  the text
+     * @param c     the character
+     * @param start the index from which the character is looked for
+     * @param end   the index before which the character is looked for
+     * @return (int) the index of the first occurrence of the character in the region, or end if there is none
+     * @throws IllegalArgumentException if the region isn't in the text
+     */
+    static int indexOf(CharSequence text, char c, int start, int end) {
+        Preconditions.checkArgument(0 <= start && start <= end && end <= text.length());
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c)
+                return i;
+        }
+        return end;
+    }
+}
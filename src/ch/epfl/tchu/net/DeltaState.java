@@ -0,0 +1,273 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * <h1>DeltaState</h1>
+ * Last state sent by a {@link RemotePlayerProxy} to its client in the {@link ProtocolFeature#DELTA} mode, kept on both
+ * sides of the connection : the proxy writes the next states as deltas against it, and the client patches its copy
+ * with them.
+ * <p>
+ * A delta is made of the bit set of the fields that changed (on two bytes), followed by the new values of these
+ * fields in the order of the bits, then by the CRC32 of the binary serialization of the whole new state, with which
+ * the client checks that its copy matches the one of the proxy. If it doesn't, the client asks for a resync in its
+ * next response, see {@link #RESYNC_REQUESTED}. Route lists are written as the number of routes they share at their
+ * beginning with the previous ones, followed by their other routes.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+final class DeltaState {
+    /**
+     * First byte of the responses of a client in the delta mode, when its state matches the one of the proxy.
+     */
+    static final byte SYNCHRONIZED = 0;
+    /**
+     * First byte of the responses of a client in the delta mode, when its state doesn't match the one of the proxy
+     * anymore, asking for the next state to be sent as a whole.
+     */
+    static final byte RESYNC_REQUESTED = 1;
+
+    private final static int TICKETS_COUNT = 0;
+    private final static int FACE_UP_CARDS = 1;
+    private final static int DECK_SIZE = 2;
+    private final static int DISCARDS_SIZE = 3;
+    private final static int CURRENT_PLAYER = 4;
+    private final static int LAST_PLAYER = 5;
+    private final static int OWN_TICKETS = 6;
+    private final static int OWN_CARDS = 7;
+    private final static int OWN_ROUTES = 8;
+    // fields of each player, the ones of a player being at these bits plus twice its ordinal
+    private final static int PLAYER_COUNTS = 9;
+    private final static int PLAYER_ROUTES = 10;
+    private final static byte NO_PLAYER = -1;
+
+    private final ByteBuffer scratch = ByteBuffer.allocate(1 << 12);
+    private final CRC32 checksum = new CRC32();
+    private PublicGameState gameState;
+    private PlayerState ownState;
+
+    /**
+     * Getter for the presence of a state, without which no delta can be written nor applied.
+     *
+     * @return (boolean) true if a state has been set and not cleared since
+     */
+    boolean hasState() {
+        return gameState != null;
+    }
+
+    /**
+     * Getter for the public part of the state.
+     *
+     * @return (PublicGameState) the last public state of the game, null if there isn't any
+     */
+    PublicGameState gameState() {
+        return gameState;
+    }
+
+    /**
+     * Getter for the state of the player.
+     *
+     * @return (PlayerState) the last state of the player, null if there isn't any
+     */
+    PlayerState ownState() {
+        return ownState;
+    }
+
+    /**
+     * Set the state, after it has been sent or received as a whole.
+     *
+     * @param gameState the public state of the game
+     * @param ownState  the state of the player
+     */
+    void set(PublicGameState gameState, PlayerState ownState) {
+        this.gameState = Objects.requireNonNull(gameState);
+        this.ownState = Objects.requireNonNull(ownState);
+    }
+
+    /**
+     * Clear the state, so that the next one is sent as a whole.
+     */
+    void clear() {
+        gameState = null;
+        ownState = null;
+    }
+
+    /**
+     * Write the delta between the state and the given one, which becomes the state.
+     *
+     * @param newState    the new public state of the game
+     * @param newOwnState the new state of the player
+     * @param buffer      the buffer in which the delta is written
+     * @throws IllegalArgumentException if there is no state
+     */
+    void writeDelta(PublicGameState newState, PlayerState newOwnState, ByteBuffer buffer) {
+        Preconditions.checkArgument(hasState());
+
+        final int fieldsPosition = buffer.position();
+        buffer.putShort((short) 0);
+        int fields = 0;
+
+        final PublicCardState cardState = gameState.cardState();
+        final PublicCardState newCardState = newState.cardState();
+        if (gameState.ticketsCount() != newState.ticketsCount()) {
+            fields |= 1 << TICKETS_COUNT;
+            BinarySerde.writeVarint(newState.ticketsCount(), buffer);
+        }
+        if (!cardState.faceUpCards().equals(newCardState.faceUpCards())) {
+            fields |= 1 << FACE_UP_CARDS;
+            newCardState.faceUpCards().forEach(card -> BinarySerdes.CARD.serialize(card, buffer));
+        }
+        if (cardState.deckSize() != newCardState.deckSize()) {
+            fields |= 1 << DECK_SIZE;
+            BinarySerde.writeVarint(newCardState.deckSize(), buffer);
+        }
+        if (cardState.discardsSize() != newCardState.discardsSize()) {
+            fields |= 1 << DISCARDS_SIZE;
+            BinarySerde.writeVarint(newCardState.discardsSize(), buffer);
+        }
+        if (gameState.currentPlayerId() != newState.currentPlayerId()) {
+            fields |= 1 << CURRENT_PLAYER;
+            BinarySerdes.PLAYER_ID.serialize(newState.currentPlayerId(), buffer);
+        }
+        if (gameState.lastPlayer() != newState.lastPlayer()) {
+            fields |= 1 << LAST_PLAYER;
+            buffer.put(newState.lastPlayer() == null ? NO_PLAYER : (byte) newState.lastPlayer().ordinal());
+        }
+        if (!ownState.tickets().equals(newOwnState.tickets())) {
+            fields |= 1 << OWN_TICKETS;
+            BinarySerdes.SB_TICKET.serialize(newOwnState.tickets(), buffer);
+        }
+        if (!ownState.cards().equals(newOwnState.cards())) {
+            fields |= 1 << OWN_CARDS;
+            BinarySerdes.SB_CARD.serialize(newOwnState.cards(), buffer);
+        }
+        if (!ownState.routes().equals(newOwnState.routes())) {
+            fields |= 1 << OWN_ROUTES;
+            writeRoutes(ownState.routes(), newOwnState.routes(), buffer);
+        }
+        for (PlayerId playerId : PlayerId.ALL) {
+            final PublicPlayerState playerState = gameState.playerState(playerId);
+            final PublicPlayerState newPlayerState = newState.playerState(playerId);
+            if (playerState.ticketCount() != newPlayerState.ticketCount() || playerState.cardCount() != newPlayerState.cardCount()) {
+                fields |= 1 << PLAYER_COUNTS + 2 * playerId.ordinal();
+                BinarySerde.writeVarint(newPlayerState.ticketCount(), buffer);
+                BinarySerde.writeVarint(newPlayerState.cardCount(), buffer);
+            }
+            if (!playerState.routes().equals(newPlayerState.routes())) {
+                fields |= 1 << PLAYER_ROUTES + 2 * playerId.ordinal();
+                writeRoutes(playerState.routes(), newPlayerState.routes(), buffer);
+            }
+        }
+
+        buffer.putShort(fieldsPosition, (short) fields);
+        set(newState, newOwnState);
+        buffer.putInt(checksum());
+    }
+
+    /**
+     * Patch the state with the given delta.
+     *
+     * @param buffer the buffer from which the delta is read
+     * @return (boolean) true if the patched state matches the one of the proxy, false if it doesn't or if there was
+     * no state to patch, in which case the state is cleared and has to be received as a whole
+     */
+    boolean applyDelta(ByteBuffer buffer) {
+        if (!hasState())
+            return false;
+
+        final int fields = Short.toUnsignedInt(buffer.getShort());
+        final PublicCardState cardState = gameState.cardState();
+
+        final int ticketsCount = isSet(fields, TICKETS_COUNT) ? BinarySerde.readVarint(buffer) : gameState.ticketsCount();
+        List<Card> faceUpCards = cardState.faceUpCards();
+        if (isSet(fields, FACE_UP_CARDS)) {
+            faceUpCards = new ArrayList<>(Constants.FACE_UP_CARDS_COUNT);
+            for (int i = 0; i < Constants.FACE_UP_CARDS_COUNT; i++)
+                faceUpCards.add(BinarySerdes.CARD.deserialize(buffer));
+        }
+        final int deckSize = isSet(fields, DECK_SIZE) ? BinarySerde.readVarint(buffer) : cardState.deckSize();
+        final int discardsSize = isSet(fields, DISCARDS_SIZE) ? BinarySerde.readVarint(buffer) : cardState.discardsSize();
+        final PlayerId currentPlayerId = isSet(fields, CURRENT_PLAYER)
+                ? BinarySerdes.PLAYER_ID.deserialize(buffer)
+                : gameState.currentPlayerId();
+        PlayerId lastPlayer = gameState.lastPlayer();
+        if (isSet(fields, LAST_PLAYER)) {
+            final byte player = buffer.get();
+            lastPlayer = player == NO_PLAYER ? null : PlayerId.ALL.get(player);
+        }
+        final SortedBag<Ticket> tickets = isSet(fields, OWN_TICKETS) ? BinarySerdes.SB_TICKET.deserialize(buffer) : ownState.tickets();
+        final SortedBag<Card> cards = isSet(fields, OWN_CARDS) ? BinarySerdes.SB_CARD.deserialize(buffer) : ownState.cards();
+        final List<Route> routes = isSet(fields, OWN_ROUTES) ? readRoutes(ownState.routes(), buffer) : ownState.routes();
+
+        final Map<PlayerId, PublicPlayerState> playerStates = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL) {
+            final PublicPlayerState playerState = gameState.playerState(playerId);
+            int ticketCount = playerState.ticketCount();
+            int cardCount = playerState.cardCount();
+            if (isSet(fields, PLAYER_COUNTS + 2 * playerId.ordinal())) {
+                ticketCount = BinarySerde.readVarint(buffer);
+                cardCount = BinarySerde.readVarint(buffer);
+            }
+            final List<Route> playerRoutes = isSet(fields, PLAYER_ROUTES + 2 * playerId.ordinal())
+                    ? readRoutes(playerState.routes(), buffer)
+                    : playerState.routes();
+
+            playerStates.put(playerId, (ticketCount == playerState.ticketCount() && cardCount == playerState.cardCount()
+                    && playerRoutes == playerState.routes())
+                    ? playerState
+                    : new PublicPlayerState(ticketCount, cardCount, playerRoutes));
+        }
+
+        set(new PublicGameState(ticketsCount, new PublicCardState(faceUpCards, deckSize, discardsSize),
+                        currentPlayerId, playerStates, lastPlayer),
+                new PlayerState(tickets, cards, routes));
+
+        if (buffer.getInt() != checksum()) {
+            clear();
+            return false;
+        }
+        return true;
+    }
+
+    private int checksum() {
+        scratch.clear();
+        BinarySerdes.SC_PUBLIC_GAME_STATE.serialize(gameState, scratch);
+        BinarySerdes.SC_PLAYER_STATE.serialize(ownState, scratch);
+
+        checksum.reset();
+        checksum.update(scratch.array(), 0, scratch.position());
+        return (int) checksum.getValue();
+    }
+
+    private static boolean isSet(int fields, int field) {
+        return (fields & 1 << field) != 0;
+    }
+
+    private static void writeRoutes(List<Route> routes, List<Route> newRoutes, ByteBuffer buffer) {
+        int shared = 0;
+        while (shared < routes.size() && shared < newRoutes.size() && routes.get(shared) == newRoutes.get(shared))
+            shared++;
+
+        BinarySerde.writeVarint(shared, buffer);
+        BinarySerdes.L_ROUTE.serialize(newRoutes.subList(shared, newRoutes.size()), buffer);
+    }
+
+    private static List<Route> readRoutes(List<Route> routes, ByteBuffer buffer) {
+        final int shared = BinarySerde.readVarint(buffer);
+        Preconditions.checkArgument(shared <= routes.size());
+
+        final List<Route> newRoutes = new ArrayList<>(routes.subList(0, shared));
+        newRoutes.addAll(BinarySerdes.L_ROUTE.deserialize(buffer));
+        return newRoutes;
+    }
+}
@@ -0,0 +1,194 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Ticket;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h1>GameHost</h1>
+ * Host of many games between remote players at once, with one blocking thread per game : its lobby pairs the sockets
+ * in the order they connect, and each pair plays a game on its own thread, talking to its players through
+ * {@link RemotePlayerProxy}s built on the sockets. The threads are virtual ones when the runtime has them, so that
+ * tens of thousands of games can wait on their players at once, see {@link GameThreads}. The messages sent to the players are coalesced, see
+ * {@link RemotePlayerProxy#coalesceWrites(Duration)}.
+ * <p>
+ * Usage : GameHost [port] [player 1 name] [player 2 name]
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class GameHost implements Closeable {
+    private final static int DEFAULT_PORT = 5108;
+    private final static int BACKLOG = 1 << 12;
+    private final static Duration MAX_FLUSH_DELAY = Duration.ofMillis(5);
+
+    private final ServerSocketChannel serverChannel;
+    private final ThreadFactory threads = GameThreads.factory("tchu-game");
+    private final Map<PlayerId, String> playerNames;
+    private final SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets());
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger startedGames = new AtomicInteger();
+    private final AtomicInteger finishedGames = new AtomicInteger();
+    private final AtomicInteger failedGames = new AtomicInteger();
+    private SocketChannel waitingChannel;
+
+    /**
+     * Construct a GameHost listening on the given port, which only accepts connections once started.
+     *
+     * @param port        the port, 0 to let the system choose a free one
+     * @param playerNames the names of the players of each game
+     * @throws IOException              if the port can't be listened to
+     * @throws IllegalArgumentException if there isn't a name for each player
+     */
+    public GameHost(int port, Map<PlayerId, String> playerNames) throws IOException {
+        Preconditions.checkArgument(playerNames.size() == PlayerId.COUNT);
+
+        this.serverChannel = ServerSocketChannel.open().bind(new InetSocketAddress(port), BACKLOG);
+        this.playerNames = new EnumMap<>(playerNames);
+    }
+
+    /**
+     * Getter for the port the host listens to.
+     *
+     * @return (int) the port
+     */
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Start the thread of the lobby, accepting the connections.
+     */
+    public void start() {
+        threads.newThread(this::lobby).start();
+    }
+
+    /**
+     * Getter for the number of games started.
+     *
+     * @return (int) the number of games started, finished or not
+     */
+    public int startedGames() {
+        return startedGames.get();
+    }
+
+    /**
+     * Getter for the number of games played until their end.
+     *
+     * @return (int) the number of games finished
+     */
+    public int finishedGames() {
+        return finishedGames.get();
+    }
+
+    /**
+     * Getter for the number of games stopped before their end, because of a client that left or misbehaved.
+     *
+     * @return (int) the number of games that failed
+     */
+    public int failedGames() {
+        return failedGames.get();
+    }
+
+    /**
+     * Stop accepting connections, and close the sockets of the players waiting or playing.
+     */
+    @Override
+    public void close() {
+        try {
+            serverChannel.close();
+            for (Socket socket : openSockets)
+                socket.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void lobby() {
+        try {
+            while (true) {
+                final SocketChannel channel = serverChannel.accept();
+                openSockets.add(channel.socket());
+                // a client which left while waiting would make the game fail as soon as it begins
+                if (waitingChannel != null && hasLeft(waitingChannel)) {
+                    openSockets.remove(waitingChannel.socket());
+                    waitingChannel.close();
+                    waitingChannel = null;
+                }
+                if (waitingChannel == null) {
+                    waitingChannel = channel;
+                    continue;
+                }
+
+                final Socket first = waitingChannel.socket();
+                waitingChannel = null;
+                startedGames.incrementAndGet();
+                threads.newThread(() -> play(first, channel.socket())).start();
+            }
+        } catch (IOException e) {
+            // the server socket has been closed
+        }
+    }
+
+    // reads without waiting from a client waiting for its game : as a client never sends anything before its game
+    // begins, reading anything, the end of the stream included, means that it left or misbehaves
+    private static boolean hasLeft(SocketChannel channel) {
+        try {
+            channel.configureBlocking(false);
+            final int read = channel.read(ByteBuffer.allocate(1));
+            channel.configureBlocking(true);
+            return read != 0;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private void play(Socket first, Socket second) {
+        try (first; second) {
+            final Map<PlayerId, RemotePlayerProxy> proxies = new EnumMap<>(PlayerId.class);
+            proxies.put(PlayerId.PLAYER_1, new RemotePlayerProxy(first));
+            proxies.put(PlayerId.PLAYER_2, new RemotePlayerProxy(second));
+            proxies.values().forEach(proxy -> proxy.coalesceWrites(MAX_FLUSH_DELAY));
+            Game.play(new EnumMap<>(proxies), playerNames, tickets, new Random());
+            proxies.values().forEach(RemotePlayerProxy::flush);
+            finishedGames.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failedGames.incrementAndGet();
+        } finally {
+            openSockets.remove(first);
+            openSockets.remove(second);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        final Map<PlayerId, String> names = Map.of(PlayerId.PLAYER_1, args.length > 1 ? args[1] : "Ada",
+                PlayerId.PLAYER_2, args.length > 2 ? args[2] : "Charles");
+
+        final GameHost host = new GameHost(port, names);
+        System.out.printf("Listening on port %d with %s threads%n", host.port(),
+                GameThreads.areVirtual() ? "virtual" : "platform");
+        // all the threads of the host are daemons, the lobby runs on the main one to keep the host running
+        host.lobby();
+    }
+}
@@ -0,0 +1,242 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.Ticket;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h1>GameServer</h1>
+ * Server hosting many games between remote players at once. The connections are multiplexed on a few
+ * {@link SelectorLoop}s, which read and write the sockets without ever blocking, and paired in the order they arrive,
+ * each pair playing a game. The logic of each game runs as a task of a pool of {@link GameThreads}, talking to
+ * its players through {@link RemotePlayerProxy}s built on the connections, so that it keeps using the blocking
+ * {@link Player} interface. The messages sent to the players are coalesced, see
+ * {@link RemotePlayerProxy#coalesceWrites(Duration)}.
+ * <p>
+ * Usage : GameServer [port] [selector threads] [player 1 name] [player 2 name]
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class GameServer implements Closeable {
+    private final static int DEFAULT_PORT = 5108;
+    private final static Duration MAX_FLUSH_DELAY = Duration.ofMillis(5);
+
+    private final ServerSocketChannel serverChannel;
+    private final SelectorLoop[] loops;
+    private final Thread[] loopThreads;
+    private final ExecutorService games;
+    private final Map<PlayerId, String> playerNames;
+    private final SortedBag<Ticket> tickets = SortedBag.of(ChMap.tickets());
+    private final AtomicInteger startedGames = new AtomicInteger();
+    private final AtomicInteger finishedGames = new AtomicInteger();
+    private final AtomicInteger failedGames = new AtomicInteger();
+    // written by the thread of the first selector only
+    private volatile NioConnection waitingConnection;
+    private int nextLoop;
+
+    /**
+     * Construct a GameServer listening on the given port, which only accepts connections once started.
+     *
+     * @param port            the port, 0 to let the system choose a free one
+     * @param selectorThreads the number of threads handling the connections
+     * @param playerNames     the names of the players of each game
+     * @throws IOException              if the port can't be listened to
+     * @throws IllegalArgumentException if selectorThreads isn't strictly positive or if there isn't a name for each
+     *                                  player
+     */
+    public GameServer(int port, int selectorThreads, Map<PlayerId, String> playerNames) throws IOException {
+        Preconditions.checkArgument(selectorThreads > 0 && playerNames.size() == PlayerId.COUNT);
+
+        this.serverChannel = ServerSocketChannel.open().bind(new InetSocketAddress(port));
+        this.serverChannel.configureBlocking(false);
+        this.loops = new SelectorLoop[selectorThreads];
+        this.loopThreads = new Thread[selectorThreads];
+        for (int i = 0; i < selectorThreads; i++) {
+            loops[i] = new SelectorLoop();
+            loopThreads[i] = new Thread(loops[i], "tchu-selector-" + i);
+            loopThreads[i].setDaemon(true);
+        }
+
+        this.games = Executors.newCachedThreadPool(GameThreads.factory("tchu-game"));
+        this.playerNames = new EnumMap<>(playerNames);
+    }
+
+    /**
+     * Getter for the port the server listens to.
+     *
+     * @return (int) the port
+     */
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Start the threads of the selectors, and accept the connections.
+     */
+    public void start() {
+        for (Thread thread : loopThreads)
+            thread.start();
+
+        loops[0].execute(() -> {
+            try {
+                serverChannel.register(loops[0].selector(), SelectionKey.OP_ACCEPT, (SelectorLoop.Handler) key -> accept());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Getter for the number of games started.
+     *
+     * @return (int) the number of games started, finished or not
+     */
+    public int startedGames() {
+        return startedGames.get();
+    }
+
+    /**
+     * Getter for the number of games played until their end.
+     *
+     * @return (int) the number of games finished
+     */
+    public int finishedGames() {
+        return finishedGames.get();
+    }
+
+    /**
+     * Getter for the number of games stopped before their end, because of a client that left or misbehaved.
+     *
+     * @return (int) the number of games that failed
+     */
+    public int failedGames() {
+        return failedGames.get();
+    }
+
+    /**
+     * Getter for the number of clients waiting for an opponent, a client which left being no longer counted once its
+     * selector noticed it.
+     *
+     * @return (int) 1 if a client is waiting, 0 otherwise
+     */
+    public int waitingClients() {
+        final NioConnection waiting = waitingConnection;
+        return (waiting == null || waiting.isInputClosed()) ? 0 : 1;
+    }
+
+    /**
+     * Stop accepting connections and stop the selectors, closing the connections of the games being played.
+     */
+    @Override
+    public void close() {
+        try {
+            serverChannel.close();
+        } catch (IOException ignored) {
+        }
+        for (SelectorLoop loop : loops)
+            loop.close();
+        games.shutdownNow();
+    }
+
+    /**
+     * Wait for the games being played to end, once the server is closed.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of timeout
+     * @return (boolean) true if all the games ended, false if the timeout elapsed before
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return games.awaitTermination(timeout, unit);
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                final SelectorLoop loop = loops[nextLoop];
+                nextLoop = (nextLoop + 1) % loops.length;
+                pair(new NioConnection(channel, loop));
+            }
+        } catch (IOException e) {
+            // the server channel has been closed
+        }
+    }
+
+    private void pair(NioConnection connection) {
+        // a client which left while waiting would make the game fail as soon as it begins
+        if (waitingConnection != null && waitingConnection.isInputClosed()) {
+            waitingConnection.close();
+            waitingConnection = null;
+        }
+        if (waitingConnection == null) {
+            waitingConnection = connection;
+            return;
+        }
+
+        final NioConnection first = waitingConnection;
+        waitingConnection = null;
+        startedGames.incrementAndGet();
+        games.execute(() -> play(first, connection));
+    }
+
+    private void play(NioConnection first, NioConnection second) {
+        try {
+            final Map<PlayerId, RemotePlayerProxy> proxies = new EnumMap<>(PlayerId.class);
+            proxies.put(PlayerId.PLAYER_1, proxy(first));
+            proxies.put(PlayerId.PLAYER_2, proxy(second));
+            Game.play(new EnumMap<>(proxies), playerNames, tickets, new Random());
+            proxies.values().forEach(RemotePlayerProxy::flush);
+            finishedGames.incrementAndGet();
+        } catch (RuntimeException e) {
+            failedGames.incrementAndGet();
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    private static RemotePlayerProxy proxy(NioConnection connection) {
+        // the output of a connection never blocks, what the socket can't take being sent later by its loop
+        final MessageChannel channel = new MessageChannel(connection.input(), connection.output(), false);
+        final RemotePlayerProxy proxy = new RemotePlayerProxy(channel, EnumSet.allOf(ProtocolFeature.class));
+        proxy.coalesceWrites(MAX_FLUSH_DELAY);
+        return proxy;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final Map<PlayerId, String> names = Map.of(PlayerId.PLAYER_1, args.length > 2 ? args[2] : "Ada",
+                PlayerId.PLAYER_2, args.length > 3 ? args[3] : "Charles");
+
+        final GameServer server = new GameServer(port, threads, names);
+        server.start();
+        System.out.printf("Listening on port %d with %d selector threads%n", server.port(), threads);
+
+        // all the threads of the server are daemons, the main one keeps the server running as long as its selectors
+        for (Thread thread : server.loopThreads)
+            thread.join();
+    }
+}
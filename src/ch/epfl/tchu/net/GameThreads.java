@@ -0,0 +1,59 @@
+package ch.epfl.tchu.net;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h1>GameThreads</h1>
+ * Factories of the threads on which the games and the connections of the servers block, as many of them being needed
+ * as there are games or players at once. Virtual threads are used when the runtime has them (Java 21 and later), and
+ * daemon threads with a small stack otherwise.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+final class GameThreads {
+    private final static long STACK_SIZE = 1 << 18;
+    private final static ThreadFactory VIRTUAL_THREADS = virtualThreads();
+
+    private GameThreads() {
+    }
+
+    /**
+     * Getter for the kind of threads built by the factories.
+     *
+     * @return (boolean) true if they are virtual threads
+     */
+    static boolean areVirtual() {
+        return VIRTUAL_THREADS != null;
+    }
+
+    /**
+     * Build a factory of threads, whose names are made of the given prefix and of a number if they aren't virtual.
+     *
+     * @param namePrefix the prefix of the names of the threads
+     * @return (ThreadFactory) the factory
+     */
+    static ThreadFactory factory(String namePrefix) {
+        if (VIRTUAL_THREADS != null)
+            return VIRTUAL_THREADS;
+
+        final AtomicInteger count = new AtomicInteger();
+        return task -> {
+            final Thread thread = new Thread(null, task, namePrefix + "-" + count.incrementAndGet(), STACK_SIZE);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Thread.ofVirtual().factory(), looked up at run time so that the project still builds with Java 17
+    private static ThreadFactory virtualThreads() {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ch.epfl.tchu.net;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * <h1>ListIndex</h1>
+ * Precomputed index of the elements of a list, with which {@link Serde#oneOf(List)} and {@link BinarySerde#oneOf(List)}
+ * find the index of an element in constant time rather than scanning the list. The index of an enum constant is its
+ * ordinal when the list holds the constants in the order of their ordinals, and is otherwise found in a hash table.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+final class ListIndex {
+    private ListIndex() {
+    }
+
+    /**
+     * Build the index of the elements of the list.
+     *
+     * @param list the list
+     * @param <T>  the type of the elements of the list
+     * @return (ToIntFunction) the function giving the index of the first occurrence of an element in the list, or -1
+     * if it isn't in it, as {@link List#indexOf(Object)}
+     */
+    static <T> ToIntFunction<T> of(List<T> list) {
+        if (hasDenseOrdinals(list)) {
+            final int size = list.size();
+            return obj -> {
+                final int ordinal = ((Enum<?>) obj).ordinal();
+                return ordinal < size ? ordinal : -1;
+            };
+        }
+
+        final Map<T, Integer> indices = new HashMap<>();
+        for (int i = list.size() - 1; i >= 0; i--)
+            indices.put(list.get(i), i);
+        return obj -> indices.getOrDefault(obj, -1);
+    }
+
+    private static boolean hasDenseOrdinals(List<?> list) {
+        if (list.isEmpty() || !(list.get(0) instanceof Enum))
+            return false;
+
+        final Class<?> type = ((Enum<?>) list.get(0)).getDeclaringClass();
+        for (int i = 0; i < list.size(); i++) {
+            final Object obj = list.get(i);
+            if (!(obj instanceof Enum) || ((Enum<?>) obj).getDeclaringClass() != type || ((Enum<?>) obj).ordinal() != i)
+                return false;
+        }
+        return true;
+    }
+}
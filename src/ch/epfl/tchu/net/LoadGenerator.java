@@ -0,0 +1,90 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.sim.RandomPlayer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h1>LoadGenerator</h1>
+ * Load generator for the servers, connecting many {@link RemotePlayerClient}s driven by {@link RandomPlayer}s at once,
+ * each of them on its own thread, virtual when the runtime has them.
+ * <p>
+ * Usage : LoadGenerator [games] [host] [port], a {@link GameHost} being started locally if no host is given.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class LoadGenerator {
+    private final static int DEFAULT_GAMES = 1_000;
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * Connect the given number of bots to the server, and wait until all of them stopped playing.
+     *
+     * @param host the name of the server's host
+     * @param port the port of the server
+     * @param bots the number of bots, twice the number of games to play
+     * @param seed the seed of the first bot, the others having the next ones
+     * @return (int) the number of bots whose connection failed before the end of their game
+     * @throws IllegalArgumentException if the number of bots is negative
+     * @throws InterruptedException     if the thread is interrupted while waiting for the bots
+     */
+    public static int run(String host, int port, int bots, long seed) throws InterruptedException {
+        Preconditions.checkArgument(bots >= 0);
+
+        final ThreadFactory threads = GameThreads.factory("tchu-bot");
+        final AtomicInteger failedBots = new AtomicInteger();
+        final List<Thread> botThreads = new ArrayList<>(bots);
+        for (int i = 0; i < bots; i++) {
+            final RemotePlayerClient client = new RemotePlayerClient(new RandomPlayer(seed + i), host, port);
+            final Thread thread = threads.newThread(() -> {
+                try {
+                    client.run();
+                } catch (RuntimeException e) {
+                    failedBots.incrementAndGet();
+                }
+            });
+            thread.start();
+            botThreads.add(thread);
+        }
+
+        for (Thread thread : botThreads)
+            thread.join();
+        return failedBots.get();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+
+        GameHost localHost = null;
+        final String host;
+        final int port;
+        if (args.length > 2) {
+            host = args[1];
+            port = Integer.parseInt(args[2]);
+        } else {
+            localHost = new GameHost(0, Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles"));
+            localHost.start();
+            host = "localhost";
+            port = localHost.port();
+        }
+
+        final long start = System.nanoTime();
+        final int failedBots = run(host, port, PlayerId.COUNT * games, 0);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games played by %d bots on %s threads in %.1f s (%.0f games/s), %d bots failed%n",
+                games, PlayerId.COUNT * games, GameThreads.areVirtual() ? "virtual" : "platform", seconds,
+                games / seconds, failedBots);
+        if (localHost != null)
+            localHost.close();
+    }
+}
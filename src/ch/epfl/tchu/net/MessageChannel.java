@@ -0,0 +1,264 @@
+package ch.epfl.tchu.net;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <h1>MessageChannel</h1>
+ * Connection between a {@link RemotePlayerProxy} and a {@link RemotePlayerClient}, exchanging either ASCII lines (the
+ * textual protocol) or length-prefixed frames (the binary protocol), the two of them being read from the same streams
+ * so that the connection can switch from the first to the second once the binary protocol has been negotiated, see
+ * {@link ProtocolFeature}.
+ * <p>
+ * A frame is made of its length, on two bytes, followed by its content. The frames sent by the proxy begin with the
+ * byte of the {@link MessageId}.
+ * <p>
+ * Each message is flushed once written, unless the writes are coalesced : the messages are then kept in the buffer
+ * of the channel until a message is read, as the other side can't answer before receiving everything that was written,
+ * or until a bounded delay elapsed since the first of them was written. The delayed flushes are scheduled on a single
+ * thread shared by all the channels, which only flushes itself the outputs that can't block, such as the ones of
+ * {@link NioConnection}s : the flushes of the outputs that can block, such as the ones of sockets, are handed to threads
+ * of their own, so that a client which stops reading doesn't delay the flushes of the other channels.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+final class MessageChannel {
+    private final static int MAX_FRAME_SIZE = 0xFFFF;
+    private final static int LENGTH_SIZE = Short.BYTES;
+    private final static ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(task -> {
+        final Thread thread = new Thread(task, "tchu-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final static ExecutorService BLOCKING_FLUSHES = Executors.newCachedThreadPool(GameThreads.factory("tchu-flush"));
+
+    private final InputStream input;
+    private final OutputStream output;
+    private final boolean outputBlocks;
+    private final ByteBuffer frame = ByteBuffer.allocate(LENGTH_SIZE + MAX_FRAME_SIZE);
+    private final WriteCounters counters = new WriteCounters();
+    // guards the writes, which may block on the socket, without pinning the carrier of a virtual thread as a monitor would
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private boolean binary;
+    private long maxFlushDelay = -1;
+    private boolean unflushed;
+
+    /**
+     * Construct a MessageChannel, in textual mode, from the streams of the socket.
+     *
+     * @param socket the connected socket
+     */
+    MessageChannel(Socket socket) {
+        this(inputStream(socket), outputStream(socket), true);
+    }
+
+    /**
+     * Construct a MessageChannel, in textual mode, from the given streams.
+     *
+     * @param input        the stream of what is received
+     * @param output       the stream of what is sent, flushed after each message unless the writes are coalesced
+     * @param outputBlocks true if the flushes of output may block, until the other side reads for instance
+     */
+    MessageChannel(InputStream input, OutputStream output, boolean outputBlocks) {
+        this.input = new BufferedInputStream(input);
+        this.output = new BufferedOutputStream(output);
+        this.outputBlocks = outputBlocks;
+    }
+
+    private static InputStream inputStream(Socket socket) {
+        try {
+            return socket.getInputStream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static OutputStream outputStream(Socket socket) {
+        try {
+            return socket.getOutputStream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Getter for the mode of the channel.
+     *
+     * @return (boolean) true if the channel exchanges frames, false if it exchanges lines
+     */
+    boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Switch the channel to the binary mode, for the rest of the connection.
+     */
+    void switchToBinary() {
+        binary = true;
+    }
+
+    /**
+     * Getter for the counters of the writes.
+     *
+     * @return (WriteCounters) the counters of the channel
+     */
+    WriteCounters counters() {
+        return counters;
+    }
+
+    /**
+     * Coalesce the writes, each message being flushed at the latest after the given delay, or flush each message once
+     * written.
+     *
+     * @param maxDelay the maximum delay between the write of a message and its flush, or null to flush each message
+     */
+    void coalesceWrites(Duration maxDelay) {
+        writeLock.lock();
+        try {
+            maxFlushDelay = maxDelay == null ? -1 : maxDelay.toNanos();
+            if (maxDelay == null)
+                flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Flush the messages written since the previous flush.
+     */
+    void flush() {
+        writeLock.lock();
+        try {
+            if (!unflushed)
+                return;
+            unflushed = false;
+            output.flush();
+            counters.flushed();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Send a line of ASCII characters.
+     *
+     * @param line the line, without its end
+     */
+    void writeLine(CharSequence line) {
+        writeLock.lock();
+        try {
+            for (int i = 0; i < line.length(); i++)
+                output.write(line.charAt(i));
+            output.write('\n');
+            messageWritten(line.length() + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void messageWritten(int size) {
+        counters.messageWritten(size);
+        final boolean firstUnflushed = !unflushed;
+        unflushed = true;
+
+        if (maxFlushDelay <= 0)
+            flush();
+        else if (firstUnflushed)
+            FLUSHER.schedule(this::delayedFlush, maxFlushDelay, TimeUnit.NANOSECONDS);
+    }
+
+    private void delayedFlush() {
+        if (outputBlocks)
+            BLOCKING_FLUSHES.execute(this::flushQuietly);
+        else
+            flushQuietly();
+    }
+
+    // the flush failing as well when the next message is written, there is nothing more to do here
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (UncheckedIOException ignored) {
+        }
+    }
+
+    /**
+     * Read a line of ASCII characters, after having flushed the messages written.
+     *
+     * @return (String) the line, without its end, or null if the connection has been closed
+     */
+    String readLine() {
+        flush();
+        try {
+            final StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = input.read()) != '\n') {
+                if (c == -1)
+                    return line.length() == 0 ? null : line.toString();
+                line.append((char) c);
+            }
+            return line.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Begin a new frame, to be filled then sent with {@link #writeFrame()}.
+     *
+     * @return (ByteBuffer) the buffer in which the content of the frame has to be written
+     */
+    ByteBuffer newFrame() {
+        return frame.clear().position(LENGTH_SIZE);
+    }
+
+    /**
+     * Send the frame begun by {@link #newFrame()}.
+     */
+    void writeFrame() {
+        writeLock.lock();
+        try {
+            frame.putShort(0, (short) (frame.position() - LENGTH_SIZE));
+            output.write(frame.array(), 0, frame.position());
+            messageWritten(frame.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Read a frame, after having flushed the messages written.
+     *
+     * @return (ByteBuffer) the content of the frame, or null if the connection has been closed
+     */
+    ByteBuffer readFrame() {
+        flush();
+        try {
+            final int high = input.read();
+            if (high == -1)
+                return null;
+            final int low = input.read();
+            if (low == -1)
+                throw new EOFException();
+
+            final byte[] content = new byte[high << Byte.SIZE | low];
+            new DataInputStream(input).readFully(content);
+            return ByteBuffer.wrap(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -13,7 +13,8 @@ import java.util.List;
  * {@link #CHOOSE_TICKETS},
  * {@link #ROUTE},
  * {@link #CARDS},
- * {@link #CHOOSE_ADDITIONAL_CARDS}.
+ * {@link #CHOOSE_ADDITIONAL_CARDS},
+ * {@link #UPDATE_STATE_DELTA} (only in the {@link ProtocolFeature#DELTA} mode).
  * 
  * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
  */
@@ -28,7 +29,8 @@ public enum MessageId {
     DRAW_SLOT,
     ROUTE,
     CARDS,
-    CHOOSE_ADDITIONAL_CARDS;
+    CHOOSE_ADDITIONAL_CARDS,
+    UPDATE_STATE_DELTA;
 
     /**
      * An unmodifiable list of all messages.
@@ -0,0 +1,264 @@
+package ch.epfl.tchu.net;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <h1>NioConnection</h1>
+ * Non-blocking connection with a client, registered in a {@link SelectorLoop}. The loop reads what the client sends
+ * into a buffer, from which the game's thread reads through {@link #input()}, waiting only while the buffer is empty.
+ * What the game's thread writes through {@link #output()} is sent directly if the socket can take it, the rest being
+ * sent by the loop as soon as it can.
+ * <p>
+ * The state of the connection is guarded by a {@link ReentrantLock} rather than by a monitor, so that a virtual thread
+ * of {@link GameThreads} waiting for input doesn't pin the carrier thread it runs on.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+final class NioConnection implements SelectorLoop.Handler {
+    private final static int INITIAL_INPUT_SIZE = 1 << 12;
+    private final static int MAX_INPUT_SIZE = 1 << 20;
+
+    private final SocketChannel channel;
+    private final SelectorLoop loop;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition inputChanged = lock.newCondition();
+    private final Deque<ByteBuffer> pendingOutput = new ArrayDeque<>();
+    private final InputStream input = new ConnectionInputStream();
+    private final OutputStream output = new ConnectionOutputStream();
+    private SelectionKey key;
+    private ByteBuffer receivedInput = ByteBuffer.allocate(INITIAL_INPUT_SIZE);
+    private boolean inputClosed;
+    private boolean closeRequested;
+
+    /**
+     * Construct a NioConnection, registering the channel in the loop.
+     *
+     * @param channel the channel connected to the client
+     * @param loop    the loop handling the channel
+     */
+    NioConnection(SocketChannel channel, SelectorLoop loop) {
+        this.channel = channel;
+        this.loop = loop;
+        try {
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        loop.execute(() -> {
+            try {
+                key = channel.register(loop.selector(), SelectionKey.OP_READ, this);
+            } catch (IOException e) {
+                abort();
+            }
+        });
+    }
+
+    /**
+     * Getter for the stream of what the client sends, whose reads wait until something has been received.
+     *
+     * @return (InputStream) the input of the connection
+     */
+    InputStream input() {
+        return input;
+    }
+
+    /**
+     * Getter for the stream of what is sent to the client, the bytes written being sent when it is flushed.
+     *
+     * @return (OutputStream) the output of the connection
+     */
+    OutputStream output() {
+        return output;
+    }
+
+    /**
+     * Check whether the client closed its side of the connection, or whether the connection has been closed, which a
+     * client waiting for its game to begin only does when it leaves.
+     *
+     * @return (boolean) true if nothing more can be received from the client
+     */
+    boolean isInputClosed() {
+        lock.lock();
+        try {
+            return inputClosed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the connection once what has been written has been sent.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closeRequested = true;
+            if (pendingOutput.isEmpty())
+                loop.execute(this::abort);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read what the client sent, or send what remains to be sent, on the thread of the loop.
+     *
+     * @param key the key of the channel
+     */
+    @Override
+    public void handle(SelectionKey key) {
+        try {
+            if (key.isReadable())
+                receive();
+            if (key.isValid() && key.isWritable())
+                sendPending();
+        } catch (IOException e) {
+            abort();
+        }
+    }
+
+    private void receive() throws IOException {
+        lock.lock();
+        try {
+            if (!receivedInput.hasRemaining()) {
+                if (receivedInput.capacity() >= MAX_INPUT_SIZE)
+                    throw new IOException("Too much input");
+                receivedInput = ByteBuffer.allocate(2 * receivedInput.capacity()).put(receivedInput.flip());
+            }
+
+            if (channel.read(receivedInput) == -1) {
+                inputClosed = true;
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            }
+            inputChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendPending() throws IOException {
+        lock.lock();
+        try {
+            while (!pendingOutput.isEmpty()) {
+                channel.write(pendingOutput.peek());
+                if (pendingOutput.peek().hasRemaining())
+                    return;
+                pendingOutput.poll();
+            }
+
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            if (closeRequested)
+                abort();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void send(byte[] bytes) throws IOException {
+        lock.lock();
+        try {
+            if (!channel.isOpen())
+                throw new IOException("Connection closed");
+
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (pendingOutput.isEmpty())
+                channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                if (pendingOutput.isEmpty())
+                    loop.execute(() -> {
+                        if (key != null && key.isValid())
+                            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    });
+                pendingOutput.add(buffer);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void abort() {
+        lock.lock();
+        try {
+            inputClosed = true;
+            pendingOutput.clear();
+            if (key != null)
+                key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            inputChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class ConnectionInputStream extends InputStream {
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : Byte.toUnsignedInt(b[0]);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+
+            lock.lock();
+            try {
+                try {
+                    while (receivedInput.position() == 0 && !inputClosed)
+                        inputChanged.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+                if (receivedInput.position() == 0)
+                    return -1;
+
+                receivedInput.flip();
+                final int count = Math.min(len, receivedInput.remaining());
+                receivedInput.get(b, off, count);
+                receivedInput.compact();
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final class ConnectionOutputStream extends OutputStream {
+        private byte[] bytes = new byte[INITIAL_INPUT_SIZE];
+        private int size;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (size + len > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, size + len));
+            System.arraycopy(b, off, bytes, size, len);
+            size += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (size == 0)
+                return;
+            send(Arrays.copyOf(bytes, size));
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ch.epfl.tchu.net;
+
+import java.util.List;
+
+/**<h1>ProtocolFeature</h1>
+ * Extensions of the textual protocol that a {@link RemotePlayerProxy} can offer in its INIT_PLAYERS message, by
+ * adding their names at its end, and that a {@link RemotePlayerClient} accepts by sending back the names of the ones
+ * it supports as a line, before its first response :
+ * {@link #BINARY},
+ * {@link #DELTA}.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public enum ProtocolFeature {
+    /**
+     * The messages following the first response are exchanged as frames, serialized with {@link BinarySerdes}.
+     */
+    BINARY,
+    /**
+     * The state updates only contain what changed since the previous one, see {@link DeltaState}. Only used with
+     * {@link #BINARY}.
+     */
+    DELTA;
+
+    /**
+     * An unmodifiable list of all the features.
+     */
+    public static final List<ProtocolFeature> ALL = List.of(values());
+}
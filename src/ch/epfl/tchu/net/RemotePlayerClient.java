@@ -4,14 +4,19 @@ import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.Card;
 import ch.epfl.tchu.game.Player;
 import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
 import ch.epfl.tchu.game.Ticket;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.Socket;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.StringJoiner;
 
 /**
  * <h1>RemotePlayerClient</h1>
@@ -23,19 +28,41 @@ public final class RemotePlayerClient {
     private final Player player;
     private final String proxyName;
     private final int proxyPort;
+    private final Set<ProtocolFeature> supportedFeatures;
+    private final DeltaState deltaState = new DeltaState();
+
+    private MessageChannel channel;
+    private String textMessage;
+    private ByteBuffer binaryMessage;
+    private Set<ProtocolFeature> acceptedFeatures = EnumSet.noneOf(ProtocolFeature.class);
+    private boolean delta;
+    private boolean resyncNeeded;
 
     /**
      * Unique constructor of a RemotePlayerClient, build it with an instance of Player for which it has tout get a proxy,
-     * the name of the host and the port.
+     * the name of the host and the port. All the {@link ProtocolFeature}s the proxy offers are accepted.
      *
      * @param player    The player that needs a proxy
      * @param proxyName the host name
      * @param proxyPort the port name
      */
     public RemotePlayerClient(Player player, String proxyName, int proxyPort) {
+        this(player, proxyName, proxyPort, EnumSet.allOf(ProtocolFeature.class));
+    }
+
+    /**
+     * Constructor of a RemotePlayerClient, choosing the {@link ProtocolFeature}s accepted if the proxy offers them.
+     *
+     * @param player            The player that needs a proxy
+     * @param proxyName         the host name
+     * @param proxyPort         the port name
+     * @param supportedFeatures the features accepted
+     */
+    public RemotePlayerClient(Player player, String proxyName, int proxyPort, Set<ProtocolFeature> supportedFeatures) {
         this.player = player;
         this.proxyName = proxyName;
         this.proxyPort = proxyPort;
+        this.supportedFeatures = Set.copyOf(supportedFeatures);
     }
 
     /**
@@ -48,68 +75,82 @@ public final class RemotePlayerClient {
      * to give a response.
      * <p>
      * if this method returns a result, serializes the player's response to send it back to the proxy in response.
+     * <p>
+     * If the proxy offers {@link ProtocolFeature}s in its INIT_PLAYERS message, the supported ones are used for the
+     * messages following the first response.
      */
     public void run() {
 
         try (Socket socket = new Socket(proxyName, proxyPort)) {
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
-            final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
-
-            String messagesFromReader;
-            while ((messagesFromReader = reader.readLine()) != null) {
-                String[] message = messagesFromReader.split(Pattern.quote(" "), -1);
+            channel = new MessageChannel(socket);
 
-                switch (MessageId.valueOf(message[0])) {
+            MessageId id;
+            while ((id = readMessage()) != null) {
+                switch (id) {
                     case INIT_PLAYERS:
-                        List<String> names = Serdes.L_STRING.deserialize(message[2]);
+                        PlayerId ownId = argument(1, Serdes.PLAYER_ID, BinarySerdes.PLAYER_ID);
+                        List<String> names = argument(2, Serdes.L_STRING, BinarySerdes.L_STRING);
                         Map<PlayerId, String> playerNames = Map.of(PlayerId.PLAYER_1, names.get(0), PlayerId.PLAYER_2, names.get(1));
 
-                        player.initPlayers(Serdes.PLAYER_ID.deserialize(message[1]), playerNames);
+                        if (!channel.isBinary())
+                            acceptFeatures();
+                        player.initPlayers(ownId, playerNames);
                         break;
 
                     case RECEIVE_INFO:
-                        player.receiveInfo(Serdes.STRING.deserialize(message[1]));
+                        player.receiveInfo(argument(1, Serdes.STRING, BinarySerdes.STRING));
                         break;
 
                     case UPDATE_STATE:
-                        player.updateState(Serdes.SC_PUBLIC_GAME_STATE.deserialize(message[1]), Serdes.SC_PLAYER_STATE.deserialize(message[2]));
+                        PublicGameState newState = argument(1, Serdes.SC_PUBLIC_GAME_STATE, BinarySerdes.SC_PUBLIC_GAME_STATE);
+                        PlayerState ownState = argument(2, Serdes.SC_PLAYER_STATE, BinarySerdes.SC_PLAYER_STATE);
+                        if (delta)
+                            deltaState.set(newState, ownState);
+                        player.updateState(newState, ownState);
+                        break;
+
+                    case UPDATE_STATE_DELTA:
+                        if (deltaState.applyDelta(binaryMessage))
+                            player.updateState(deltaState.gameState(), deltaState.ownState());
+                        else
+                            resyncNeeded = true;
                         break;
 
                     case SET_INITIAL_TICKETS:
-                        player.setInitialTicketChoice(Serdes.SB_TICKET.deserialize(message[1]));
+                        player.setInitialTicketChoice(argument(1, Serdes.SB_TICKET, BinarySerdes.SB_TICKET));
                         break;
 
                     case CHOOSE_INITIAL_TICKETS:
                         SortedBag<Ticket> tickets = player.chooseInitialTickets();
-                        writeMessage(writer, Serdes.SB_TICKET.serialize(tickets));
+                        writeMessage(Serdes.SB_TICKET, BinarySerdes.SB_TICKET, tickets);
                         break;
 
                     case NEXT_TURN:
                         Player.TurnKind turn = player.nextTurn();
-                        writeMessage(writer, Serdes.TURN_KIND.serialize(turn));
+                        writeMessage(Serdes.TURN_KIND, BinarySerdes.TURN_KIND, turn);
                         break;
 
                     case CHOOSE_TICKETS:
-                        SortedBag<Ticket> chooseTickets = player.chooseTickets(Serdes.SB_TICKET.deserialize(message[1]));
-                        writeMessage(writer, Serdes.SB_TICKET.serialize(chooseTickets));
+                        SortedBag<Ticket> chooseTickets = player.chooseTickets(argument(1, Serdes.SB_TICKET, BinarySerdes.SB_TICKET));
+                        writeMessage(Serdes.SB_TICKET, BinarySerdes.SB_TICKET, chooseTickets);
                         break;
 
                     case DRAW_SLOT:
-                        writeMessage(writer, Serdes.INT.serialize(player.drawSlot()));
+                        writeMessage(Serdes.INT, BinarySerdes.INT, player.drawSlot());
                         break;
 
                     case ROUTE:
-                        writeMessage(writer, Serdes.ROUTE.serialize(player.claimedRoute()));
+                        writeMessage(Serdes.ROUTE, BinarySerdes.ROUTE, player.claimedRoute());
                         break;
 
                     case CARDS:
-                        writeMessage(writer, Serdes.SB_CARD.serialize(player.initialClaimCards()));
+                        writeMessage(Serdes.SB_CARD, BinarySerdes.SB_CARD, player.initialClaimCards());
                         break;
 
                     case CHOOSE_ADDITIONAL_CARDS:
-                        List<SortedBag<Card>> possibleAdditionalCards = Serdes.L_SB_CARD.deserialize(message[1]);
+                        List<SortedBag<Card>> possibleAdditionalCards = argument(1, Serdes.L_SB_CARD, BinarySerdes.L_SB_CARD);
                         SortedBag<Card> additionalCards = player.chooseAdditionalCards(possibleAdditionalCards);
-                        writeMessage(writer, Serdes.SB_CARD.serialize(additionalCards));
+                        writeMessage(Serdes.SB_CARD, BinarySerdes.SB_CARD, additionalCards);
                         break;
 
                     default:
@@ -122,18 +163,114 @@ public final class RemotePlayerClient {
     }
 
     /**
-     * Send the message in the socket thanks to thw BufferedWriter.
+     * Read the next message from the channel, in the protocol currently used.
      *
-     * @param writer  BufferedWriter build according to a socket
-     * @param message message to will be sent
+     * @return (MessageId) the id of the message, or null if the connection has been closed
      */
-    private void writeMessage(BufferedWriter writer, String message) {
-        try {
-            writer.write(message);
-            writer.write('\n');
-            writer.flush();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+    private MessageId readMessage() {
+        if (channel.isBinary()) {
+            binaryMessage = channel.readFrame();
+            return binaryMessage == null ? null : MessageId.ALL.get(binaryMessage.get());
+        }
+
+        String message = channel.readLine();
+        if (message == null)
+            return null;
+        textMessage = message;
+        return MessageId.valueOf(message.substring(0, argumentEnd(0)));
+    }
+
+    /**
+     * Deserialize an argument of the current message. In the binary protocol, the arguments are read in the order
+     * of the calls, which must therefore follow the order of the arguments.
+     *
+     * @param index       the index of the argument in the textual message, 1 being the first argument
+     * @param serde       the Serde of the argument
+     * @param binarySerde the BinarySerde of the argument
+     * @param <T>         the type of the argument
+     * @return (T) the argument
+     */
+    private <T> T argument(int index, CursorSerde<T> serde, BinarySerde<T> binarySerde) {
+        if (channel.isBinary())
+            return binarySerde.deserialize(binaryMessage);
+
+        final int start = argumentStart(index);
+        return serde.deserialize(textMessage, start, argumentEnd(start));
+    }
+
+    /**
+     * Find the start of an argument of the current textual message, which is parsed in place rather than split.
+     *
+     * @param index the index of the argument, 0 being the id of the message
+     * @return (int) the index of the first character of the argument, or the length of the message if it has less
+     * arguments
+     */
+    private int argumentStart(int index) {
+        int start = 0;
+        for (int i = 0; i < index && start < textMessage.length(); i++)
+            start = argumentEnd(start) + 1;
+        return Math.min(start, textMessage.length());
+    }
+
+    /**
+     * Find the end of an argument of the current textual message.
+     *
+     * @param start the index of the first character of the argument
+     * @return (int) the index following the last character of the argument
+     */
+    private int argumentEnd(int start) {
+        return CursorSerde.indexOf(textMessage, ' ', start, textMessage.length());
+    }
+
+    /**
+     * Send the response of the player in the protocol currently used, then switch to the binary protocol if it was
+     * accepted and this response is the first one. In the delta mode, the response begins with whether a resync is
+     * needed.
+     *
+     * @param serde       the Serde of the response
+     * @param binarySerde the BinarySerde of the response
+     * @param response    the response that will be sent
+     * @param <T>         the type of the response
+     */
+    private <T> void writeMessage(CursorSerde<T> serde, BinarySerde<T> binarySerde, T response) {
+        if (channel.isBinary()) {
+            final ByteBuffer frame = channel.newFrame();
+            if (delta) {
+                frame.put(resyncNeeded ? DeltaState.RESYNC_REQUESTED : DeltaState.SYNCHRONIZED);
+                resyncNeeded = false;
+            }
+            binarySerde.serialize(response, frame);
+            channel.writeFrame();
+        } else {
+            channel.writeLine(serde.serialize(response));
+            if (acceptedFeatures.contains(ProtocolFeature.BINARY)) {
+                channel.switchToBinary();
+                delta = acceptedFeatures.contains(ProtocolFeature.DELTA);
+            }
+        }
+    }
+
+    /**
+     * Accept the features offered at the end of the INIT_PLAYERS message which are supported, sending their names
+     * back to the proxy. The features unknown to this client are ignored, and the delta mode is only accepted with the
+     * binary protocol.
+     */
+    private void acceptFeatures() {
+        acceptedFeatures = EnumSet.noneOf(ProtocolFeature.class);
+        for (int start = argumentStart(3); start < textMessage.length(); start = argumentEnd(start) + 1) {
+            final String name = textMessage.substring(start, argumentEnd(start));
+            for (ProtocolFeature feature : ProtocolFeature.ALL) {
+                if (feature.name().equals(name) && supportedFeatures.contains(feature))
+                    acceptedFeatures.add(feature);
+            }
+        }
+        if (!acceptedFeatures.contains(ProtocolFeature.BINARY))
+            acceptedFeatures.remove(ProtocolFeature.DELTA);
+
+        if (!acceptedFeatures.isEmpty()) {
+            StringJoiner joiner = new StringJoiner(" ");
+            acceptedFeatures.forEach(feature -> joiner.add(feature.name()));
+            channel.writeLine(joiner.toString());
         }
     }
 }
@@ -3,70 +3,216 @@ package ch.epfl.tchu.net;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 
-import java.io.*;
 import java.net.Socket;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.StringJoiner;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 /**
  * <h1>RemotePlayerProxy</h1>
  * Implements a proxy for the remote player on the local computer, used on the server side to let the RemotePlayer connect to the server.
+ * It speaks the textual protocol of {@link Serdes}, extended by the {@link ProtocolFeature}s the client accepts.
  *
  * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
  */
 public final class RemotePlayerProxy implements Player {
-    private final BufferedReader reader;
-    private final BufferedWriter writer;
-    private final static String EMPTY_SERDE = "";
+    private final MessageChannel channel;
+    private final Set<ProtocolFeature> offeredFeatures;
+    private final DeltaState deltaState = new DeltaState();
+    private final StringBuilder line = new StringBuilder();
+    private boolean featuresOffered;
+    private boolean delta;
 
     /**
-     * Construct a RemotePlayerProxy according to a socket.
+     * Construct a RemotePlayerProxy according to a socket, offering all the {@link ProtocolFeature}s to the client.
      *
-     * @param socket socket that the proxy is using for listening and sending textual message through the network
+     * @param socket socket that the proxy is using for listening and sending message through the network
      */
     public RemotePlayerProxy(Socket socket) {
-        try {
-            this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
-            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+        this(socket, EnumSet.allOf(ProtocolFeature.class));
+    }
+
+    /**
+     * Construct a RemotePlayerProxy according to a socket.
+     * <p>
+     * The features are offered by adding their names to the INIT_PLAYERS message, ignored by the clients which only
+     * know the textual protocol. A client accepting some of them sends their names back as a line, before its first
+     * response, and both sides use them once this response has been exchanged.
+     *
+     * @param socket          socket that the proxy is using for listening and sending message through the network
+     * @param offeredFeatures the features offered to the client
+     */
+    public RemotePlayerProxy(Socket socket, Set<ProtocolFeature> offeredFeatures) {
+        this(new MessageChannel(socket), offeredFeatures);
+    }
+
+    /**
+     * Construct a RemotePlayerProxy on the given channel, for instance the one of a connection of a {@link GameServer}.
+     *
+     * @param channel         channel that the proxy is using for listening and sending message through the network
+     * @param offeredFeatures the features offered to the client
+     */
+    RemotePlayerProxy(MessageChannel channel, Set<ProtocolFeature> offeredFeatures) {
+        this.channel = channel;
+        this.offeredFeatures = Set.copyOf(offeredFeatures);
+    }
+
+    /**
+     * Getter for the protocol used with the client.
+     *
+     * @return (boolean) true if the binary protocol has been negotiated, false if the textual one is used
+     */
+    public boolean isBinary() {
+        return channel.isBinary();
+    }
+
+    /**
+     * Getter for the mode of the state updates.
+     *
+     * @return (boolean) true if the state updates are sent as deltas, false if they are sent as a whole
+     */
+    public boolean isDelta() {
+        return delta;
+    }
+
+    /**
+     * Ask for the next state update to be sent as a whole, in the delta mode.
+     */
+    public void requestResync() {
+        deltaState.clear();
+    }
+
+    /**
+     * Coalesce the messages sent to the client : the ones which don't expect a response are kept until a response is
+     * awaited, or at the latest until the given delay elapsed, and sent together.
+     *
+     * @param maxDelay the maximum delay before a message is sent, or null to send each message once written, which is
+     *                 the default
+     */
+    public void coalesceWrites(Duration maxDelay) {
+        channel.coalesceWrites(maxDelay);
+    }
+
+    /**
+     * Send the messages kept by the coalescing of the writes, for instance before closing the connection.
+     */
+    public void flush() {
+        channel.flush();
+    }
+
+    /**
+     * Getter for the counters of the messages sent to the client.
+     *
+     * @return (WriteCounters) the counters of the connection
+     */
+    public WriteCounters writeCounters() {
+        return channel.counters();
+    }
+
+    /**
+     * Send a message through the channel, in the protocol currently used.
+     *
+     * @param id     an element of {@link ch.epfl.tchu.net.MessageId}
+     * @param text   the function appending the textual serialization of the arguments of the message to its line
+     * @param binary the function writing the arguments of the message in its frame
+     */
+    private void writeMessage(MessageId id, Consumer<StringBuilder> text, Consumer<ByteBuffer> binary) {
+        if (channel.isBinary()) {
+            final ByteBuffer frame = channel.newFrame().put((byte) id.ordinal());
+            binary.accept(frame);
+            channel.writeFrame();
+        } else {
+            line.setLength(0);
+            text.accept(line.append(id.name()).append(' '));
+            channel.writeLine(line);
         }
     }
 
     /**
-     * Send a message in the socket thanks to the BufferedWriter.
+     * Send a message with a single argument through the channel, in the protocol currently used.
+     *
+     * @param id           an element of {@link ch.epfl.tchu.net.MessageId}
+     * @param serde        the Serde of the argument
+     * @param binarySerde  the BinarySerde of the argument
+     * @param argument     the argument of the message
+     * @param <T>          the type of the argument
+     */
+    private <T> void writeMessage(MessageId id, CursorSerde<T> serde, BinarySerde<T> binarySerde, T argument) {
+        writeMessage(id, text -> serde.serialize(argument, text), frame -> binarySerde.serialize(argument, frame));
+    }
+
+    /**
+     * Send a message without argument through the channel, in the protocol currently used.
+     *
+     * @param id an element of {@link ch.epfl.tchu.net.MessageId}
+     */
+    private void writeMessage(MessageId id) {
+        writeMessage(id, text -> {
+        }, frame -> {
+        });
+    }
+
+    /**
+     * Read the response of the client from the channel, in the protocol currently used, switching to the binary
+     * protocol if the client accepted it.
      *
-     * @param id            an element of {@link ch.epfl.tchu.net.MessageId}
-     * @param serialization the serialization of the information that will be sent
+     * @param serde       the Serde of the response
+     * @param binarySerde the BinarySerde of the response
+     * @param <T>         the type of the response
+     * @return (T) the response that has been read
      */
-    private void writeMessage(MessageId id, String serialization) {
-        try {
-            writer.write(id.name() + " " + serialization);
-            writer.write('\n');
-            writer.flush();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+    private <T> T readMessage(Serde<T> serde, BinarySerde<T> binarySerde) {
+        if (channel.isBinary()) {
+            final ByteBuffer frame = channel.readFrame();
+            if (delta && frame.get() == DeltaState.RESYNC_REQUESTED)
+                requestResync();
+            return binarySerde.deserialize(frame);
         }
+
+        String message = channel.readLine();
+        if (featuresOffered) {
+            featuresOffered = false;
+            final Set<ProtocolFeature> acceptedFeatures = features(message);
+            if (!acceptedFeatures.isEmpty()) {
+                final T response = serde.deserialize(channel.readLine());
+                if (acceptedFeatures.contains(ProtocolFeature.BINARY)) {
+                    channel.switchToBinary();
+                    delta = acceptedFeatures.contains(ProtocolFeature.DELTA);
+                }
+                return response;
+            }
+        }
+        return serde.deserialize(message);
     }
 
     /**
-     * Read a message from the socket thanks to the BufferedReader.
+     * Parse the features accepted by the client.
      *
-     * @return (String) the message that has been read
+     * @param message the first line sent by the client
+     * @return (Set) the features named in the line, empty if it isn't a list of features but a response
      */
-    private String readMessage() {
-        try {
-            return reader.readLine();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+    private Set<ProtocolFeature> features(String message) {
+        final Set<ProtocolFeature> features = EnumSet.noneOf(ProtocolFeature.class);
+        for (String name : message.split(Pattern.quote(" "), -1)) {
+            final ProtocolFeature feature = ProtocolFeature.ALL.stream()
+                    .filter(f -> f.name().equals(name))
+                    .findFirst()
+                    .orElse(null);
+            if (feature == null || !offeredFeatures.contains(feature))
+                return EnumSet.noneOf(ProtocolFeature.class);
+            features.add(feature);
         }
+        return features;
     }
 
     /**
-     * Write in the BufferedWriter built with the socket the serialize information that this method has been called
+     * Write in the channel built with the socket the serialize information that this method has been called
      * and so the graphic interface must be updated displaying the name of the players.
      *
      * @param ownId       Id of the player (self)
@@ -74,26 +220,34 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
-        StringJoiner joiner = new StringJoiner(" ");
-        joiner.add(Serdes.PLAYER_ID.serialize(ownId))
-                .add(Serdes.L_STRING.serialize(new ArrayList<>(playerNames.values())));
+        final List<String> names = new ArrayList<>(playerNames.values());
+        final boolean offerFeatures = !offeredFeatures.isEmpty() && !channel.isBinary();
+        featuresOffered = offerFeatures;
 
-        writeMessage(MessageId.INIT_PLAYERS, joiner.toString());
+        writeMessage(MessageId.INIT_PLAYERS, text -> {
+            Serdes.PLAYER_ID.serialize(ownId, text);
+            Serdes.L_STRING.serialize(names, text.append(' '));
+            if (offerFeatures)
+                offeredFeatures.stream().sorted().forEach(feature -> text.append(' ').append(feature.name()));
+        }, frame -> {
+            BinarySerdes.PLAYER_ID.serialize(ownId, frame);
+            BinarySerdes.L_STRING.serialize(names, frame);
+        });
     }
 
     /**
-     * Write in the BufferedWriter built with the socket the serialize information that this method has been called
+     * Write in the channel built with the socket the serialize information that this method has been called
      * and so the graphic interface must be updated displaying info.
      *
      * @param info Information to give to the player, parsed by the class {@link ch.epfl.tchu.gui.Info}
      */
     @Override
     public void receiveInfo(String info) {
-        writeMessage(MessageId.RECEIVE_INFO, Serdes.STRING.serialize(info));
+        writeMessage(MessageId.RECEIVE_INFO, Serdes.STRING, BinarySerdes.STRING, info);
     }
 
     /**
-     * Write in the BufferedWriter built with the socket the serialize information that this method
+     * Write in the channel built with the socket the serialize information that this method
      * has been called and so the graphic interface must be updated given the new PublicGameState and PlayerState.
      *
      * @param newState new state of the game
@@ -101,15 +255,26 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public void updateState(PublicGameState newState, PlayerState ownState) {
-        StringJoiner joiner = new StringJoiner(" ");
-        joiner.add(Serdes.SC_PUBLIC_GAME_STATE.serialize(newState))
-                .add(Serdes.SC_PLAYER_STATE.serialize(ownState));
+        if (delta && deltaState.hasState()) {
+            final ByteBuffer frame = channel.newFrame().put((byte) MessageId.UPDATE_STATE_DELTA.ordinal());
+            deltaState.writeDelta(newState, ownState, frame);
+            channel.writeFrame();
+            return;
+        }
 
-        writeMessage(MessageId.UPDATE_STATE, joiner.toString());
+        writeMessage(MessageId.UPDATE_STATE, text -> {
+            Serdes.SC_PUBLIC_GAME_STATE.serialize(newState, text);
+            Serdes.SC_PLAYER_STATE.serialize(ownState, text.append(' '));
+        }, frame -> {
+            BinarySerdes.SC_PUBLIC_GAME_STATE.serialize(newState, frame);
+            BinarySerdes.SC_PLAYER_STATE.serialize(ownState, frame);
+        });
+        if (delta)
+            deltaState.set(newState, ownState);
     }
 
     /**
-     * Write in the BufferedWriter built with the socket the serialize information that this method
+     * Write in the channel built with the socket the serialize information that this method
      * has been called and so the graphic interface must be updated displaying the tickets for the initial ticket.
      * choice for the player
      *
@@ -117,39 +282,39 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
-        writeMessage(MessageId.SET_INITIAL_TICKETS, Serdes.SB_TICKET.serialize(tickets));
+        writeMessage(MessageId.SET_INITIAL_TICKETS, Serdes.SB_TICKET, BinarySerdes.SB_TICKET, tickets);
     }
 
     /**
-     * Firstly, write in the BufferedWriter built with the socket the serialize information that this method
+     * Firstly, write in the channel built with the socket the serialize information that this method
      * has been called and so the graphic interface must be updated.<p> Then, wait for the player to choose its initial
-     * tickets, looking at the BufferedReader built with the socket and deserialize the message to pass the information.
+     * tickets, looking at the channel built with the socket and deserialize the message to pass the information.
      *
      * @return SortedBag<Ticket> - the tickets that the player has chosen
      */
     @Override
     public SortedBag<Ticket> chooseInitialTickets() {
-        writeMessage(MessageId.CHOOSE_INITIAL_TICKETS, EMPTY_SERDE);
-        return Serdes.SB_TICKET.deserialize(readMessage());
+        writeMessage(MessageId.CHOOSE_INITIAL_TICKETS);
+        return readMessage(Serdes.SB_TICKET, BinarySerdes.SB_TICKET);
     }
 
     /**
-     * Firstly, write in the BufferedWriter built with the socket the serialize information that this method
+     * Firstly, write in the channel built with the socket the serialize information that this method
      * has been called and so the graphic interface must be updated.<p> Then, wait for the player to choose the kind of
-     * its turn, looking at the BufferedReader built with the socket and deserialize the message to pass the information.
+     * its turn, looking at the channel built with the socket and deserialize the message to pass the information.
      *
      * @return TurnKind - the kind of turn that the player decided to play
      */
     @Override
     public TurnKind nextTurn() {
-        writeMessage(MessageId.NEXT_TURN, EMPTY_SERDE);
-        return Serdes.TURN_KIND.deserialize(readMessage());
+        writeMessage(MessageId.NEXT_TURN);
+        return readMessage(Serdes.TURN_KIND, BinarySerdes.TURN_KIND);
     }
 
     /**
-     * Firstly, write in the BufferedWriter built with the socket the serialize information that this method
+     * Firstly, write in the channel built with the socket the serialize information that this method
      * has been called with a SortedBag of tickets and so the graphic interface must be updated.<p> Then,
-     * wait for the player to choose the tickets that he will keep, looking at the BufferedReader built with the
+     * wait for the player to choose the tickets that he will keep, looking at the channel built with the
      * socket and deserialize the message to pass the information.
      *
      * @param options the tickets drawn by the player
@@ -157,57 +322,57 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
-        writeMessage(MessageId.CHOOSE_TICKETS, Serdes.SB_TICKET.serialize(options));
-        return Serdes.SB_TICKET.deserialize(readMessage());
+        writeMessage(MessageId.CHOOSE_TICKETS, Serdes.SB_TICKET, BinarySerdes.SB_TICKET, options);
+        return readMessage(Serdes.SB_TICKET, BinarySerdes.SB_TICKET);
     }
 
     /**
-     * Firstly, write in the BufferedWriter built with the socket the serialize information that this method
+     * Firstly, write in the channel built with the socket the serialize information that this method
      * has been called and so the graphic interface must be updated.<p> Then, wait for the player to choose the
-     * slot of the card that he will keep, looking at the BufferedReader built with the socket and deserialize the
+     * slot of the card that he will keep, looking at the channel built with the socket and deserialize the
      * message to pass the information.
      *
      * @return int - the slot of the card that the player has chosen
      */
     @Override
     public int drawSlot() {
-        writeMessage(MessageId.DRAW_SLOT, EMPTY_SERDE);
-        return Serdes.INT.deserialize(readMessage());
+        writeMessage(MessageId.DRAW_SLOT);
+        return readMessage(Serdes.INT, BinarySerdes.INT);
     }
 
     /**
-     * Firstly, write in the BufferedWriter built with the socket the serialize information that this method
+     * Firstly, write in the channel built with the socket the serialize information that this method
      * has been called and so the graphic interface must be updated.<p> Then, wait for the player to choose the
-     * route that he is claiming, looking at the BufferedReader built with the socket and deserialize the message to
+     * route that he is claiming, looking at the channel built with the socket and deserialize the message to
      * pass the information.
      *
      * @return Route - the route that the player is trying to get
      */
     @Override
     public Route claimedRoute() {
-        writeMessage(MessageId.ROUTE, EMPTY_SERDE);
-        return Serdes.ROUTE.deserialize(readMessage());
+        writeMessage(MessageId.ROUTE);
+        return readMessage(Serdes.ROUTE, BinarySerdes.ROUTE);
     }
 
     /**
-     * Firstly, write in the BufferedWriter built with the socket the serialize information that this method
+     * Firstly, write in the channel built with the socket the serialize information that this method
      * has been called and so the graphic interface must be updated.<p> Then, wait for the player to choose the
-     * cards that he wants to play, looking at the BufferedReader built with the socket and deserialize the message to
+     * cards that he wants to play, looking at the channel built with the socket and deserialize the message to
      * pass the information.
      *
      * @return SortedBag<Card> - the cards that the player is playing to claim a Route
      */
     @Override
     public SortedBag<Card> initialClaimCards() {
-        writeMessage(MessageId.CARDS, EMPTY_SERDE);
-        return Serdes.SB_CARD.deserialize(readMessage());
+        writeMessage(MessageId.CARDS);
+        return readMessage(Serdes.SB_CARD, BinarySerdes.SB_CARD);
     }
 
     /**
-     * Firstly, write in the BufferedWriter built with the socket the serialize information that this method
+     * Firstly, write in the channel built with the socket the serialize information that this method
      * has been called with a list of SortedBag of cards (player's option) and so the graphic interface must be updated.
      * <p> Then, wait for the player to choose the cards (or no cards) that he wants to play for the Route, looking at
-     * the BufferedReader built with the socket and deserialize the message to pass the information.
+     * the channel built with the socket and deserialize the message to pass the information.
      *
      * @param options the additional cards to claim the tunnel
      * @return SortedBag<Card> - the cards that the player is (or not) adding to the initial cards according
@@ -215,7 +380,7 @@ public final class RemotePlayerProxy implements Player {
      */
     @Override
     public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
-        writeMessage(MessageId.CHOOSE_ADDITIONAL_CARDS, Serdes.L_SB_CARD.serialize(options));
-        return Serdes.SB_CARD.deserialize(readMessage());
+        writeMessage(MessageId.CHOOSE_ADDITIONAL_CARDS, Serdes.L_SB_CARD, BinarySerdes.L_SB_CARD, options);
+        return readMessage(Serdes.SB_CARD, BinarySerdes.SB_CARD);
     }
 }
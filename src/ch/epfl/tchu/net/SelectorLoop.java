@@ -0,0 +1,98 @@
+package ch.epfl.tchu.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * <h1>SelectorLoop</h1>
+ * Thread loop of a {@link Selector}, handling the ready channels registered in it with the {@link Handler} attached to
+ * their key. The other threads act on the channels by giving tasks to the loop, run by its thread between two
+ * selections.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+final class SelectorLoop implements Runnable, Closeable {
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    /**
+     * Handler of the operations ready on a channel, attached to its key.
+     */
+    interface Handler {
+        /**
+         * Handle the operations ready on the channel of the key.
+         *
+         * @param key the selected key
+         */
+        void handle(SelectionKey key);
+    }
+
+    /**
+     * Construct a SelectorLoop with a new Selector.
+     */
+    SelectorLoop() {
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Getter for the selector, in which the channels are registered by tasks of the loop.
+     *
+     * @return (Selector) the selector
+     */
+    Selector selector() {
+        return selector;
+    }
+
+    /**
+     * Give a task to the loop, which runs it on its thread as soon as possible, the tasks being run in the order they
+     * were given.
+     *
+     * @param task the task
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Select and handle the ready channels, and run the tasks, until the loop is closed.
+     */
+    @Override
+    public void run() {
+        try {
+            while (!closed) {
+                selector.select(key -> ((Handler) key.attachment()).handle(key));
+
+                Runnable task;
+                while ((task = tasks.poll()) != null)
+                    task.run();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Stop the loop, closing its selector.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+}
@@ -8,6 +8,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.StringJoiner;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.regex.Pattern;
 
 /**
@@ -57,14 +58,16 @@ public interface Serde<T> {
     }
 
     /**
-     * Static method that build a Serde able to (de)serialize one object in the list of parameter < T >.
+     * Static method that build a Serde able to (de)serialize one object in the list of parameter < T >. The indices
+     * of the objects are precomputed, see {@link ListIndex}.
      *
      * @param list list of the objects that will potentially be (de)serialize
      * @param <T>  the type of the elements that compose the list
      * @return a Serde able to (de)serialize object from the list according to its index in it
      */
     static <T> Serde<T> oneOf(List<T> list) {
-        return Serde.of(i -> Integer.toString(list.indexOf(i)), s -> list.get(Integer.parseInt(s)));
+        final ToIntFunction<T> index = ListIndex.of(list);
+        return Serde.of(i -> Integer.toString(index.applyAsInt(i)), s -> list.get(Integer.parseInt(s)));
     }
 
     /**
@@ -1,5 +1,6 @@
 package ch.epfl.tchu.net;
 
+import ch.epfl.tchu.Preconditions;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 
@@ -7,14 +8,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
-import java.util.StringJoiner;
-import java.util.function.Function;
-import java.util.regex.Pattern;
 
 
 /**
  * <h1>Serdes</h1>
- * Defines every constant related to serialization and deserialization processes for the elements of the game.
+ * Defines every constant related to serialization and deserialization processes for the elements of the game. They
+ * are {@link CursorSerde}s, so that the messages can be built in and parsed from a single sequence of characters.
  *
  * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
  */
@@ -30,172 +29,191 @@ public final class Serdes { //TODO abstract is necessary ?
     /**
      * A Serde able to (de)serialize an Integer.
      */
-    public static final Serde<Integer> INT = Serde.of(i -> Integer.toString(i), Integer::parseInt);
+    public static final CursorSerde<Integer> INT = CursorSerde.ofInt();
     /**
      * A Serde able to (de)serialize a String.
      */
-    public static final Serde<String> STRING = Serde.of(i -> Base64.getEncoder().encodeToString(i.getBytes(StandardCharsets.UTF_8)), i -> new String(Base64.getDecoder().decode(i.getBytes(StandardCharsets.UTF_8))));
+    public static final CursorSerde<String> STRING = CursorSerde.of(Serdes::serializeString, Serdes::deserializeString);
     /**
      * A Serde able to (de)serialize one element of the PlayerId enum.
      */
-    public static final Serde<PlayerId> PLAYER_ID = Serde.oneOf(PlayerId.ALL);
+    public static final CursorSerde<PlayerId> PLAYER_ID = CursorSerde.oneOf(PlayerId.ALL);
     /**
      * A Serde able to (de)serialize one element of the TurnKind enum.
      */
-    public static final Serde<Player.TurnKind> TURN_KIND = Serde.oneOf(Player.TurnKind.ALL);
+    public static final CursorSerde<Player.TurnKind> TURN_KIND = CursorSerde.oneOf(Player.TurnKind.ALL);
     /**
      * A Serde able to (de)serialize one element of the Card enum.
      */
-    public static final Serde<Card> CARD = Serde.oneOf(Card.ALL);
+    public static final CursorSerde<Card> CARD = CursorSerde.oneOf(Card.ALL);
     /**
      * A Serde able to (de)serialize one element of the Routes that compose the Game.
      */
-    public static final Serde<Route> ROUTE = Serde.oneOf(ChMap.routes());
+    public static final CursorSerde<Route> ROUTE = CursorSerde.oneOf(ChMap.routes());
     /**
      * A Serde able to (de)serialize one element of the Tickets that compose the Game.
      */
-    public static final Serde<Ticket> TICKET = Serde.oneOf(ChMap.tickets());
+    public static final CursorSerde<Ticket> TICKET = CursorSerde.oneOf(ChMap.tickets());
 
     //Collections
     /**
      * A Serde able to (de)serialize a whole list of Strings.
      */
-    public static final Serde<List<String>> L_STRING = Serde.listOf(STRING, SEPARATOR_COMMA);
+    public static final CursorSerde<List<String>> L_STRING = CursorSerde.listOf(STRING, SEPARATOR_COMMA);
     /**
      * A Serde able to (de)serialize a whole list of Cards.
      */
-    public static final Serde<List<Card>> L_CARD = Serde.listOf(CARD, SEPARATOR_COMMA);
+    public static final CursorSerde<List<Card>> L_CARD = CursorSerde.listOf(CARD, SEPARATOR_COMMA);
     /**
      * A Serde able to (de)serialize a whole list of Routes.
      */
-    public static final Serde<List<Route>> L_ROUTE = Serde.listOf(ROUTE, SEPARATOR_COMMA);
+    public static final CursorSerde<List<Route>> L_ROUTE = CursorSerde.listOf(ROUTE, SEPARATOR_COMMA);
     /**
      * A Serde able to (de)serialize a whole SortedBag of Cards.
      */
-    public static final Serde<SortedBag<Card>> SB_CARD = Serde.bagOf(CARD, SEPARATOR_COMMA);
+    public static final CursorSerde<SortedBag<Card>> SB_CARD = CursorSerde.bagOf(CARD, SEPARATOR_COMMA);
     /**
      * A Serde able to (de)serialize a whole SortedBag of Tickets.
      */
-    public static final Serde<SortedBag<Ticket>> SB_TICKET = Serde.bagOf(TICKET, SEPARATOR_COMMA);
+    public static final CursorSerde<SortedBag<Ticket>> SB_TICKET = CursorSerde.bagOf(TICKET, SEPARATOR_COMMA);
     /**
      * A Serde able to (de)serialize a whole list of SortedBag of Cards.
      */
-    public static final Serde<List<SortedBag<Card>>> L_SB_CARD = Serde.listOf(SB_CARD, SEPARATOR_SEMI_COLON);
+    public static final CursorSerde<List<SortedBag<Card>>> L_SB_CARD = CursorSerde.listOf(SB_CARD, SEPARATOR_SEMI_COLON);
 
     //Serializable Classes
     /**
      * A Serde able to (de)serialize a Public Card State.
      */
-    public static final Serde<PublicCardState> SC_PUBLIC_CARD_STATE = Serde.of(pcsSerFunction(), pcsDeSerFunction());
+    public static final CursorSerde<PublicCardState> SC_PUBLIC_CARD_STATE = CursorSerde.of(Serdes::serializePcs, Serdes::deserializePcs);
     /**
      * A Serde able to (de)serialize a Public Player State.
      */
-    public static final Serde<PublicPlayerState> SC_PUBLIC_PLAYER_STATE = Serde.of(ppsSerFunction(), ppsDeSerFunction());
+    public static final CursorSerde<PublicPlayerState> SC_PUBLIC_PLAYER_STATE = CursorSerde.of(Serdes::serializePps, Serdes::deserializePps);
     /**
      * A Serde able to (de)serialize a Player State.
      */
-    public static final Serde<PlayerState> SC_PLAYER_STATE = Serde.of(psSerFunction(), psDeSerFunction());
+    public static final CursorSerde<PlayerState> SC_PLAYER_STATE = CursorSerde.of(Serdes::serializePs, Serdes::deserializePs);
     /**
      * A Serde able to (de)serialize a Public Game State.
      */
-    public static final Serde<PublicGameState> SC_PUBLIC_GAME_STATE = Serde.of(pgsSerFunction(), pgsDeSerFunction());
+    public static final CursorSerde<PublicGameState> SC_PUBLIC_GAME_STATE = CursorSerde.of(Serdes::serializePgs, Serdes::deserializePgs);
 
     //private methods
     /**
-     * @return the function able to serialize a PublicGameState
-     */
-    private static Function<PublicGameState, String> pgsSerFunction() {
-        return publicGameState -> {
-            StringJoiner joiner = new StringJoiner(Character.toString(SEPARATOR_DOUBLE_POINTS));
-            joiner.add(INT.serialize(publicGameState.ticketsCount()))
-                    .add(SC_PUBLIC_CARD_STATE.serialize(publicGameState.cardState()))
-                    .add(PLAYER_ID.serialize(publicGameState.currentPlayerId()))
-                    .add(SC_PUBLIC_PLAYER_STATE.serialize(publicGameState.playerState(PlayerId.PLAYER_1)))
-                    .add(SC_PUBLIC_PLAYER_STATE.serialize(publicGameState.playerState(PlayerId.PLAYER_2)))
-                    .add((publicGameState.lastPlayer() == null) ? "" : PLAYER_ID.serialize(publicGameState.lastPlayer()));
-            return joiner.toString();
-        };
+     * Append the Base64 encoding of the UTF-8 bytes of a String.
+     */
+    private static void serializeString(String string, StringBuilder builder) {
+        for (byte b : Base64.getEncoder().encode(string.getBytes(StandardCharsets.UTF_8)))
+            builder.append((char) b);
+    }
+
+    /**
+     * Decode a String from the region of its Base64 encoding.
+     */
+    private static String deserializeString(CharSequence text, int start, int end) {
+        final byte[] encoded = new byte[end - start];
+        for (int i = start; i < end; i++)
+            encoded[i - start] = (byte) text.charAt(i);
+        return new String(Base64.getDecoder().decode(encoded), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Append the serialization of a PublicGameState.
+     */
+    private static void serializePgs(PublicGameState publicGameState, StringBuilder builder) {
+        INT.serialize(publicGameState.ticketsCount(), builder);
+        SC_PUBLIC_CARD_STATE.serialize(publicGameState.cardState(), builder.append(SEPARATOR_DOUBLE_POINTS));
+        PLAYER_ID.serialize(publicGameState.currentPlayerId(), builder.append(SEPARATOR_DOUBLE_POINTS));
+        SC_PUBLIC_PLAYER_STATE.serialize(publicGameState.playerState(PlayerId.PLAYER_1), builder.append(SEPARATOR_DOUBLE_POINTS));
+        SC_PUBLIC_PLAYER_STATE.serialize(publicGameState.playerState(PlayerId.PLAYER_2), builder.append(SEPARATOR_DOUBLE_POINTS));
+        builder.append(SEPARATOR_DOUBLE_POINTS);
+        if (publicGameState.lastPlayer() != null)
+            PLAYER_ID.serialize(publicGameState.lastPlayer(), builder);
     }
 
     /**
-     * @return the function able to deserialize a PublicGameState
+     * Read a PublicGameState from the region of its serialization.
      */
-    private static Function<String, PublicGameState> pgsDeSerFunction() {
-        return message -> {
-            String[] t = message.split(Pattern.quote(Character.toString(SEPARATOR_DOUBLE_POINTS)), -1);
-            return new PublicGameState(INT.deserialize(t[0]), SC_PUBLIC_CARD_STATE.deserialize(t[1]), PLAYER_ID.deserialize(t[2]),
-                    Map.of(PlayerId.PLAYER_1, SC_PUBLIC_PLAYER_STATE.deserialize(t[3]), PlayerId.PLAYER_2,
-                            SC_PUBLIC_PLAYER_STATE.deserialize(t[4])), (t[5].equals("")) ? null : PLAYER_ID.deserialize(t[5]));
-        };
+    private static PublicGameState deserializePgs(CharSequence text, int start, int end) {
+        final int[] t = fields(text, SEPARATOR_DOUBLE_POINTS, start, end, 6);
+        return new PublicGameState(INT.deserialize(text, t[0], t[1] - 1),
+                SC_PUBLIC_CARD_STATE.deserialize(text, t[1], t[2] - 1),
+                PLAYER_ID.deserialize(text, t[2], t[3] - 1),
+                Map.of(PlayerId.PLAYER_1, SC_PUBLIC_PLAYER_STATE.deserialize(text, t[3], t[4] - 1),
+                        PlayerId.PLAYER_2, SC_PUBLIC_PLAYER_STATE.deserialize(text, t[4], t[5] - 1)),
+                t[5] == end ? null : PLAYER_ID.deserialize(text, t[5], end));
+    }
 
+    /**
+     * Append the serialization of a PlayerState.
+     */
+    private static void serializePs(PlayerState playerState, StringBuilder builder) {
+        SB_TICKET.serialize(playerState.tickets(), builder);
+        SB_CARD.serialize(playerState.cards(), builder.append(SEPARATOR_SEMI_COLON));
+        L_ROUTE.serialize(playerState.routes(), builder.append(SEPARATOR_SEMI_COLON));
     }
 
     /**
-     * @return the function able to serialize a PlayerState
+     * Read a PlayerState from the region of its serialization.
      */
-    private static Function<PlayerState, String> psSerFunction() {
-        return playerState -> {
-            StringJoiner joiner = new StringJoiner(Character.toString(SEPARATOR_SEMI_COLON));
-            joiner.add(SB_TICKET.serialize(playerState.tickets()))
-                    .add(SB_CARD.serialize(playerState.cards()))
-                    .add(L_ROUTE.serialize(playerState.routes()));
-            return joiner.toString();
-        };
+    private static PlayerState deserializePs(CharSequence text, int start, int end) {
+        final int[] t = fields(text, SEPARATOR_SEMI_COLON, start, end, 3);
+        return new PlayerState(SB_TICKET.deserialize(text, t[0], t[1] - 1), SB_CARD.deserialize(text, t[1], t[2] - 1),
+                L_ROUTE.deserialize(text, t[2], end));
     }
 
     /**
-     * @return the function able to deserialize a PlayerState
+     * Append the serialization of a PublicPlayerState.
      */
-    private static Function<String, PlayerState> psDeSerFunction() {
-        return message -> {
-            String[] t = message.split(Pattern.quote(Character.toString(SEPARATOR_SEMI_COLON)), -1);
-            return new PlayerState((t[0].equals("")) ? SortedBag.of() : SB_TICKET.deserialize(t[0]), (t[1].equals("")) ? SortedBag.of() : SB_CARD.deserialize(t[1]), (t[2].equals("")) ? List.of() : L_ROUTE.deserialize(t[2]));
-        };
+    private static void serializePps(PublicPlayerState publicPlayerState, StringBuilder builder) {
+        INT.serialize(publicPlayerState.ticketCount(), builder);
+        INT.serialize(publicPlayerState.cardCount(), builder.append(SEPARATOR_SEMI_COLON));
+        builder.append(SEPARATOR_SEMI_COLON);
+        if (publicPlayerState.routes() != null)
+            L_ROUTE.serialize(publicPlayerState.routes(), builder);
     }
 
     /**
-     * @return the function able to serialize a PublicPlayerState
+     * Read a PublicPlayerState from the region of its serialization.
      */
-    private static Function<PublicPlayerState, String> ppsSerFunction() {
-        return publicPlayerState -> {
-            StringJoiner joiner = new StringJoiner(Character.toString(SEPARATOR_SEMI_COLON));
-            joiner.add(INT.serialize(publicPlayerState.ticketCount()))
-                    .add(INT.serialize(publicPlayerState.cardCount()))
-                    .add((publicPlayerState.routes() == null) ? "" : L_ROUTE.serialize(publicPlayerState.routes()));
-            return joiner.toString();
-        };
+    private static PublicPlayerState deserializePps(CharSequence text, int start, int end) {
+        final int[] t = fields(text, SEPARATOR_SEMI_COLON, start, end, 3);
+        return new PublicPlayerState(INT.deserialize(text, t[0], t[1] - 1), INT.deserialize(text, t[1], t[2] - 1),
+                L_ROUTE.deserialize(text, t[2], end));
     }
 
     /**
-     * @return the function able to deserialize a PublicPlayerState
+     * Append the serialization of a PublicCardState.
      */
-    private static Function<String, PublicPlayerState> ppsDeSerFunction() {
-        return message -> {
-            String[] t = message.split(Pattern.quote(Character.toString(SEPARATOR_SEMI_COLON)), -1);
-            return new PublicPlayerState(INT.deserialize(t[0]), INT.deserialize(t[1]), (t[2].equals("")) ? List.of() : L_ROUTE.deserialize(t[2]));
-        };
+    private static void serializePcs(PublicCardState publicCardState, StringBuilder builder) {
+        L_CARD.serialize(publicCardState.faceUpCards(), builder);
+        INT.serialize(publicCardState.deckSize(), builder.append(SEPARATOR_SEMI_COLON));
+        INT.serialize(publicCardState.discardsSize(), builder.append(SEPARATOR_SEMI_COLON));
     }
 
     /**
-     * @return the function able to deserialize a PublicCardState
+     * Read a PublicCardState from the region of its serialization.
      */
-    private static Function<PublicCardState, String> pcsSerFunction() {
-        return publicCardState -> {
-            StringJoiner joiner = new StringJoiner(Character.toString(SEPARATOR_SEMI_COLON));
-            joiner.add(L_CARD.serialize(publicCardState.faceUpCards()))
-                    .add(INT.serialize(publicCardState.deckSize()))
-                    .add(INT.serialize(publicCardState.discardsSize()));
-            return joiner.toString();
-        };
+    private static PublicCardState deserializePcs(CharSequence text, int start, int end) {
+        final int[] t = fields(text, SEPARATOR_SEMI_COLON, start, end, 3);
+        return new PublicCardState(L_CARD.deserialize(text, t[0], t[1] - 1), INT.deserialize(text, t[1], t[2] - 1),
+                INT.deserialize(text, t[2], end));
     }
 
     /**
-     * @return the function able to deserialize a PublicCardState
+     * Find the starts of the fields of a region, the field i ending one character before the start of the field i + 1.
+     *
+     * @throws IllegalArgumentException if the region doesn't have the given number of fields
      */
-    private static Function<String, PublicCardState> pcsDeSerFunction() {
-        return message -> {
-            String[] t = message.split(Pattern.quote(Character.toString(SEPARATOR_SEMI_COLON)), -1);
-            return new PublicCardState(L_CARD.deserialize(t[0]), INT.deserialize(t[1]), INT.deserialize(t[2]));
-        };
+    private static int[] fields(CharSequence text, char separator, int start, int end, int count) {
+        final int[] starts = new int[count];
+        starts[0] = start;
+        for (int i = 1; i < count; i++) {
+            final int separatorIndex = CursorSerde.indexOf(text, separator, starts[i - 1], end);
+            Preconditions.checkArgument(separatorIndex < end);
+            starts[i] = separatorIndex + 1;
+        }
+        return starts;
     }
 }
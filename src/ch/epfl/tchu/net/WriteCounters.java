@@ -0,0 +1,85 @@
+package ch.epfl.tchu.net;
+
+/**
+ * <h1>WriteCounters</h1>
+ * Counters of what has been written on a connection, showing what coalescing its writes saves : the messages written
+ * without a flush of their own are sent along with the following ones, in a single system call and, most of the time,
+ * a single TCP segment.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class WriteCounters {
+    /**
+     * Size of the headers of a TCP segment over IPv4, without options, used to estimate the bytes saved.
+     */
+    public static final int SEGMENT_HEADER_SIZE = 40;
+
+    private volatile long messages;
+    private volatile long bytes;
+    private volatile long flushes;
+
+    WriteCounters() {
+    }
+
+    /**
+     * Getter for the number of messages written.
+     *
+     * @return (long) the number of messages written
+     */
+    public long messages() {
+        return messages;
+    }
+
+    /**
+     * Getter for the number of bytes written.
+     *
+     * @return (long) the number of bytes of the messages written, line ends and frame lengths included
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Getter for the number of flushes, each of them being a system call sending what has been written since the
+     * previous one.
+     *
+     * @return (long) the number of flushes which sent at least one message
+     */
+    public long flushes() {
+        return flushes;
+    }
+
+    /**
+     * Getter for the number of flushes saved, compared to flushing the connection after each message.
+     *
+     * @return (long) the number of messages written minus the number of flushes
+     */
+    public long flushesSaved() {
+        return messages - flushes;
+    }
+
+    /**
+     * Getter for an estimation of the bytes saved, compared to flushing the connection after each message.
+     *
+     * @return (long) the size of the headers of the segments saved, assuming each flush sends one segment
+     */
+    public long bytesSaved() {
+        return flushesSaved() * SEGMENT_HEADER_SIZE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d messages, %d bytes, %d flushes (%d flushes and about %d bytes saved)",
+                messages, bytes, flushes, flushesSaved(), bytesSaved());
+    }
+
+    // called by the channel, while holding its lock
+    void messageWritten(int size) {
+        messages++;
+        bytes += size;
+    }
+
+    void flushed() {
+        flushes++;
+    }
+}
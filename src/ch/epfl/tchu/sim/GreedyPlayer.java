@@ -0,0 +1,308 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+import ch.epfl.tchu.game.Trip;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**<h1>GreedyPlayer</h1>
+ * Headless player planning the routes of its tickets along the precomputed {@link ShortestPaths}, for the opponents
+ * which must cost almost nothing. For each ticket not yet completed, it follows the shortest path of its cheapest trip
+ * and wants the routes of the path it doesn't have yet, giving up the trip when one of them is taken by another
+ * player. It then claims the longest route it wants as soon as it can, draws the cards these routes need otherwise, and
+ * claims the longest routes it can once all its tickets are completed.
+ * <p>
+ * The plan is computed again after each update of the state, with array lookups only, the paths being followed in the
+ * precomputed tables instead of being searched.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class GreedyPlayer implements Player {
+    private static final List<Route> ROUTES = ChMap.routes();
+    private static final int NO_OWNER = -1;
+    private static final int NO_ROUTE = -1;
+    private static final int MIN_UNPLANNED_LENGTH = 3;
+
+    private final int[] owners = new int[ROUTES.size()];
+    private final int[] components = new int[ShortestPaths.STATION_COUNT];
+    private final boolean[] wanted = new boolean[ROUTES.size()];
+    private final int[] neededCards = new int[Card.COUNT];
+    private int neededNeutralCards;
+    private int wantedCars;
+    private boolean planned;
+
+    private PlayerId ownId;
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTickets;
+    private int routeToClaim = NO_ROUTE;
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        this.ownId = ownId;
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+        this.planned = false;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        this.initialTickets = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return keptTickets(initialTickets, Constants.INITIAL_TICKETS_COUNT - Constants.DISCARDABLE_TICKETS_COUNT);
+    }
+
+    @Override
+    public TurnKind nextTurn() {
+        plan();
+
+        routeToClaim = longestClaimableRoute(true);
+        if (routeToClaim == NO_ROUTE && wantedCars == 0) {
+            routeToClaim = longestClaimableRoute(false);
+            if (routeToClaim != NO_ROUTE && ROUTES.get(routeToClaim).length() < MIN_UNPLANNED_LENGTH && gameState.canDrawCards())
+                routeToClaim = NO_ROUTE;
+        }
+        if (routeToClaim != NO_ROUTE)
+            return TurnKind.CLAIM_ROUTE;
+
+        if (gameState.canDrawCards())
+            return TurnKind.DRAW_CARDS;
+
+        routeToClaim = longestClaimableRoute(false);
+        if (routeToClaim != NO_ROUTE)
+            return TurnKind.CLAIM_ROUTE;
+        return gameState.canDrawTickets() ? TurnKind.DRAW_TICKETS : TurnKind.DRAW_CARDS;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return keptTickets(options, 1);
+    }
+
+    @Override
+    public int drawSlot() {
+        plan();
+
+        int bestSlot = gameState.cardState().isDeckEmpty() ? 0 : Constants.DECK_SLOT;
+        int bestScore = 0;
+        for (int slot : Constants.FACE_UP_CARD_SLOTS) {
+            final Card card = gameState.cardState().faceUpCard(slot);
+            final int held = ownState.cards().countOf(card);
+            // the cards missing for the wanted routes of its color, or else the ones of the neutral routes
+            int score = neededCards[card.ordinal()] - held;
+            if (score <= 0 && card != Card.LOCOMOTIVE && neededNeutralCards > held)
+                score = 1;
+            if (score > bestScore) {
+                bestSlot = slot;
+                bestScore = score;
+            }
+        }
+        return bestSlot;
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return ROUTES.get(routeToClaim);
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        // the cards the least needed by the other wanted routes
+        final List<SortedBag<Card>> options = Turns.fewestLocomotives(ownState.possibleClaimCards(claimedRoute()));
+        SortedBag<Card> best = options.get(0);
+        for (SortedBag<Card> option : options) {
+            if (neededCards[option.get(0).ordinal()] < neededCards[best.get(0).ordinal()])
+                best = option;
+        }
+        return best;
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return options.isEmpty() ? SortedBag.of() : options.get(0);
+    }
+
+    /**
+     * Computes the owners of the routes, the stations connected by the player's routes and the routes it wants, with
+     * the cards they need, unless they are up to date.
+     */
+    private void plan() {
+        if (planned)
+            return;
+        planned = true;
+
+        Arrays.fill(owners, NO_OWNER);
+        for (PlayerId playerId : PlayerId.ALL) {
+            for (Route route : gameState.playerState(playerId).routes())
+                owners[ShortestPaths.index(route)] = playerId.ordinal();
+        }
+        for (int station = 0; station < components.length; station++)
+            components[station] = station;
+        for (Route route : ownState.routes())
+            components[component(route.station1().id())] = component(route.station2().id());
+
+        Arrays.fill(wanted, false);
+        Arrays.fill(neededCards, 0);
+        neededNeutralCards = 0;
+        wantedCars = 0;
+        for (Ticket ticket : ownState.tickets()) {
+            final Trip trip = cheapestTrip(ticket);
+            if (trip != null)
+                want(trip.from().id(), trip.to().id());
+        }
+    }
+
+    private void want(int from, int to) {
+        for (int station = from; station != to; ) {
+            final int route = ShortestPaths.nextRoute(station, to);
+            if (!owned(route) && !wanted[route]) {
+                final int length = ROUTES.get(route).length();
+                wanted[route] = true;
+                wantedCars += length;
+                needCards(route, length);
+                final int doubleRoute = ShortestPaths.doubleRoute(route);
+                if (doubleRoute != NO_ROUTE) {
+                    wanted[doubleRoute] = true;
+                    needCards(doubleRoute, length);
+                }
+            }
+            station = ShortestPaths.opposite(route, station);
+        }
+    }
+
+    private void needCards(int route, int length) {
+        final Route r = ROUTES.get(route);
+        if (r.color() == null)
+            neededNeutralCards += length;
+        else
+            neededCards[Card.of(r.color()).ordinal()] += length;
+        if (r.level() == Route.Level.UNDERGROUND)
+            neededCards[Card.LOCOMOTIVE.ordinal()]++;
+    }
+
+    /**
+     * Finds the trip of the ticket whose path misses the fewest cars.
+     *
+     * @return the trip, null if the ticket is completed or if the paths of all its trips are blocked
+     */
+    private Trip cheapestTrip(Ticket ticket) {
+        Trip cheapest = null;
+        int cheapestCost = ShortestPaths.UNREACHABLE;
+        for (Trip trip : ticket.trips()) {
+            final int cost = pathCost(trip.from().id(), trip.to().id());
+            if (cost == 0)
+                return null;
+            if (cost < cheapestCost) {
+                cheapest = trip;
+                cheapestCost = cost;
+            }
+        }
+        return cheapest;
+    }
+
+    /**
+     * Computes the number of cars missing to connect the stations along their shortest path.
+     *
+     * @return the number of cars, 0 if the stations are already connected, {@link ShortestPaths#UNREACHABLE} if the
+     * path is blocked by another player
+     */
+    private int pathCost(int from, int to) {
+        if (component(from) == component(to))
+            return 0;
+
+        int cost = 0;
+        for (int station = from; station != to; ) {
+            final int route = ShortestPaths.nextRoute(station, to);
+            if (route == NO_ROUTE)
+                return ShortestPaths.UNREACHABLE;
+            if (!owned(route)) {
+                if (claimed(route))
+                    return ShortestPaths.UNREACHABLE;
+                cost += ROUTES.get(route).length();
+            }
+            station = ShortestPaths.opposite(route, station);
+        }
+        return cost;
+    }
+
+    private SortedBag<Ticket> keptTickets(SortedBag<Ticket> options, int minCount) {
+        plan();
+
+        final List<Ticket> tickets = new ArrayList<>(options.toList());
+        final int[] costs = new int[tickets.size()];
+        for (int i = 0; i < tickets.size(); i++) {
+            int cost = ShortestPaths.UNREACHABLE;
+            for (Trip trip : tickets.get(i).trips())
+                cost = Math.min(cost, pathCost(trip.from().id(), trip.to().id()));
+            costs[i] = cost;
+        }
+        final List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < tickets.size(); i++)
+            order.add(i);
+        order.sort(Comparator.comparingInt(i -> costs[i]));
+
+        // the cheapest tickets it must keep, and the others as long as its cars are enough for them
+        int cars = ownState.carCount() - wantedCars;
+        final SortedBag.Builder<Ticket> kept = new SortedBag.Builder<>();
+        for (int rank = 0; rank < order.size(); rank++) {
+            final int i = order.get(rank);
+            if (rank >= minCount && costs[i] > cars)
+                break;
+            kept.add(tickets.get(i));
+            cars -= costs[i];
+        }
+        return kept.build();
+    }
+
+    private int longestClaimableRoute(boolean wantedOnly) {
+        int longest = NO_ROUTE;
+        for (int route = 0; route < ROUTES.size(); route++) {
+            if ((wantedOnly && !wanted[route]) || claimed(route) || !ownState.canClaimRoute(ROUTES.get(route)))
+                continue;
+            if (longest == NO_ROUTE || ROUTES.get(route).length() > ROUTES.get(longest).length())
+                longest = route;
+        }
+        return longest;
+    }
+
+    private boolean owned(int route) {
+        final int doubleRoute = ShortestPaths.doubleRoute(route);
+        return owners[route] == ownId.ordinal() || (doubleRoute != NO_ROUTE && owners[doubleRoute] == ownId.ordinal());
+    }
+
+    // claimed by any player, itself or its double, in which case it can't be claimed anymore
+    private boolean claimed(int route) {
+        final int doubleRoute = ShortestPaths.doubleRoute(route);
+        return owners[route] != NO_OWNER || (doubleRoute != NO_ROUTE && owners[doubleRoute] != NO_OWNER);
+    }
+
+    private int component(int station) {
+        while (components[station] != station)
+            station = components[station] = components[components[station]];
+        return station;
+    }
+}
@@ -0,0 +1,439 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.GameState;
+import ch.epfl.tchu.game.MutableGameState;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.PublicPlayerState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+
+/**<h1>MctsPlayer</h1>
+ * Headless player searching its moves with a Monte Carlo tree search. The information it doesn't see, namely the cards
+ * and tickets of its opponent and the order of the decks, is sampled anew for each playout with
+ * {@link GameState#determinized(PublicGameState, PlayerId, PlayerState, SortedBag, Random)}, and all the samples share
+ * the same tree, a child only competing with its siblings when its move is legal in the sample (information set
+ * MCTS). The tree's moves are the {@link Move}s of both players, and the playouts are played by the policies of
+ * {@link Turns}. The tickets are chosen by flat Monte Carlo, each subset of the tickets being given the same number of
+ * playouts.
+ * <p>
+ * Each search runs on the given number of threads, the calling one and the others of the common fork-join pool, each
+ * of them growing its own tree whose root statistics are summed at the end (root parallelization). It ends once the
+ * time budget is elapsed or, with a budget of playouts, once they are all played, in which case the player's choices
+ * only depend on its seed and on the game.
+ * <p>
+ * Usage : MctsPlayer [move millis] [threads] [games], playing against the {@link RandomPlayer} and reporting the
+ * playouts per second.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class MctsPlayer implements Player {
+    private static final double EXPLORATION = 0.7;
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+    private static final long DEFAULT_MOVE_MILLIS = 100;
+    private static final int DEFAULT_GAMES = 10;
+    private static final long DEFAULT_MASTER_SEED = 2021;
+
+    private final long seed;
+    private final long budgetNanos;
+    private final int playoutsPerMove;
+    private final int threads;
+    private final Random rng;
+    private int searches;
+    private long playouts;
+    private long searchNanos;
+
+    private PlayerId ownId;
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTickets;
+    private Move move;
+    private boolean firstDraw;
+
+    /**
+     * Constructor of an MctsPlayer searching each of its moves for the given time.
+     *
+     * @param seed     the seed from which the Randoms of the player are derived
+     * @param moveTime the time budget of each move
+     * @param threads  the number of threads searching each move
+     * @throws IllegalArgumentException if moveTime or threads isn't strictly positive
+     */
+    public MctsPlayer(long seed, Duration moveTime, int threads) {
+        this(seed, moveTime.toNanos(), Integer.MAX_VALUE, threads);
+    }
+
+    /**
+     * Constructor of an MctsPlayer playing the given number of playouts for each of its moves, whose choices only
+     * depend on its seed and on the game.
+     *
+     * @param seed            the seed from which the Randoms of the player are derived
+     * @param playoutsPerMove the number of playouts of each move
+     * @param threads         the number of threads searching each move
+     * @throws IllegalArgumentException if playoutsPerMove or threads isn't strictly positive
+     */
+    public MctsPlayer(long seed, int playoutsPerMove, int threads) {
+        this(seed, Long.MAX_VALUE, playoutsPerMove, threads);
+    }
+
+    private MctsPlayer(long seed, long budgetNanos, int playoutsPerMove, int threads) {
+        Preconditions.checkArgument(budgetNanos > 0 && playoutsPerMove > 0 && threads > 0);
+
+        this.seed = seed;
+        this.budgetNanos = budgetNanos;
+        this.playoutsPerMove = playoutsPerMove;
+        this.threads = threads;
+        this.rng = new Random(seed);
+    }
+
+    /**
+     * Getter for the number of playouts played by the player since its creation.
+     *
+     * @return the number of playouts
+     */
+    public long playouts() {
+        return playouts;
+    }
+
+    /**
+     * Getter for the number of searches run by the player since its creation, one per move and ticket choice searched.
+     *
+     * @return the number of searches
+     */
+    public int searches() {
+        return searches;
+    }
+
+    /**
+     * Getter for the time the player spent searching since its creation.
+     *
+     * @return the time spent searching
+     */
+    public Duration searchTime() {
+        return Duration.ofNanos(searchNanos);
+    }
+
+    /**
+     * Computes the number of playouts played per second of search, by all the threads.
+     *
+     * @return the throughput of the searches, 0 if the player hasn't searched yet
+     */
+    public double playoutsPerSecond() {
+        return searchNanos == 0 ? 0 : playouts * 1e9 / searchNanos;
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        this.ownId = ownId;
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        this.initialTickets = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return chooseTickets(initialTickets, Constants.INITIAL_TICKETS_COUNT - Constants.DISCARDABLE_TICKETS_COUNT, false);
+    }
+
+    @Override
+    public TurnKind nextTurn() {
+        firstDraw = true;
+
+        final List<Move> moves = Turns.legalMoves(MutableGameState.of(determinized(rng)));
+        if (moves.isEmpty()) {
+            // as the other players, tries a turn which will abort the game
+            move = null;
+            return gameState.canDrawTickets() ? TurnKind.DRAW_TICKETS : TurnKind.DRAW_CARDS;
+        }
+        if (moves.size() == 1) {
+            move = moves.get(0);
+            return move.kind();
+        }
+
+        final Node[] roots = new Node[threads];
+        search(worker -> {
+            final Node root = roots[worker] = new Node(null, null);
+            return random -> iterate(root, random);
+        });
+
+        final Map<Move, Integer> visits = new HashMap<>();
+        for (Node root : roots)
+            root.children.values().forEach(child -> visits.merge(child.move, child.visits, Integer::sum));
+
+        move = moves.get(0);
+        for (Move candidate : moves) {
+            if (visits.getOrDefault(candidate, 0) > visits.getOrDefault(move, 0))
+                move = candidate;
+        }
+        return move.kind();
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return chooseTickets(options, 1, true);
+    }
+
+    @Override
+    public int drawSlot() {
+        if (firstDraw && move != null) {
+            firstDraw = false;
+            return move.slot();
+        }
+        return Turns.drawSlot(gameState.cardState(), ownState);
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return move.route();
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return move.cards();
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return options.isEmpty() ? SortedBag.of() : options.get(0);
+    }
+
+    private GameState determinized(Random random) {
+        return GameState.determinized(gameState, ownId, ownState, TICKETS, random);
+    }
+
+    /**
+     * Plays one playout : descends the tree while all the legal moves of the sample have been tried, choosing the
+     * child with the best upper confidence bound, then adds a child for one of the untried moves, plays the rest of
+     * the game at random and updates the nodes played.
+     */
+    private void iterate(Node root, Random random) {
+        final MutableGameState state = MutableGameState.of(determinized(random));
+        final List<Node> path = new ArrayList<>();
+        Node node = root;
+        boolean over = false;
+
+        while (!over) {
+            final List<Move> moves = Turns.legalMoves(state);
+            final List<Move> untriedMoves = new ArrayList<>();
+            Node best = null;
+            for (Move legalMove : moves) {
+                final Node child = node.children.get(legalMove);
+                if (child == null) {
+                    untriedMoves.add(legalMove);
+                } else {
+                    child.availability++;
+                    if (best == null || child.upperConfidenceBound() > best.upperConfidenceBound())
+                        best = child;
+                }
+            }
+
+            if (!untriedMoves.isEmpty()) {
+                final Move untriedMove = untriedMoves.get(random.nextInt(untriedMoves.size()));
+                final Node child = new Node(untriedMove, state.currentPlayerId());
+                child.availability++;
+                node.children.put(untriedMove, child);
+                path.add(child);
+                if (!Turns.play(state, untriedMove, random))
+                    Turns.playout(state, random);
+                break;
+            }
+            if (best == null)
+                break;
+
+            path.add(best);
+            over = Turns.play(state, best.move, random);
+            node = best;
+        }
+
+        final int[] points = Turns.finalPoints(state);
+        for (Node played : path) {
+            played.visits++;
+            played.reward += reward(points, played.player);
+        }
+    }
+
+    private SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options, int minCount, boolean endsTurn) {
+        final List<SortedBag<Ticket>> subsets = new ArrayList<>();
+        for (int size = Math.min(minCount, options.size()); size <= options.size(); size++)
+            subsets.addAll(options.subsetsOfSize(size));
+        if (subsets.size() == 1)
+            return subsets.get(0);
+
+        // the options drawn during a turn are still counted in the deck of the public state, while they are known not
+        // to be in it anymore, as the initial ones
+        final PublicGameState publicState = endsTurn ? withoutTopTickets(gameState, options.size()) : gameState;
+        final SortedBag<Ticket> tickets = TICKETS.difference(options);
+
+        final double[] rewards = new double[subsets.size()];
+        final int[] counts = new int[subsets.size()];
+        final double[][] workerRewards = new double[threads][subsets.size()];
+        final int[][] workerCounts = new int[threads][subsets.size()];
+        search(worker -> {
+            final int[] next = {worker};
+            return random -> {
+                final int subset = next[0]++ % subsets.size();
+                final SortedBag<Ticket> kept = subsets.get(subset);
+                final MutableGameState state = MutableGameState.of(GameState.determinized(
+                        publicState, ownId, ownState.withAddedTickets(kept), tickets.union(kept), random));
+                final boolean over = endsTurn && state.currentPlayerId() == state.lastPlayer();
+                if (endsTurn)
+                    state.forNextTurn();
+                if (!over)
+                    Turns.playout(state, random);
+
+                workerRewards[worker][subset] += reward(Turns.finalPoints(state), ownId);
+                workerCounts[worker][subset]++;
+            };
+        });
+
+        int best = 0;
+        for (int subset = 0; subset < subsets.size(); subset++) {
+            for (int worker = 0; worker < threads; worker++) {
+                rewards[subset] += workerRewards[worker][subset];
+                counts[subset] += workerCounts[worker][subset];
+            }
+            if (mean(rewards[subset], counts[subset]) > mean(rewards[best], counts[best]))
+                best = subset;
+        }
+        return subsets.get(best);
+    }
+
+    /**
+     * Runs a search on the threads, the iterations of each thread being built from its index and run with its own
+     * Random until the budget is spent, each thread running at least one.
+     */
+    private void search(IntFunction<Iteration> workers) {
+        final long start = System.nanoTime();
+        final long searchSeed = Simulator.gameSeed(seed, searches++);
+        final long deadline = (budgetNanos == Long.MAX_VALUE) ? Long.MAX_VALUE : start + budgetNanos;
+
+        final List<ForkJoinTask<Integer>> tasks = new ArrayList<>();
+        final Iteration[] iterations = new Iteration[threads];
+        for (int worker = 0; worker < threads; worker++)
+            iterations[worker] = workers.apply(worker);
+        for (int worker = 1; worker < threads; worker++) {
+            final int w = worker;
+            tasks.add(ForkJoinPool.commonPool().submit(() -> work(iterations[w], searchSeed, w, deadline)));
+        }
+
+        int played = work(iterations[0], searchSeed, 0, deadline);
+        for (ForkJoinTask<Integer> task : tasks)
+            played += task.join();
+
+        playouts += played;
+        searchNanos += System.nanoTime() - start;
+    }
+
+    private int work(Iteration iteration, long searchSeed, int worker, long deadline) {
+        final Random random = new Random(Simulator.gameSeed(searchSeed, worker));
+        final int quota = playoutsPerMove / threads + (worker < playoutsPerMove % threads ? 1 : 0);
+
+        int played = 0;
+        do {
+            iteration.run(random);
+            played++;
+        } while (played < quota && System.nanoTime() < deadline);
+        return played;
+    }
+
+    private static PublicGameState withoutTopTickets(PublicGameState state, int count) {
+        final Map<PlayerId, PublicPlayerState> playerStates = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL)
+            playerStates.put(playerId, state.playerState(playerId));
+        return new PublicGameState(state.ticketsCount() - count, state.cardState(), state.currentPlayerId(),
+                playerStates, state.lastPlayer());
+    }
+
+    private static double reward(int[] points, PlayerId playerId) {
+        int others = Integer.MIN_VALUE;
+        for (PlayerId other : PlayerId.ALL) {
+            if (other != playerId)
+                others = Math.max(others, points[other.ordinal()]);
+        }
+        final int own = points[playerId.ordinal()];
+        return own > others ? 1 : (own == others ? 0.5 : 0);
+    }
+
+    private static double mean(double reward, int count) {
+        return count == 0 ? 0 : reward / count;
+    }
+
+    @FunctionalInterface
+    private interface Iteration {
+        void run(Random random);
+    }
+
+    private static final class Node {
+        private final Move move;
+        private final PlayerId player;
+        private final Map<Move, Node> children = new HashMap<>();
+        private int visits;
+        private int availability;
+        private double reward;
+
+        private Node(Move move, PlayerId player) {
+            this.move = move;
+            this.player = player;
+        }
+
+        private double upperConfidenceBound() {
+            return reward / visits + EXPLORATION * Math.sqrt(Math.log(availability) / visits);
+        }
+    }
+
+    public static void main(String[] args) {
+        final long moveMillis = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_MOVE_MILLIS;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final int games = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_GAMES;
+
+        final List<MctsPlayer> players = new CopyOnWriteArrayList<>();
+        final Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+        names.put(PlayerId.PLAYER_1, "mcts");
+        names.put(PlayerId.PLAYER_2, "random");
+        final Map<PlayerId, LongFunction<Player>> factories = new EnumMap<>(PlayerId.class);
+        factories.put(PlayerId.PLAYER_1, seed -> {
+            final MctsPlayer player = new MctsPlayer(seed, Duration.ofMillis(moveMillis), threads);
+            players.add(player);
+            return player;
+        });
+        factories.put(PlayerId.PLAYER_2, RandomPlayer::new);
+
+        System.out.print(new Simulator(names, factories).run(games, DEFAULT_MASTER_SEED, 1).toString(names));
+
+        final long playouts = players.stream().mapToLong(MctsPlayer::playouts).sum();
+        final double seconds = players.stream().mapToLong(player -> player.searchTime().toNanos()).sum() / 1e9;
+        System.out.printf("%,d playouts in %.2f s of search with %d threads : %,.0f playouts/s%n",
+                playouts, seconds, threads, playouts / seconds);
+    }
+}
@@ -0,0 +1,124 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.Route;
+
+import java.util.Objects;
+
+/**<h1>Move</h1>
+ * Decision taken by a player at the beginning of its turn : the kind of the turn and, to claim a route, the route and
+ * the initial claim cards or, to draw cards, the slot of the first card. The decisions taken later in the turn are left
+ * to the policies of {@link Turns}.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+final class Move {
+    private static final Move DRAW_TICKETS = new Move(Player.TurnKind.DRAW_TICKETS, null, null, Constants.DECK_SLOT);
+
+    private final Player.TurnKind kind;
+    private final Route route;
+    private final SortedBag<Card> cards;
+    private final int slot;
+
+    private Move(Player.TurnKind kind, Route route, SortedBag<Card> cards, int slot) {
+        this.kind = kind;
+        this.route = route;
+        this.cards = cards;
+        this.slot = slot;
+    }
+
+    /**
+     * Static method returning the Move drawing tickets.
+     *
+     * @return the Move drawing tickets
+     */
+    static Move drawTickets() {
+        return DRAW_TICKETS;
+    }
+
+    /**
+     * Static method building the Move drawing cards, the first one from the given slot.
+     *
+     * @param slot the slot of the first card, {@link Constants#DECK_SLOT} for the deck
+     * @return the Move drawing cards
+     */
+    static Move drawCards(int slot) {
+        return new Move(Player.TurnKind.DRAW_CARDS, null, null, slot);
+    }
+
+    /**
+     * Static method building the Move claiming the given route with the given initial cards.
+     *
+     * @param route the route
+     * @param cards the initial claim cards
+     * @return the Move claiming the route
+     */
+    static Move claimRoute(Route route, SortedBag<Card> cards) {
+        return new Move(Player.TurnKind.CLAIM_ROUTE, Objects.requireNonNull(route), Objects.requireNonNull(cards),
+                Constants.DECK_SLOT);
+    }
+
+    /**
+     * Getter for the kind of the turn.
+     *
+     * @return the TurnKind
+     */
+    Player.TurnKind kind() {
+        return kind;
+    }
+
+    /**
+     * Getter for the route claimed.
+     *
+     * @return the route, null if the Move doesn't claim a route
+     */
+    Route route() {
+        return route;
+    }
+
+    /**
+     * Getter for the initial claim cards.
+     *
+     * @return the cards, null if the Move doesn't claim a route
+     */
+    SortedBag<Card> cards() {
+        return cards;
+    }
+
+    /**
+     * Getter for the slot of the first card drawn.
+     *
+     * @return the slot, {@link Constants#DECK_SLOT} if the Move doesn't draw cards
+     */
+    int slot() {
+        return slot;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        if (!(that instanceof Move))
+            return false;
+        final Move move = (Move) that;
+        return kind == move.kind && route == move.route && Objects.equals(cards, move.cards) && slot == move.slot;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, route == null ? null : route.id(), cards, slot);
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case CLAIM_ROUTE:
+                return kind + " " + route.id() + " " + cards;
+            case DRAW_CARDS:
+                return kind + " " + slot;
+            default:
+                return kind.toString();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**<h1>RandomPlayer</h1>
+ * Headless player choosing uniformly at random among its legal moves, used as the reference opponent of the
+ * simulations. It claims a route most of the time it can, and draws cards otherwise.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class RandomPlayer implements Player {
+    private static final int CLAIM_PROBABILITY_PERCENT = 60;
+    private static final int DRAW_TICKETS_PROBABILITY_PERCENT = 5;
+
+    private final Random rng;
+    private PublicGameState gameState;
+    private PlayerState ownState;
+    private SortedBag<Ticket> initialTickets;
+    private Route routeToClaim;
+    private SortedBag<Card> initialClaimCards;
+
+    /**
+     * Constructor of a RandomPlayer whose choices only depend on the given seed and on the game.
+     *
+     * @param seed the seed of the player's Random
+     */
+    public RandomPlayer(long seed) {
+        this.rng = new Random(seed);
+    }
+
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+    }
+
+    @Override
+    public void receiveInfo(String info) {
+    }
+
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        this.initialTickets = tickets;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return randomSubset(initialTickets, Constants.IN_GAME_TICKETS_COUNT);
+    }
+
+    @Override
+    public TurnKind nextTurn() {
+        final List<Route> claimableRoutes = Turns.claimableRoutes(new HashSet<>(gameState.claimedRoutes()), ownState);
+        final int choice = rng.nextInt(100);
+
+        if (choice < DRAW_TICKETS_PROBABILITY_PERCENT && gameState.canDrawTickets())
+            return TurnKind.DRAW_TICKETS;
+
+        if (!claimableRoutes.isEmpty() && (choice < CLAIM_PROBABILITY_PERCENT || !gameState.canDrawCards())) {
+            routeToClaim = claimableRoutes.get(rng.nextInt(claimableRoutes.size()));
+            final List<SortedBag<Card>> options = ownState.possibleClaimCards(routeToClaim);
+            initialClaimCards = options.get(rng.nextInt(options.size()));
+            return TurnKind.CLAIM_ROUTE;
+        }
+
+        if (!gameState.canDrawCards() && gameState.canDrawTickets())
+            return TurnKind.DRAW_TICKETS;
+        return TurnKind.DRAW_CARDS;
+    }
+
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return randomSubset(options, 1);
+    }
+
+    @Override
+    public int drawSlot() {
+        return rng.nextInt(Constants.FACE_UP_CARDS_COUNT + 1) - 1;
+    }
+
+    @Override
+    public Route claimedRoute() {
+        return routeToClaim;
+    }
+
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return initialClaimCards;
+    }
+
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return options.isEmpty() ? SortedBag.of() : options.get(rng.nextInt(options.size()));
+    }
+
+    private SortedBag<Ticket> randomSubset(SortedBag<Ticket> tickets, int minSize) {
+        final List<Ticket> shuffled = new ArrayList<>(tickets.toList());
+        Collections.shuffle(shuffled, rng);
+        return SortedBag.of(shuffled.subList(0, minSize + rng.nextInt(tickets.size() - minSize + 1)));
+    }
+}
@@ -0,0 +1,148 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Station;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**<h1>ShortestPaths</h1>
+ * None instantiable class holding the shortest paths between all the pairs of stations of {@link ChMap}, the length of
+ * a path being the number of cars of its routes. They are computed once, by the Floyd-Warshall algorithm, into flat
+ * arrays indexed by the ids of the stations, so that following a path only takes array lookups. The routes are
+ * designated by their index in {@link ChMap#routes()}.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+final class ShortestPaths {
+    /**
+     * Distance between two stations which aren't connected.
+     */
+    static final int UNREACHABLE = Integer.MAX_VALUE / 2;
+
+    /**
+     * Number of stations, the ids of the stations being smaller.
+     */
+    static final int STATION_COUNT = stationCount();
+
+    private static final List<Route> ROUTES = ChMap.routes();
+    private static final Map<Route, Integer> ROUTE_INDICES = routeIndices();
+    private static final int[] DOUBLE_ROUTES = new int[ROUTES.size()];
+    // the ids of the two stations of each route, one xor the other being the opposite station
+    private static final int[] STATIONS_XOR = new int[ROUTES.size()];
+    private static final int[] DISTANCES = new int[STATION_COUNT * STATION_COUNT];
+    private static final int[] NEXT_ROUTES = new int[STATION_COUNT * STATION_COUNT];
+
+    static {
+        Arrays.fill(DOUBLE_ROUTES, -1);
+        Arrays.fill(DISTANCES, UNREACHABLE);
+        Arrays.fill(NEXT_ROUTES, -1);
+        for (int station = 0; station < STATION_COUNT; station++)
+            DISTANCES[station * STATION_COUNT + station] = 0;
+
+        for (int route = 0; route < ROUTES.size(); route++) {
+            final int id1 = ROUTES.get(route).station1().id();
+            final int id2 = ROUTES.get(route).station2().id();
+            STATIONS_XOR[route] = id1 ^ id2;
+            final Route doubleRoute = ChMap.doubleRoute(ROUTES.get(route));
+            if (doubleRoute != null) {
+                DOUBLE_ROUTES[route] = ROUTE_INDICES.get(doubleRoute);
+                // the paths only go through the first of the two routes
+                if (DOUBLE_ROUTES[route] < route)
+                    continue;
+            }
+
+            final int length = ROUTES.get(route).length();
+            DISTANCES[id1 * STATION_COUNT + id2] = DISTANCES[id2 * STATION_COUNT + id1] = length;
+            NEXT_ROUTES[id1 * STATION_COUNT + id2] = NEXT_ROUTES[id2 * STATION_COUNT + id1] = route;
+        }
+
+        for (int via = 0; via < STATION_COUNT; via++) {
+            for (int from = 0; from < STATION_COUNT; from++) {
+                final int toVia = DISTANCES[from * STATION_COUNT + via];
+                if (toVia == UNREACHABLE)
+                    continue;
+                for (int to = 0; to < STATION_COUNT; to++) {
+                    final int distance = toVia + DISTANCES[via * STATION_COUNT + to];
+                    if (distance < DISTANCES[from * STATION_COUNT + to]) {
+                        DISTANCES[from * STATION_COUNT + to] = distance;
+                        NEXT_ROUTES[from * STATION_COUNT + to] = NEXT_ROUTES[from * STATION_COUNT + via];
+                    }
+                }
+            }
+        }
+    }
+
+    private ShortestPaths() {
+    }
+
+    /**
+     * Getter for the length of the shortest path between two stations.
+     *
+     * @param from the id of the first station
+     * @param to   the id of the second station
+     * @return the number of cars of the shortest path, {@link #UNREACHABLE} if there is none
+     */
+    static int distance(int from, int to) {
+        return DISTANCES[from * STATION_COUNT + to];
+    }
+
+    /**
+     * Getter for the first route of the shortest path between two stations.
+     *
+     * @param from the id of the first station
+     * @param to   the id of the second station
+     * @return the index of the route leaving from, -1 if the stations are the same or aren't connected
+     */
+    static int nextRoute(int from, int to) {
+        return NEXT_ROUTES[from * STATION_COUNT + to];
+    }
+
+    /**
+     * Getter for the station at the other end of a route.
+     *
+     * @param route   the index of the route
+     * @param station the id of one of its stations
+     * @return the id of the other station
+     */
+    static int opposite(int route, int station) {
+        return STATIONS_XOR[route] ^ station;
+    }
+
+    /**
+     * Getter for the double of a route, the other route between the same stations.
+     *
+     * @param route the index of the route
+     * @return the index of its double, -1 if it has none
+     */
+    static int doubleRoute(int route) {
+        return DOUBLE_ROUTES[route];
+    }
+
+    /**
+     * Getter for the index of a route.
+     *
+     * @param route the route
+     * @return its index in {@link ChMap#routes()}
+     */
+    static int index(Route route) {
+        return ROUTE_INDICES.get(route);
+    }
+
+    private static int stationCount() {
+        int count = 0;
+        for (Station station : ChMap.stations())
+            count = Math.max(count, station.id() + 1);
+        return count;
+    }
+
+    private static Map<Route, Integer> routeIndices() {
+        final Map<Route, Integer> indices = new HashMap<>();
+        for (int route = 0; route < ChMap.routes().size(); route++)
+            indices.put(ChMap.routes().get(route), route);
+        return indices;
+    }
+}
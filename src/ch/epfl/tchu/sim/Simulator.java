@@ -0,0 +1,386 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.Preconditions;
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.MutableGameState;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicGameState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.IntSummaryStatistics;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+/**<h1>Simulator</h1>
+ * Headless simulator playing a batch of complete games between configurable players, in parallel on a fork-join
+ * pool. Each game is given its own seed, derived from a master seed, from which the game's Random and the players are
+ * built, so that the results of a batch only depend on the master seed, whatever the number of threads.
+ * <p>
+ * Usage : Simulator [games] [master seed] [threads] [player 1] [player 2], the players being chosen among
+ * {@link #PLAYERS}.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+public final class Simulator {
+    /**
+     * Players the simulator can be run with from the command line, by name.
+     */
+    public static final Map<String, LongFunction<Player>> PLAYERS = players();
+
+    private static final int DEFAULT_GAMES = 1_000;
+    private static final long DEFAULT_MASTER_SEED = 2021;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    // the games being played in parallel, each player searches on its own thread
+    private static final int SIMULATION_PLAYOUTS = 100;
+
+    private final Map<PlayerId, String> playerNames;
+    private final Map<PlayerId, LongFunction<Player>> playerFactories;
+    private final SortedBag<Ticket> tickets;
+
+    /**
+     * Constructor of a Simulator.
+     *
+     * @param playerNames     the names of the players
+     * @param playerFactories the functions building, for each player, a new Player from its seed for each game
+     * @throws IllegalArgumentException if there isn't a name and a factory for each player
+     */
+    public Simulator(Map<PlayerId, String> playerNames, Map<PlayerId, LongFunction<Player>> playerFactories) {
+        Preconditions.checkArgument(playerNames.size() == PlayerId.COUNT && playerFactories.size() == PlayerId.COUNT);
+
+        this.playerNames = new EnumMap<>(playerNames);
+        this.playerFactories = new EnumMap<>(playerFactories);
+        this.tickets = SortedBag.of(ChMap.tickets());
+    }
+
+    /**
+     * Plays the given number of games on a pool of the given number of threads.
+     *
+     * @param games       the number of games to play
+     * @param masterSeed  the seed from which the seed of each game is derived
+     * @param parallelism the number of threads playing the games
+     * @return the Report of the games
+     * @throws IllegalArgumentException if games is negative or parallelism isn't strictly positive
+     * @throws IllegalStateException    if a game fails for another reason than a player having no legal move
+     */
+    public Report run(int games, long masterSeed, int parallelism) {
+        Preconditions.checkArgument(games >= 0 && parallelism > 0);
+
+        final int[][] points = new int[games][];
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        final long start = System.nanoTime();
+        try {
+            pool.submit(() -> IntStream.range(0, games)
+                    .parallel()
+                    .forEach(game -> points[game] = play(gameSeed(masterSeed, game))))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+        return new Report(points, System.nanoTime() - start);
+    }
+
+    /**
+     * Computes the seed of the given game, with the finalizer of the SplitMix64 generator, so that the seeds of
+     * consecutive games are not correlated.
+     *
+     * @param masterSeed the seed of the whole batch
+     * @param game       the index of the game in the batch
+     * @return the seed of the game
+     */
+    public static long gameSeed(long masterSeed, int game) {
+        return mix(masterSeed + (game + 1) * GOLDEN_GAMMA);
+    }
+
+    private int[] play(long gameSeed) {
+        final Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL) {
+            final Player player = playerFactories.get(playerId).apply(mix(gameSeed + (playerId.ordinal() + 1) * GOLDEN_GAMMA));
+            players.put(playerId, new RefereedPlayer(player));
+        }
+
+        try {
+            final Map<PlayerId, Integer> finalPoints =
+                    Game.play(players, playerNames, tickets, new Random(gameSeed), MutableGameState::of);
+            return PlayerId.ALL.stream().mapToInt(finalPoints::get).toArray();
+        } catch (NoLegalMoveException e) {
+            return null;
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("game of seed " + gameSeed + " failed", e);
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static Map<String, LongFunction<Player>> players() {
+        final Map<String, LongFunction<Player>> players = new LinkedHashMap<>();
+        players.put("random", RandomPlayer::new);
+        players.put("greedy", seed -> new GreedyPlayer());
+        players.put("mcts", seed -> new MctsPlayer(seed, SIMULATION_PLAYOUTS, 1));
+        return players;
+    }
+
+    public static void main(String[] args) {
+        final int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        final long masterSeed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_MASTER_SEED;
+        final int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        final Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+        final Map<PlayerId, LongFunction<Player>> factories = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL) {
+            final String name = args.length > 3 + playerId.ordinal() ? args[3 + playerId.ordinal()] : "random";
+            Preconditions.checkArgument(PLAYERS.containsKey(name));
+            names.put(playerId, name + " (" + playerId + ")");
+            factories.put(playerId, PLAYERS.get(name));
+        }
+
+        System.out.println(new Simulator(names, factories).run(games, masterSeed, threads).toString(names));
+    }
+
+    /**
+     * Signals that the current player has no legal move, the only reason for which a game is aborted.
+     */
+    private static final class NoLegalMoveException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private NoLegalMoveException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Player delegating to another one, which throws a {@link NoLegalMoveException} instead of asking it for a turn
+     * when it has no legal move, rather than letting the game fail on the turn it would choose anyway.
+     */
+    private static final class RefereedPlayer implements Player {
+        private final Player player;
+        private PublicGameState gameState;
+        private PlayerState ownState;
+
+        private RefereedPlayer(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            this.gameState = newState;
+            this.ownState = ownState;
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            if (!gameState.canDrawTickets() && !gameState.canDrawCards()
+                    && Turns.claimableRoutes(new HashSet<>(gameState.claimedRoutes()), ownState).isEmpty())
+                throw new NoLegalMoveException();
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+
+    /**
+     * Final points of the games of a batch, and the statistics computed from them.
+     */
+    public static final class Report {
+        private final int[][] points;
+        private final long nanos;
+
+        private Report(int[][] points, long nanos) {
+            this.points = points;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Getter for the number of games played, aborted ones included.
+         *
+         * @return the number of games
+         */
+        public int games() {
+            return points.length;
+        }
+
+        /**
+         * Getter for the number of games aborted because a player had no legal move, any other failure of a game
+         * failing the whole batch.
+         *
+         * @return the number of aborted games
+         */
+        public int abortedGames() {
+            return (int) Arrays.stream(points).filter(p -> p == null).count();
+        }
+
+        /**
+         * Getter for the final points of the given game.
+         *
+         * @param game the index of the game
+         * @return the final points of each player, indexed by PlayerId ordinal, null if the game was aborted
+         */
+        public int[] points(int game) {
+            return points[game] == null ? null : points[game].clone();
+        }
+
+        /**
+         * Computes the number of games played per second.
+         *
+         * @return the throughput of the batch
+         */
+        public double gamesPerSecond() {
+            return points.length * 1e9 / nanos;
+        }
+
+        /**
+         * Computes the number of games won by the given player, draws excluded.
+         *
+         * @param playerId the player
+         * @return the number of games the player won alone
+         */
+        public int wins(PlayerId playerId) {
+            return (int) Arrays.stream(points)
+                    .filter(p -> p != null && p[playerId.ordinal()] == max(p) && countOf(p, max(p)) == 1)
+                    .count();
+        }
+
+        /**
+         * Computes the number of games ending in a draw.
+         *
+         * @return the number of games where several players have the most points
+         */
+        public int draws() {
+            return (int) Arrays.stream(points)
+                    .filter(p -> p != null && countOf(p, max(p)) > 1)
+                    .count();
+        }
+
+        /**
+         * Computes the statistics of the final points of the given player over the games that were not aborted.
+         *
+         * @param playerId the player
+         * @return the statistics of its final points
+         */
+        public IntSummaryStatistics pointsStatistics(PlayerId playerId) {
+            return sortedPoints(playerId).summaryStatistics();
+        }
+
+        /**
+         * Computes a percentile of the final points of the given player over the games that were not aborted.
+         *
+         * @param playerId   the player
+         * @param percentile the percentile, in [0;100]
+         * @return the final points below which percentile percent of the games end
+         * @throws IllegalArgumentException if percentile isn't in [0;100] or if all the games were aborted
+         */
+        public int pointsPercentile(PlayerId playerId, double percentile) {
+            final int[] sorted = sortedPoints(playerId).toArray();
+            Preconditions.checkArgument(percentile >= 0 && percentile <= 100 && sorted.length > 0);
+            return sorted[(int) Math.round(percentile / 100 * (sorted.length - 1))];
+        }
+
+        /**
+         * Textual representation of the report, naming the players with the given names.
+         *
+         * @param playerNames the names of the players
+         * @return the report as a text
+         */
+        public String toString(Map<PlayerId, String> playerNames) {
+            final StringBuilder text = new StringBuilder();
+            text.append(String.format("%,d games (%,d aborted) in %.2f s : %,.1f games/s%n",
+                    games(), abortedGames(), nanos / 1e9, gamesPerSecond()));
+
+            if (games() == abortedGames())
+                return text.toString();
+
+            for (PlayerId playerId : PlayerId.ALL) {
+                final IntSummaryStatistics statistics = pointsStatistics(playerId);
+                text.append(String.format("%s : %,d wins (%.1f%%), points min %d / p10 %d / median %d / p90 %d / max %d, mean %.1f%n",
+                        playerNames.get(playerId), wins(playerId), 100.0 * wins(playerId) / Math.max(1, games() - abortedGames()),
+                        statistics.getMin(), pointsPercentile(playerId, 10), pointsPercentile(playerId, 50),
+                        pointsPercentile(playerId, 90), statistics.getMax(), statistics.getAverage()));
+            }
+            text.append(String.format("draws : %,d%n", draws()));
+            return text.toString();
+        }
+
+        @Override
+        public String toString() {
+            final Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+            PlayerId.ALL.forEach(playerId -> names.put(playerId, playerId.toString()));
+            return toString(names);
+        }
+
+        private IntStream sortedPoints(PlayerId playerId) {
+            return Arrays.stream(points)
+                    .filter(p -> p != null)
+                    .mapToInt(p -> p[playerId.ordinal()])
+                    .sorted();
+        }
+
+        private static int max(int[] points) {
+            return Arrays.stream(points).max().orElse(0);
+        }
+
+        private static int countOf(int[] points, int value) {
+            return (int) Arrays.stream(points).filter(p -> p == value).count();
+        }
+    }
+}
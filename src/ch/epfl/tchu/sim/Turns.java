@@ -0,0 +1,273 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Constants;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.GameStateEngine;
+import ch.epfl.tchu.game.MutableGameState;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+import ch.epfl.tchu.game.PublicCardState;
+import ch.epfl.tchu.game.Route;
+import ch.epfl.tchu.game.Ticket;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**<h1>Turns</h1>
+ * None instantiable class playing whole turns on a {@link MutableGameState}, following the steps of
+ * {@link Game#play(Map, Map, SortedBag, Random)} without any player : the decision taken at the beginning of the turn is
+ * a {@link Move}, the later ones being taken by simple policies. Used by the players searching their moves by
+ * simulating the rest of the game.
+ * <p>
+ * A route can't be claimed once its double, the other route between the same stations, has been claimed, as the
+ * graphical interface forbids it.
+ *
+ * @author Grégory Preisig (299489) & Nicolas Cuveillier (329672)
+ */
+final class Turns {
+    private static final int DRAWING_PER_DRAW_CARDS_TURN = 2;
+    private static final int CLAIM_PROBABILITY_PERCENT = 70;
+
+    private Turns() {
+    }
+
+    /**
+     * Computes the Moves the current player can play, the initial claim cards being restricted to the ones with the
+     * fewest locomotives and the face-up cards to one slot per card. The tickets are only drawn when nothing else can
+     * be done, a player never needing them to end the game.
+     *
+     * @param state the state
+     * @return the legal Moves of the current player, empty if the player can't play at all
+     */
+    static List<Move> legalMoves(GameStateEngine<?> state) {
+        final PlayerState playerState = state.currentPlayerState();
+        final List<Move> moves = new ArrayList<>();
+
+        for (Route route : claimableRoutes(claimedRoutes(state), playerState)) {
+            for (SortedBag<Card> cards : fewestLocomotives(playerState.possibleClaimCards(route)))
+                moves.add(Move.claimRoute(route, cards));
+        }
+
+        if (state.canDrawCards()) {
+            moves.add(Move.drawCards(Constants.DECK_SLOT));
+            final List<Card> faceUpCards = state.cardState().faceUpCards();
+            for (int slot : Constants.FACE_UP_CARD_SLOTS) {
+                if (faceUpCards.indexOf(faceUpCards.get(slot)) == slot)
+                    moves.add(Move.drawCards(slot));
+            }
+        }
+
+        if (moves.isEmpty() && state.canDrawTickets())
+            moves.add(Move.drawTickets());
+        return moves;
+    }
+
+    /**
+     * Chooses the Move of the current player at random, mostly claiming a route when it can and drawing cards with
+     * {@link #drawSlot(PublicCardState, PlayerState)} otherwise.
+     *
+     * @param state the state
+     * @param rng   Random used to choose the Move
+     * @return the Move, null if the player can't play at all
+     */
+    static Move randomMove(GameStateEngine<?> state, Random rng) {
+        final PlayerState playerState = state.currentPlayerState();
+        final List<Route> claimableRoutes = claimableRoutes(claimedRoutes(state), playerState);
+
+        if (!claimableRoutes.isEmpty() && (rng.nextInt(100) < CLAIM_PROBABILITY_PERCENT || !state.canDrawCards())) {
+            final Route route = claimableRoutes.get(rng.nextInt(claimableRoutes.size()));
+            final List<SortedBag<Card>> options = fewestLocomotives(playerState.possibleClaimCards(route));
+            return Move.claimRoute(route, options.get(rng.nextInt(options.size())));
+        }
+        if (state.canDrawCards())
+            return Move.drawCards(drawSlot(state.cardState(), playerState));
+        return state.canDrawTickets() ? Move.drawTickets() : null;
+    }
+
+    /**
+     * Plays the turn of the current player beginning with the given Move, and gives the turn to the next player.
+     *
+     * @param state the state, modified in place
+     * @param move  the Move, which must be legal
+     * @param rng   Random used to recreate the deck
+     * @return true iff the turn played was the last one of the game
+     */
+    static boolean play(MutableGameState state, Move move, Random rng) {
+        switch (move.kind()) {
+            case DRAW_TICKETS:
+                final SortedBag<Ticket> drawnTickets = state.topTickets(Math.min(Constants.IN_GAME_TICKETS_COUNT, state.ticketsCount()));
+                state.withChosenAdditionalTickets(drawnTickets, SortedBag.of(drawnTickets.get(0)));
+                break;
+
+            case DRAW_CARDS:
+                for (int i = 0; i < DRAWING_PER_DRAW_CARDS_TURN; i++) {
+                    state.withCardsDeckRecreatedIfNeeded(rng);
+                    final int slot = (i == 0) ? move.slot() : drawSlot(state.cardState(), state.currentPlayerState());
+                    if (slot == Constants.DECK_SLOT)
+                        state.withBlindlyDrawnCard();
+                    else
+                        state.withDrawnFaceUpCard(slot);
+                }
+                break;
+
+            case CLAIM_ROUTE:
+                claimRoute(state, move.route(), move.cards(), rng);
+                break;
+
+            default:
+                throw new Error();
+        }
+
+        final boolean lastTurn = state.currentPlayerId() == state.lastPlayer();
+        state.forNextTurn();
+        return lastTurn;
+    }
+
+    /**
+     * Plays the rest of the game with {@link #randomMove(GameStateEngine, Random)}, until its end or until a player
+     * can't play at all.
+     *
+     * @param state the state, modified in place
+     * @param rng   Random used to choose the moves and to recreate the deck
+     */
+    static void playout(MutableGameState state, Random rng) {
+        Move move;
+        do {
+            move = randomMove(state, rng);
+        } while (move != null && !play(state, move, rng));
+    }
+
+    /**
+     * Chooses the slot from which the player draws a card : a face-up locomotive, or else the face-up card the player
+     * already has the most of, or else the deck.
+     *
+     * @param cardState   the public state of the cards
+     * @param playerState the state of the player
+     * @return the slot, {@link Constants#DECK_SLOT} for the deck
+     */
+    static int drawSlot(PublicCardState cardState, PlayerState playerState) {
+        int bestSlot = cardState.isDeckEmpty() ? 0 : Constants.DECK_SLOT;
+        int bestCount = 0;
+        for (int slot : Constants.FACE_UP_CARD_SLOTS) {
+            final Card card = cardState.faceUpCard(slot);
+            if (card == Card.LOCOMOTIVE)
+                return slot;
+
+            final int count = playerState.cards().countOf(card);
+            if (count > bestCount) {
+                bestSlot = slot;
+                bestCount = count;
+            }
+        }
+        return bestSlot;
+    }
+
+    /**
+     * Computes the final points of the players, longest trail bonus included, as {@link Game} does.
+     *
+     * @param state the state
+     * @return the final points, indexed by PlayerId ordinal
+     */
+    static int[] finalPoints(GameStateEngine<?> state) {
+        int longest = 0;
+        for (PlayerId playerId : PlayerId.ALL)
+            longest = Math.max(longest, state.playerState(playerId).longestTrail().length());
+
+        final int[] points = new int[PlayerId.COUNT];
+        for (PlayerId playerId : PlayerId.ALL) {
+            final PlayerState playerState = state.playerState(playerId);
+            points[playerId.ordinal()] = playerState.finalPoints()
+                    + (playerState.longestTrail().length() == longest ? Constants.LONGEST_TRAIL_BONUS_POINTS : 0);
+        }
+        return points;
+    }
+
+    /**
+     * Computes the routes the player can claim : the ones it has the cars and the cards for, which are neither claimed
+     * nor the double of a claimed one.
+     *
+     * @param claimedRoutes the routes claimed by all the players
+     * @param playerState   the state of the player
+     * @return the routes the player can claim, in the order of {@link ChMap#routes()}
+     */
+    static List<Route> claimableRoutes(Set<Route> claimedRoutes, PlayerState playerState) {
+        final List<Route> claimableRoutes = new ArrayList<>();
+        for (Route route : ChMap.routes()) {
+            if (!claimedRoutes.contains(route)
+                    && !claimedRoutes.contains(ChMap.doubleRoute(route))
+                    && playerState.canClaimRoute(route))
+                claimableRoutes.add(route);
+        }
+        return claimableRoutes;
+    }
+
+    /**
+     * Computes the routes claimed by all the players.
+     *
+     * @param state the state
+     * @return the set of the claimed routes
+     */
+    static Set<Route> claimedRoutes(GameStateEngine<?> state) {
+        final Set<Route> claimedRoutes = new HashSet<>();
+        for (PlayerId playerId : PlayerId.ALL)
+            claimedRoutes.addAll(state.playerState(playerId).routes());
+        return claimedRoutes;
+    }
+
+    /**
+     * Keeps the claim cards using the fewest locomotives.
+     *
+     * @param options the possible claim cards
+     * @return the options using the fewest locomotives, in their order
+     */
+    static List<SortedBag<Card>> fewestLocomotives(List<SortedBag<Card>> options) {
+        int fewest = Integer.MAX_VALUE;
+        for (SortedBag<Card> option : options)
+            fewest = Math.min(fewest, option.countOf(Card.LOCOMOTIVE));
+
+        final List<SortedBag<Card>> fewestOptions = new ArrayList<>();
+        for (SortedBag<Card> option : options) {
+            if (option.countOf(Card.LOCOMOTIVE) == fewest)
+                fewestOptions.add(option);
+        }
+        return fewestOptions;
+    }
+
+    private static void claimRoute(MutableGameState state, Route route, SortedBag<Card> initialCards, Random rng) {
+        if (route.level() == Route.Level.OVERGROUND) {
+            state.withClaimedRoute(route, initialCards);
+            return;
+        }
+
+        final SortedBag.Builder<Card> drawnCards = new SortedBag.Builder<>();
+        for (int i = 0; i < Constants.ADDITIONAL_TUNNEL_CARDS; i++) {
+            state.withCardsDeckRecreatedIfNeeded(rng);
+            if (state.cardState().isDeckEmpty())
+                break;
+            drawnCards.add(state.topCard());
+            state.withoutTopCard();
+        }
+        final SortedBag<Card> drawn = drawnCards.build();
+        state.withMoreDiscardedCards(drawn);
+        // too few cards left to draw the three cards, which the game doesn't handle either
+        if (drawn.size() < Constants.ADDITIONAL_TUNNEL_CARDS)
+            return;
+
+        final int additionalCardsCount = route.additionalClaimCardsCount(initialCards, drawn);
+        if (additionalCardsCount == 0) {
+            state.withClaimedRoute(route, initialCards);
+            return;
+        }
+
+        final List<SortedBag<Card>> options = state.currentPlayerState().possibleAdditionalCards(additionalCardsCount, initialCards);
+        if (!options.isEmpty())
+            state.withClaimedRoute(route, initialCards.union(options.get(0)));
+    }
+}